@@ -0,0 +1,198 @@
+import benchmarks.IntSorter;
+import benchmarks.NavigationOps;
+import benchmarks.OrderStatisticsOps;
+import benchmarks.SplitJoinOps;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Bridge from the unnamed package to the JMH benchmarks, which have to live in
+ * a named package and so cannot name these classes themselves.
+ */
+public final class BenchmarkSubjects {
+
+    private BenchmarkSubjects() {
+    }
+
+    public static Map<Integer, Integer> newMap(String impl) {
+        return switch (impl) {
+            case "AVLTree" -> new AVLTree<>();
+            case "TreapMap" -> new TreapMap<>();
+            case "ArrayAVLTree" -> new ArrayAVLTree<>();
+            case "ArrayTreapMap" -> new ArrayTreapMap<>();
+            case "TreeMap" -> new TreeMap<>();
+            case "BPlusTreeMap" -> new BPlusTreeMap<>();
+            case "ConcurrentSkipListMap" -> new ConcurrentSkipListMap<>();
+            default -> throw new IllegalArgumentException("unknown map: " + impl);
+        };
+    }
+
+    public static NavigationOps navigationOps(Map<Integer, Integer> map) {
+        if (map instanceof TreapMap<Integer, Integer> treap) return new TreapOps(treap);
+        if (map instanceof BPlusTreeMap<Integer, Integer> bPlus) return new BPlusOps(bPlus);
+        if (map instanceof NavigableMap<Integer, Integer> nav) return new NavigableOps(nav);
+        throw new IllegalArgumentException("no navigation for " + map.getClass().getSimpleName());
+    }
+
+    public static OrderStatisticsOps orderStatisticsOps(Map<Integer, Integer> map) {
+        if (map instanceof TreapMap<Integer, Integer> treap) return new TreapOps(treap);
+        if (map instanceof AVLTree<Integer, Integer> avl) return new AVLOps(avl);
+        throw new IllegalArgumentException("no order statistics for " + map.getClass().getSimpleName());
+    }
+
+    public static SplitJoinOps splitJoinOps(Map<Integer, Integer> map) {
+        if (map instanceof TreapMap<Integer, Integer> treap) return new TreapOps(treap);
+        throw new IllegalArgumentException("no split/join for " + map.getClass().getSimpleName());
+    }
+
+    public static IntSorter sorter(String name) {
+        return switch (name) {
+            case "mergeSort" -> SortingBenchmark::mergeSort;
+            case "quickSort" -> SortingBenchmark::quickSort;
+            case "treapSort" -> SortingBenchmark::treapSort;
+            case "pqSort" -> SortingBenchmark::pqSort;
+            case "parallelMergeSort" -> SortingAlgorithms::parallelMergeSort;
+            case "parallelQuickSort" -> SortingAlgorithms::parallelQuickSort;
+            case "radixSort" -> SortingAlgorithms::radixSort;
+            case "countingSort" -> SortingAlgorithms::countingSort;
+            case "parallelRadixSort" -> SortingAlgorithms::parallelRadixSort;
+            case "vectorQuickSort" -> SortingAlgorithms::vectorQuickSort;
+            case "vectorMergeSort" -> SortingAlgorithms::vectorMergeSort;
+            case "arraysSort" -> Arrays::sort;
+            case "arraysParallelSort" -> Arrays::parallelSort;
+            default -> throw new IllegalArgumentException("unknown sort: " + name);
+        };
+    }
+
+    private static final class NavigableOps implements NavigationOps {
+        final NavigableMap<Integer, Integer> map;
+
+        NavigableOps(NavigableMap<Integer, Integer> map) {
+            this.map = map;
+        }
+
+        @Override
+        public Integer ceilingKey(Integer key) {
+            return map.ceilingKey(key);
+        }
+
+        @Override
+        public Integer floorKey(Integer key) {
+            return map.floorKey(key);
+        }
+
+        @Override
+        public Integer higherKey(Integer key) {
+            return map.higherKey(key);
+        }
+
+        @Override
+        public Integer lowerKey(Integer key) {
+            return map.lowerKey(key);
+        }
+    }
+
+    private static final class AVLOps implements OrderStatisticsOps {
+        private final AVLTree<Integer, Integer> avl;
+
+        AVLOps(AVLTree<Integer, Integer> avl) {
+            this.avl = avl;
+        }
+
+        @Override
+        public Integer select(int index) {
+            return avl.select(index);
+        }
+
+        @Override
+        public int rank(Integer key) {
+            return avl.rank(key);
+        }
+
+        @Override
+        public int countRange(Integer fromKey, Integer toKey) {
+            return avl.countRange(fromKey, toKey);
+        }
+    }
+
+    private static final class TreapOps implements NavigationOps, OrderStatisticsOps, SplitJoinOps {
+        private final TreapMap<Integer, Integer> treap;
+
+        TreapOps(TreapMap<Integer, Integer> treap) {
+            this.treap = treap;
+        }
+
+        @Override
+        public Integer ceilingKey(Integer key) {
+            return key(treap.ceilingEntry(key));
+        }
+
+        @Override
+        public Integer floorKey(Integer key) {
+            return key(treap.floorEntry(key));
+        }
+
+        @Override
+        public Integer higherKey(Integer key) {
+            return key(treap.higherEntry(key));
+        }
+
+        @Override
+        public Integer lowerKey(Integer key) {
+            return key(treap.lowerEntry(key));
+        }
+
+        @Override
+        public Integer select(int index) {
+            return treap.select(index);
+        }
+
+        @Override
+        public int rank(Integer key) {
+            return treap.rank(key);
+        }
+
+        @Override
+        public int countRange(Integer fromKey, Integer toKey) {
+            return treap.countRange(fromKey, toKey);
+        }
+
+        @Override
+        public void splitJoin(Integer key) {
+            treap.join(treap.split(key));
+        }
+
+        private static Integer key(Map.Entry<Integer, Integer> entry) {
+            return entry == null ? null : entry.getKey();
+        }
+    }
+
+    private static final class BPlusOps implements NavigationOps {
+        private final BPlusTreeMap<Integer, Integer> tree;
+
+        BPlusOps(BPlusTreeMap<Integer, Integer> tree) {
+            this.tree = tree;
+        }
+
+        @Override
+        public Integer ceilingKey(Integer key) {
+            return TreapOps.key(tree.ceilingEntry(key));
+        }
+
+        @Override
+        public Integer floorKey(Integer key) {
+            return TreapOps.key(tree.floorEntry(key));
+        }
+
+        @Override
+        public Integer higherKey(Integer key) {
+            return TreapOps.key(tree.higherEntry(key));
+        }
+
+        @Override
+        public Integer lowerKey(Integer key) {
+            return TreapOps.key(tree.lowerEntry(key));
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Input patterns shared by every benchmark: the union of the ones used by the
+ * old {@code Benchmark} and {@code SortingBenchmark} harnesses. A fixed seed
+ * keeps forks and runs comparable.
+ */
+final class Data {
+
+    private static final long SEED = 42;
+
+    private Data() {
+    }
+
+    static int[] generate(int size, String pattern) {
+        int[] data = new int[size];
+        for (int i = 0; i < size; i++) data[i] = i;
+        SplittableRandom rand = new SplittableRandom(SEED);
+
+        switch (pattern) {
+            case "random" -> {
+                for (int i = size - 1; i > 0; i--) {
+                    int j = rand.nextInt(i + 1);
+                    int tmp = data[i];
+                    data[i] = data[j];
+                    data[j] = tmp;
+                }
+            }
+            case "sorted" -> {
+            }
+            case "reverse" -> {
+                for (int i = 0; i < size; i++) data[i] = size - i;
+            }
+            case "partial" -> {
+                for (int i = size - size / 10; i < size; i++) data[i] = size + i;
+            }
+            case "nearlySorted" -> {
+                for (int i = 0; i < size / 10; i++) {
+                    int a = rand.nextInt(size);
+                    int b = rand.nextInt(size);
+                    int tmp = data[a];
+                    data[a] = data[b];
+                    data[b] = tmp;
+                }
+            }
+            default -> throw new IllegalArgumentException("unknown pattern: " + pattern);
+        }
+        return data;
+    }
+
+    static Integer[] boxed(int[] data) {
+        return Arrays.stream(data).boxed().toArray(Integer[]::new);
+    }
+}
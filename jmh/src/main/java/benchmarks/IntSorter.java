@@ -0,0 +1,8 @@
+package benchmarks;
+
+/** Sorts an {@code int[]} in place. */
+@FunctionalInterface
+public interface IntSorter {
+
+    void sort(int[] arr);
+}
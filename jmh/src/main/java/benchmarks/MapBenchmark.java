@@ -0,0 +1,111 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Core {@link Map} operations on a map pre-filled with {@code size} keys in
+ * {@code pattern} order. Point operations cycle through the inserted keys so
+ * every call does real work; whole-map operations rebuild or walk the map.
+ *
+ * <p>The default sizes keep a full run within a few GB of heap. Larger maps,
+ * up to 10^8 entries, need {@code -p size=...} and a matching {@code -Xmx}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class MapBenchmark {
+
+    @Param({"AVLTree", "TreapMap", "ArrayAVLTree", "ArrayTreapMap", "TreeMap", "BPlusTreeMap", "ConcurrentSkipListMap"})
+    public String impl;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"random", "sorted", "reverse", "partial", "nearlySorted"})
+    public String pattern;
+
+    private Integer[] keys;
+    private Integer[] missing;
+    private TreeMap<Integer, Integer> sorted;
+    private Map<Integer, Integer> map;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = Data.boxed(Data.generate(size, pattern));
+        missing = new Integer[keys.length];
+        for (int i = 0; i < keys.length; i++) missing[i] = -1 - keys[i];
+        sorted = new TreeMap<>();
+        for (Integer key : keys) sorted.put(key, key);
+        map = Subjects.newMap(impl);
+        for (Integer key : keys) map.put(key, key);
+    }
+
+    private int next() {
+        int i = cursor;
+        cursor = i + 1 == keys.length ? 0 : i + 1;
+        return i;
+    }
+
+    @Benchmark
+    public Integer get() {
+        return map.get(keys[next()]);
+    }
+
+    @Benchmark
+    public Integer getMissing() {
+        return map.get(missing[next()]);
+    }
+
+    @Benchmark
+    public boolean containsKey() {
+        return map.containsKey(keys[next()]);
+    }
+
+    /** Remove then re-insert, so the map stays at {@code size} entries. */
+    @Benchmark
+    public Integer removeAndPut() {
+        Integer key = keys[next()];
+        map.remove(key);
+        return map.put(key, key);
+    }
+
+    @Benchmark
+    public Integer overwrite() {
+        Integer key = keys[next()];
+        return map.put(key, key);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Map<Integer, Integer> build() {
+        Map<Integer, Integer> fresh = Subjects.newMap(impl);
+        for (Integer key : keys) fresh.put(key, key);
+        return fresh;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Map<Integer, Integer> bulkLoad() {
+        Map<Integer, Integer> fresh = Subjects.newMap(impl);
+        fresh.putAll(sorted);
+        return fresh;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void iterateEntries(Blackhole bh) {
+        for (Map.Entry<Integer, Integer> entry : map.entrySet()) {
+            bh.consume(entry.getKey());
+            bh.consume(entry.getValue());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** Ceiling/floor/higher/lower queries against every sorted map. */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class NavigationBenchmark {
+
+    @Param({"AVLTree", "TreapMap", "TreeMap", "BPlusTreeMap", "ConcurrentSkipListMap"})
+    public String impl;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"random", "sorted", "reverse", "partial", "nearlySorted"})
+    public String pattern;
+
+    private Probes fixture;
+    private NavigationOps ops;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new Probes(impl, size, pattern);
+        ops = Subjects.navigationOps(fixture.map);
+    }
+
+    @Benchmark
+    public Integer ceilingKey() {
+        return ops.ceilingKey(fixture.probes[fixture.next()]);
+    }
+
+    @Benchmark
+    public Integer floorKey() {
+        return ops.floorKey(fixture.probes[fixture.next()]);
+    }
+
+    @Benchmark
+    public Integer higherKey() {
+        return ops.higherKey(fixture.probes[fixture.next()]);
+    }
+
+    @Benchmark
+    public Integer lowerKey() {
+        return ops.lowerKey(fixture.probes[fixture.next()]);
+    }
+}
@@ -0,0 +1,13 @@
+package benchmarks;
+
+/** Ceiling/floor/higher/lower lookups, which every sorted map under test supports. */
+public interface NavigationOps {
+
+    Integer ceilingKey(Integer key);
+
+    Integer floorKey(Integer key);
+
+    Integer higherKey(Integer key);
+
+    Integer lowerKey(Integer key);
+}
@@ -0,0 +1,49 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** Rank/select queries, which only the maps in this repo support. */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class OrderStatisticsBenchmark {
+
+    @Param({"AVLTree", "TreapMap"})
+    public String impl;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"random", "sorted", "reverse", "partial", "nearlySorted"})
+    public String pattern;
+
+    private Probes fixture;
+    private OrderStatisticsOps ops;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new Probes(impl, size, pattern);
+        ops = Subjects.orderStatisticsOps(fixture.map);
+    }
+
+    @Benchmark
+    public Integer select() {
+        return ops.select(fixture.next());
+    }
+
+    @Benchmark
+    public int rank() {
+        return ops.rank(fixture.probes[fixture.next()]);
+    }
+
+    @Benchmark
+    public int countRange() {
+        Integer from = fixture.probes[fixture.next()];
+        return ops.countRange(from, from + size);
+    }
+}
@@ -0,0 +1,11 @@
+package benchmarks;
+
+/** Rank/select queries, for the maps that keep subtree sizes. */
+public interface OrderStatisticsOps {
+
+    Integer select(int index);
+
+    int rank(Integer key);
+
+    int countRange(Integer fromKey, Integer toKey);
+}
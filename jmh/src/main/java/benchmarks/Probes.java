@@ -0,0 +1,31 @@
+package benchmarks;
+
+import java.util.Map;
+
+/**
+ * Fixture for the ordered-query benchmarks: a map holding the even numbers
+ * {@code 2 * key} and the odd probes between them, so ceiling/floor-style
+ * queries never hit an exact match.
+ */
+final class Probes {
+
+    final Map<Integer, Integer> map;
+    final Integer[] probes;
+    private int cursor;
+
+    Probes(String impl, int size, String pattern) {
+        int[] keys = Data.generate(size, pattern);
+        probes = new Integer[size];
+        map = Subjects.newMap(impl);
+        for (int i = 0; i < size; i++) {
+            map.put(keys[i] * 2, keys[i]);
+            probes[i] = keys[i] * 2 + 1;
+        }
+    }
+
+    int next() {
+        int i = cursor;
+        cursor = i + 1 == probes.length ? 0 : i + 1;
+        return i;
+    }
+}
@@ -0,0 +1,61 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every sorting routine on {@code size} ints in {@code pattern} order. Each
+ * invocation sorts a fresh copy of the input; {@link #copyOnly} measures that
+ * copy so it can be subtracted.
+ *
+ * <p>The 10^8 inputs need about 1 GB for the two arrays; the boxed sorts
+ * (treapSort, pqSort) need far more and are best run with
+ * {@code -p size=1000,1000000}.
+ *
+ * <p>The forks add {@code jdk.incubator.vector} so the vector sorts use their
+ * SIMD kernels rather than the scalar fallback.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms8g", "-Xmx8g", "--add-modules=jdk.incubator.vector"})
+public class SortBenchmark {
+
+    @Param({"arraysSort", "arraysParallelSort", "mergeSort", "quickSort", "parallelMergeSort",
+            "parallelQuickSort", "radixSort", "countingSort", "parallelRadixSort", "vectorQuickSort", "vectorMergeSort",
+            "treapSort", "pqSort"})
+    public String algorithm;
+
+    @Param({"1000", "1000000", "100000000"})
+    public int size;
+
+    @Param({"random", "sorted", "reverse", "partial", "nearlySorted"})
+    public String pattern;
+
+    private int[] input;
+    private int[] work;
+    private IntSorter sorter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        input = Data.generate(size, pattern);
+        work = new int[size];
+        sorter = Subjects.sorter(algorithm);
+    }
+
+    @Benchmark
+    public int[] sort() {
+        System.arraycopy(input, 0, work, 0, size);
+        sorter.sort(work);
+        return work;
+    }
+
+    @Benchmark
+    public int[] copyOnly() {
+        System.arraycopy(input, 0, work, 0, size);
+        return work;
+    }
+}
@@ -0,0 +1,38 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** Split at a key and join the halves back, leaving the map as it was. */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class SplitJoinBenchmark {
+
+    @Param({"TreapMap"})
+    public String impl;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"random"})
+    public String pattern;
+
+    private Probes fixture;
+    private SplitJoinOps ops;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new Probes(impl, size, pattern);
+        ops = Subjects.splitJoinOps(fixture.map);
+    }
+
+    @Benchmark
+    public void splitJoin() {
+        ops.splitJoin(fixture.probes[fixture.next()]);
+    }
+}
@@ -0,0 +1,8 @@
+package benchmarks;
+
+/** Bulk split and join, for the maps that support them. */
+public interface SplitJoinOps {
+
+    /** Splits the map at {@code key} and joins the halves back together. */
+    void splitJoin(Integer key);
+}
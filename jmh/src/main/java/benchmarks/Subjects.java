@@ -0,0 +1,51 @@
+package benchmarks;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Map;
+
+/**
+ * Looks up the code under test. The maps and sorting routines live in the
+ * unnamed package, which JMH benchmarks (required to be in a named package)
+ * cannot import, so {@code BenchmarkSubjects} in the unnamed package hands them
+ * out behind JDK or {@code benchmarks} interfaces. Reflection is only used in
+ * setup; measured calls go through those interfaces directly.
+ */
+final class Subjects {
+
+    private Subjects() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<Integer, Integer> newMap(String impl) {
+        return (Map<Integer, Integer>) call("newMap", new Class<?>[]{String.class}, impl);
+    }
+
+    static NavigationOps navigationOps(Map<Integer, Integer> map) {
+        return (NavigationOps) call("navigationOps", new Class<?>[]{Map.class}, map);
+    }
+
+    static OrderStatisticsOps orderStatisticsOps(Map<Integer, Integer> map) {
+        return (OrderStatisticsOps) call("orderStatisticsOps", new Class<?>[]{Map.class}, map);
+    }
+
+    static SplitJoinOps splitJoinOps(Map<Integer, Integer> map) {
+        return (SplitJoinOps) call("splitJoinOps", new Class<?>[]{Map.class}, map);
+    }
+
+    static IntSorter sorter(String name) {
+        return (IntSorter) call("sorter", new Class<?>[]{String.class}, name);
+    }
+
+    private static Object call(String name, Class<?>[] types, Object... args) {
+        try {
+            Method method = Class.forName("BenchmarkSubjects").getMethod(name, types);
+            return method.invoke(null, args);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException(e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
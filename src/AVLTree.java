@@ -1,26 +1,77 @@
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
-public class AVLTree<K extends Comparable<K>, V> implements Map<K, V> {
+public class AVLTree<K extends Comparable<K>, V> implements NavigableMap<K, V> {
 
-    private static class AVLNode<K, V> {
+    private static class AVLNode<K, V> implements Entry<K, V> {
         K key;
         V value;
         int height;
+        int size;
         AVLNode<K, V> left, right;
 
         AVLNode(K key, V value) {
             this.key = key;
             this.value = value;
             this.height = 1;
+            this.size = 1;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            V old = this.value;
+            this.value = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry<?, ?> e)) return false;
+            return Objects.equals(key, e.getKey()) && Objects.equals(value, e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(value);
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
         }
     }
 
+    // An AVL tree over 2^31 keys is at most 45 levels deep
+    private static final int MAX_HEIGHT = 64;
+
     private AVLNode<K, V> root;
     private int size;
+    private int modCount;
+
+    // Scratch stack of ancestors for the iterative insert/delete paths, reused
+    // across calls so that updates allocate nothing beyond the new node.
+    private final AVLNode<K, V>[] path = nodeArray(MAX_HEIGHT);
+
+    private NavigableSet<K> keySet;
+    private Collection<V> values;
+    private Set<Entry<K, V>> entrySet;
 
     @Override
     public V put(K key, V value) {
-        root = insert(root, key, value);
+        insert(key, value);
         return value;
     }
 
@@ -38,15 +89,14 @@ public class AVLTree<K extends Comparable<K>, V> implements Map<K, V> {
     @Override
     public V remove(Object key) {
         if (!(key instanceof Comparable)) return null;
-        AVLNode<K, V>[] result = new AVLNode[1];
-        root = delete(root, (K) key, result);
-        return result[0] == null ? null : result[0].value;
+        AVLNode<K, V> node = delete((K) key);
+        return node == null ? null : node.value;
     }
 
     @Override
     public boolean containsKey(Object key) {
         if (!(key instanceof Comparable)) return false;
-        return get((K) key) != null;
+        return getNode(root, (K) key) != null;
     }
 
     @Override
@@ -59,60 +109,84 @@ public class AVLTree<K extends Comparable<K>, V> implements Map<K, V> {
 
     @Override
     public void putAll(Map<? extends K, ? extends V> m) {
+        if (root == null && m instanceof SortedMap<?, ?> sorted && sorted.comparator() == null) {
+            buildFromSorted(m.entrySet().iterator(), m.size());
+            return;
+        }
         for (Entry<? extends K, ? extends V> entry : m.entrySet()) {
             put(entry.getKey(), entry.getValue());
         }
     }
 
+    /**
+     * Builds a map from {@code size} entries in strictly ascending key order in
+     * O(n), producing a perfectly balanced tree without any comparisons beyond
+     * the ordering check.
+     *
+     * @throws IllegalArgumentException if the keys are not strictly ascending
+     */
+    public static <K extends Comparable<K>, V> AVLTree<K, V> fromSorted(
+            Iterator<? extends Entry<? extends K, ? extends V>> entries, int size) {
+        AVLTree<K, V> tree = new AVLTree<>();
+        tree.buildFromSorted(entries, size);
+        return tree;
+    }
+
+    /**
+     * Writes the entries in key order to {@code file} in the binary format of
+     * {@link Snapshot}, replacing it atomically where the file system allows.
+     */
+    public void writeSnapshot(Path file, SnapshotCodec<K> keyCodec, SnapshotCodec<V> valueCodec) throws IOException {
+        Snapshot.write(file, entrySet().iterator(), size, keyCodec, valueCodec);
+    }
+
+    /**
+     * Loads a map written by {@link #writeSnapshot}. The file is memory-mapped
+     * and decoded straight into the linear-time build of {@link #fromSorted},
+     * with no intermediate entry objects.
+     *
+     * @throws IOException if the file cannot be read, is truncated or fails its checksums
+     */
+    public static <K extends Comparable<K>, V> AVLTree<K, V> loadSnapshot(
+            Path file, SnapshotCodec<K> keyCodec, SnapshotCodec<V> valueCodec) throws IOException {
+        AVLTree<K, V> tree = new AVLTree<>();
+        Snapshot.read(file, keyCodec, valueCodec, (entries, count) -> tree.buildFromSorted(entries, count));
+        return tree;
+    }
+
+    /**
+     * Loads the snapshot in {@code file}, then replays {@code changeLog} on
+     * top of it; see {@link ChangeLog#replay}.
+     */
+    public static <K extends Comparable<K>, V> AVLTree<K, V> loadSnapshot(
+            Path file, Path changeLog, SnapshotCodec<K> keyCodec, SnapshotCodec<V> valueCodec) throws IOException {
+        AVLTree<K, V> tree = loadSnapshot(file, keyCodec, valueCodec);
+        ChangeLog.replay(changeLog, tree, keyCodec, valueCodec);
+        return tree;
+    }
+
     @Override
     public void clear() {
         root = null;
         size = 0;
+        modCount++;
     }
 
     @Override
     public Set<K> keySet() {
-        Set<K> keys = new LinkedHashSet<>();
-        inOrderKeys(root, keys);
-        return keys;
-    }
-
-    private void inOrderKeys(AVLNode<K, V> node, Set<K> keys) {
-        if (node != null) {
-            inOrderKeys(node.left, keys);
-            keys.add(node.key);
-            inOrderKeys(node.right, keys);
-        }
+        return navigableKeySet();
     }
 
     @Override
     public Collection<V> values() {
-        List<V> vals = new ArrayList<>();
-        inOrderValues(root, vals);
-        return vals;
-    }
-
-    private void inOrderValues(AVLNode<K, V> node, List<V> vals) {
-        if (node != null) {
-            inOrderValues(node.left, vals);
-            vals.add(node.value);
-            inOrderValues(node.right, vals);
-        }
+        if (values == null) values = new Values();
+        return values;
     }
 
     @Override
     public Set<Entry<K, V>> entrySet() {
-        Set<Entry<K, V>> entries = new LinkedHashSet<>();
-        inOrderEntries(root, entries);
-        return entries;
-    }
-
-    private void inOrderEntries(AVLNode<K, V> node, Set<Entry<K, V>> entries) {
-        if (node != null) {
-            inOrderEntries(node.left, entries);
-            entries.add(new AbstractMap.SimpleEntry<>(node.key, node.value));
-            inOrderEntries(node.right, entries);
-        }
+        if (entrySet == null) entrySet = new EntrySet();
+        return entrySet;
     }
 
     @Override
@@ -125,8 +199,335 @@ public class AVLTree<K extends Comparable<K>, V> implements Map<K, V> {
         return size == 0;
     }
 
+    // NavigableMap methods
+
+    @Override
+    public Comparator<? super K> comparator() {
+        return null;
+    }
+
+    @Override
+    public K firstKey() {
+        return key(firstNode());
+    }
+
+    @Override
+    public K lastKey() {
+        return key(lastNode());
+    }
+
+    @Override
+    public Entry<K, V> firstEntry() {
+        return exportEntry(firstNode());
+    }
+
+    @Override
+    public Entry<K, V> lastEntry() {
+        return exportEntry(lastNode());
+    }
+
+    @Override
+    public Entry<K, V> pollFirstEntry() {
+        AVLNode<K, V> node = firstNode();
+        Entry<K, V> entry = exportEntry(node);
+        if (node != null) remove(node.key);
+        return entry;
+    }
+
+    @Override
+    public Entry<K, V> pollLastEntry() {
+        AVLNode<K, V> node = lastNode();
+        Entry<K, V> entry = exportEntry(node);
+        if (node != null) remove(node.key);
+        return entry;
+    }
+
+    @Override
+    public Entry<K, V> lowerEntry(K key) {
+        return exportEntry(lowerNode(key));
+    }
+
+    @Override
+    public K lowerKey(K key) {
+        return keyOrNull(lowerNode(key));
+    }
+
+    @Override
+    public Entry<K, V> floorEntry(K key) {
+        return exportEntry(floorNode(key));
+    }
+
+    @Override
+    public K floorKey(K key) {
+        return keyOrNull(floorNode(key));
+    }
+
+    @Override
+    public Entry<K, V> ceilingEntry(K key) {
+        return exportEntry(ceilingNode(key));
+    }
+
+    @Override
+    public K ceilingKey(K key) {
+        return keyOrNull(ceilingNode(key));
+    }
+
+    @Override
+    public Entry<K, V> higherEntry(K key) {
+        return exportEntry(higherNode(key));
+    }
+
+    @Override
+    public K higherKey(K key) {
+        return keyOrNull(higherNode(key));
+    }
+
+    @Override
+    public NavigableSet<K> navigableKeySet() {
+        if (keySet == null) keySet = new KeySet<>(this);
+        return keySet;
+    }
+
+    @Override
+    public NavigableSet<K> descendingKeySet() {
+        return descendingMap().navigableKeySet();
+    }
+
+    @Override
+    public NavigableMap<K, V> descendingMap() {
+        return new SubMap(true, true, null, true, true, null, true);
+    }
+
+    @Override
+    public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+        if (fromKey.compareTo(toKey) > 0) throw new IllegalArgumentException("fromKey > toKey");
+        return new SubMap(false, false, fromKey, fromInclusive, false, toKey, toInclusive);
+    }
+
+    @Override
+    public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+        return new SubMap(false, true, null, true, false, toKey, inclusive);
+    }
+
+    @Override
+    public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+        return new SubMap(false, false, fromKey, inclusive, true, null, true);
+    }
+
+    @Override
+    public SortedMap<K, V> subMap(K fromKey, K toKey) {
+        return subMap(fromKey, true, toKey, false);
+    }
+
+    @Override
+    public SortedMap<K, V> headMap(K toKey) {
+        return headMap(toKey, false);
+    }
+
+    @Override
+    public SortedMap<K, V> tailMap(K fromKey) {
+        return tailMap(fromKey, true);
+    }
+
+    // Order statistics
+
+    /**
+     * Returns the key with the given zero-based rank in ascending order.
+     *
+     * @throws IndexOutOfBoundsException if {@code index} is not in {@code [0, size())}
+     */
+    public K select(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        AVLNode<K, V> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node.key;
+            }
+        }
+    }
+
+    /** Returns the number of keys strictly less than {@code key}. */
+    public int rank(K key) {
+        return countBelow(key, false);
+    }
+
+    /** Returns the number of keys in {@code [fromKey, toKey)}. */
+    public int countRange(K fromKey, K toKey) {
+        if (fromKey.compareTo(toKey) > 0) throw new IllegalArgumentException("fromKey > toKey");
+        return countBelow(toKey, false) - countBelow(fromKey, false);
+    }
+
+    private int countBelow(K key, boolean inclusive) {
+        AVLNode<K, V> node = root;
+        int count = 0;
+        while (node != null) {
+            int cmp = key.compareTo(node.key);
+            if (cmp < 0 || (cmp == 0 && !inclusive)) {
+                node = node.left;
+            } else {
+                count += size(node.left) + 1;
+                if (cmp == 0) break;
+                node = node.right;
+            }
+        }
+        return count;
+    }
+
+    private static <K, V> Entry<K, V> exportEntry(AVLNode<K, V> node) {
+        return node == null ? null : new AbstractMap.SimpleImmutableEntry<>(node.key, node.value);
+    }
+
+    private static <K> K keyOrNull(AVLNode<K, ?> node) {
+        return node == null ? null : node.key;
+    }
+
+    private static <K> K key(AVLNode<K, ?> node) {
+        if (node == null) throw new NoSuchElementException();
+        return node.key;
+    }
+
+    // Sorted batches
+
+    /**
+     * Looks up every key in {@code sortedKeys} and stores its value, or null,
+     * at the same index of {@code out}. The path to the previous key is kept
+     * as a finger: each search climbs only until the subtree under the finger
+     * can hold the next key, then descends from there. For k ascending keys
+     * that is O(k log(n/k)) comparisons instead of O(k log n), and nearly
+     * sorted batches keep most of the gain. Keys in any order give correct
+     * results, just without the savings.
+     *
+     * @throws IllegalArgumentException if {@code out} is shorter than {@code sortedKeys}
+     */
+    public void getAll(K[] sortedKeys, V[] out) {
+        if (out.length < sortedKeys.length) throw new IllegalArgumentException("out is shorter than keys");
+        Finger finger = new Finger();
+        for (int i = 0; i < sortedKeys.length; i++) {
+            AVLNode<K, V> node = finger.seek(sortedKeys[i]);
+            out[i] = node == null ? null : node.value;
+        }
+    }
+
+    /**
+     * Puts {@code sortedKeys[i]} to {@code values[i]} for every i, searching
+     * from a finger as {@link #getAll} does. A new key is attached below the
+     * finger and the heights and sizes are fixed up along the finger path
+     * itself, which the descent has just touched; the finger then keeps the
+     * part of the path above the highest rotation. That fix-up runs over every
+     * ancestor up to the root, so k new keys cost O(k log n) node updates;
+     * only the comparisons drop to O(k log(n/k)).
+     *
+     * @throws IllegalArgumentException if {@code values} is shorter than {@code sortedKeys}
+     */
+    public void putAllSortedBatch(K[] sortedKeys, V[] values) {
+        if (values.length < sortedKeys.length) throw new IllegalArgumentException("values is shorter than keys");
+        Finger finger = new Finger();
+        for (int i = 0; i < sortedKeys.length; i++) {
+            AVLNode<K, V> node = finger.seek(sortedKeys[i]);
+            if (node != null) node.value = values[i];
+            else finger.insert(sortedKeys[i], values[i]);
+        }
+    }
+
+    /**
+     * A root-to-node path with the open key interval that each node's subtree
+     * covers. {@code seek} leaves it ending at the node found, or at the
+     * parent a missing key would hang from.
+     */
+    private final class Finger {
+        private final AVLNode<K, V>[] nodes = nodeArray(MAX_HEIGHT);
+        // Exclusive bounds of each subtree; null means unbounded
+        private final AVLNode<K, V>[] low = nodeArray(MAX_HEIGHT);
+        private final AVLNode<K, V>[] high = nodeArray(MAX_HEIGHT);
+        private int depth;
+        // Comparison of the key with the last node on the path
+        private int cmp;
+
+        AVLNode<K, V> seek(K key) {
+            if (depth > 0) depth = coveringLevel(key) + 1;
+            AVLNode<K, V> node = depth == 0 ? root : nodes[--depth];
+            while (node != null) {
+                nodes[depth] = node;
+                cmp = key.compareTo(node.key);
+                if (cmp == 0) {
+                    depth++;
+                    return node;
+                }
+                low[depth + 1] = cmp < 0 ? low[depth] : node;
+                high[depth + 1] = cmp < 0 ? node : high[depth];
+                depth++;
+                node = cmp < 0 ? node.left : node.right;
+            }
+            return null;
+        }
+
+        /**
+         * Returns the deepest level whose subtree can hold key. Bounds narrow
+         * with depth, so this gallops up from the bottom and then binary
+         * searches, costing O(log d) comparisons to climb d levels.
+         */
+        private int coveringLevel(K key) {
+            int notCovering = depth, level = depth - 1;
+            for (int step = 1; level > 0 && !covers(level, key); step <<= 1) {
+                notCovering = level;
+                level = Math.max(0, level - step);
+            }
+            while (notCovering - level > 1) {
+                int mid = (level + notCovering) >>> 1;
+                if (covers(mid, key)) level = mid;
+                else notCovering = mid;
+            }
+            return level;
+        }
+
+        private boolean covers(int level, K key) {
+            return (low[level] == null || key.compareTo(low[level].key) > 0)
+                    && (high[level] == null || key.compareTo(high[level].key) < 0);
+        }
+
+        // Attaches key below the node seek() stopped at
+        void insert(K key, V value) {
+            AVLNode<K, V> child = new AVLNode<>(key, value);
+            size++;
+            modCount++;
+            if (depth == 0) {
+                root = nodes[0] = child;
+                depth = 1;
+                return;
+            }
+            AVLNode<K, V> parent = nodes[depth - 1];
+            if (cmp < 0) parent.left = child;
+            else parent.right = child;
+            // A rotation keeps the key range of the position it happens at, so
+            // the finger stays valid down to the rotated subtree's new root
+            int valid = depth;
+            for (int i = depth - 1; i >= 0; i--) {
+                AVLNode<K, V> node = nodes[i];
+                AVLNode<K, V> balanced = rebalance(node);
+                if (balanced != node) {
+                    replaceChild(i == 0 ? null : nodes[i - 1], node, balanced);
+                    nodes[i] = balanced;
+                    valid = i + 1;
+                }
+            }
+            depth = valid;
+        }
+    }
+
     // Internal AVL methods
 
+    // Generic arrays can't be created directly; every node array starts here
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <K, V> AVLNode<K, V>[] nodeArray(int length) {
+        return new AVLNode[length];
+    }
+
     private int height(AVLNode<K, V> node) {
         return node == null ? 0 : node.height;
     }
@@ -135,16 +536,23 @@ public class AVLTree<K extends Comparable<K>, V> implements Map<K, V> {
         return node == null ? 0 : height(node.left) - height(node.right);
     }
 
-    private void updateHeight(AVLNode<K, V> node) {
+    private int size(AVLNode<K, V> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    // Every structural change funnels through here, so subtree sizes stay
+    // exact across rotations alongside the heights.
+    private void update(AVLNode<K, V> node) {
         node.height = 1 + Math.max(height(node.left), height(node.right));
+        node.size = 1 + size(node.left) + size(node.right);
     }
 
     private AVLNode<K, V> rotateRight(AVLNode<K, V> y) {
         AVLNode<K, V> x = y.left;
         y.left = x.right;
         x.right = y;
-        updateHeight(y);
-        updateHeight(x);
+        update(y);
+        update(x);
         return x;
     }
 
@@ -152,13 +560,13 @@ public class AVLTree<K extends Comparable<K>, V> implements Map<K, V> {
         AVLNode<K, V> y = x.right;
         x.right = y.left;
         y.left = x;
-        updateHeight(x);
-        updateHeight(y);
+        update(x);
+        update(y);
         return y;
     }
 
     private AVLNode<K, V> rebalance(AVLNode<K, V> node) {
-        updateHeight(node);
+        update(node);
         int balance = balanceFactor(node);
 
         if (balance > 1) {
@@ -174,36 +582,127 @@ public class AVLTree<K extends Comparable<K>, V> implements Map<K, V> {
         return node;
     }
 
-    private AVLNode<K, V> insert(AVLNode<K, V> node, K key, V value) {
+    private void insert(K key, V value) {
+        AVLNode<K, V> node = root;
         if (node == null) {
+            root = new AVLNode<>(key, value);
             size++;
-            return new AVLNode<>(key, value);
+            modCount++;
+            return;
+        }
+        int depth = 0;
+        while (true) {
+            int cmp = key.compareTo(node.key);
+            if (cmp == 0) {
+                node.value = value;
+                clearPath(depth);
+                return;
+            }
+            path[depth++] = node;
+            AVLNode<K, V> next = cmp < 0 ? node.left : node.right;
+            if (next == null) {
+                if (cmp < 0) node.left = new AVLNode<>(key, value);
+                else node.right = new AVLNode<>(key, value);
+                break;
+            }
+            node = next;
         }
-        int cmp = key.compareTo(node.key);
-        if (cmp < 0) node.left = insert(node.left, key, value);
-        else if (cmp > 0) node.right = insert(node.right, key, value);
-        else node.value = value;
-        return rebalance(node);
+        size++;
+        modCount++;
+        rebalancePath(depth);
     }
 
-    private AVLNode<K, V> delete(AVLNode<K, V> node, K key, AVLNode<K, V>[] result) {
-        if (node == null) return null;
-        int cmp = key.compareTo(node.key);
-        if (cmp < 0) node.left = delete(node.left, key, result);
-        else if (cmp > 0) node.right = delete(node.right, key, result);
-        else {
-            result[0] = node;
-            size--;
-            if (node.left == null || node.right == null) {
-                return node.left != null ? node.left : node.right;
-            } else {
-                AVLNode<K, V> min = getMin(node.right);
-                node.key = min.key;
-                node.value = min.value;
-                node.right = delete(node.right, min.key, new AVLNode[1]);
+    /** Unlinks the node holding {@code key} and returns it, or null if absent. */
+    private AVLNode<K, V> delete(K key) {
+        AVLNode<K, V> node = root;
+        int depth = 0;
+        while (node != null) {
+            int cmp = key.compareTo(node.key);
+            if (cmp == 0) break;
+            path[depth++] = node;
+            node = cmp < 0 ? node.left : node.right;
+        }
+        if (node == null) {
+            clearPath(depth);
+            return null;
+        }
+        AVLNode<K, V> parent = depth == 0 ? null : path[depth - 1];
+        AVLNode<K, V> replacement;
+        if (node.left == null || node.right == null) {
+            replacement = node.left != null ? node.left : node.right;
+        } else {
+            // splice the successor node into this position rather than
+            // copying its key/value, so handed-out entries keep their identity
+            int slot = depth++;
+            AVLNode<K, V> successorParent = node, successor = node.right;
+            while (successor.left != null) {
+                path[depth++] = successor;
+                successorParent = successor;
+                successor = successor.left;
             }
+            if (successorParent != node) {
+                successorParent.left = successor.right;
+                successor.right = node.right;
+            }
+            successor.left = node.left;
+            path[slot] = successor;
+            replacement = successor;
+        }
+        replaceChild(parent, node, replacement);
+        node.left = node.right = null;
+        size--;
+        modCount++;
+        rebalancePath(depth);
+        return node;
+    }
+
+    /**
+     * Rebalances {@code path[depth - 1]} up to the root, relinking rotated
+     * subtrees into their parents. Every ancestor is visited, since subtree
+     * sizes change all the way up even when heights stop changing.
+     */
+    private void rebalancePath(int depth) {
+        for (int i = depth - 1; i >= 0; i--) {
+            AVLNode<K, V> node = path[i];
+            path[i] = null;
+            AVLNode<K, V> balanced = rebalance(node);
+            if (balanced != node) replaceChild(i == 0 ? null : path[i - 1], node, balanced);
         }
-        return rebalance(node);
+    }
+
+    private void clearPath(int depth) {
+        for (int i = 0; i < depth; i++) path[i] = null;
+    }
+
+    private void replaceChild(AVLNode<K, V> parent, AVLNode<K, V> child, AVLNode<K, V> replacement) {
+        if (parent == null) root = replacement;
+        else if (parent.left == child) parent.left = replacement;
+        else parent.right = replacement;
+    }
+
+    private void buildFromSorted(Iterator<? extends Entry<? extends K, ? extends V>> entries, int count) {
+        AVLNode<K, V> built = build(entries, count, nodeArray(1));
+        root = built;
+        size = count;
+        modCount++;
+    }
+
+    // In-order build: the left half is built first, so entries are consumed in
+    // key order and every subtree is balanced by construction.
+    private AVLNode<K, V> build(Iterator<? extends Entry<? extends K, ? extends V>> entries, int count,
+                                AVLNode<K, V>[] last) {
+        if (count == 0) return null;
+        int leftCount = (count - 1) / 2;
+        AVLNode<K, V> left = build(entries, leftCount, last);
+        Entry<? extends K, ? extends V> entry = entries.next();
+        if (last[0] != null && last[0].key.compareTo(entry.getKey()) >= 0)
+            throw new IllegalArgumentException("keys are not in ascending order");
+        AVLNode<K, V> node = new AVLNode<>(entry.getKey(), entry.getValue());
+        last[0] = node;
+        node.left = left;
+        node.right = build(entries, count - 1 - leftCount, last);
+        update(node);
+        return node;
     }
 
     private AVLNode<K, V> getNode(AVLNode<K, V> node, K key) {
@@ -220,4 +719,983 @@ public class AVLTree<K extends Comparable<K>, V> implements Map<K, V> {
         while (node.left != null) node = node.left;
         return node;
     }
+
+    // Navigation helpers, each a single root-to-leaf descent
+
+    private AVLNode<K, V> firstNode() {
+        return root == null ? null : getMin(root);
+    }
+
+    private AVLNode<K, V> lastNode() {
+        AVLNode<K, V> node = root;
+        if (node == null) return null;
+        while (node.right != null) node = node.right;
+        return node;
+    }
+
+    private AVLNode<K, V> ceilingNode(K key) {
+        AVLNode<K, V> node = root, best = null;
+        while (node != null) {
+            int cmp = key.compareTo(node.key);
+            if (cmp == 0) return node;
+            if (cmp < 0) {
+                best = node;
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return best;
+    }
+
+    private AVLNode<K, V> floorNode(K key) {
+        AVLNode<K, V> node = root, best = null;
+        while (node != null) {
+            int cmp = key.compareTo(node.key);
+            if (cmp == 0) return node;
+            if (cmp > 0) {
+                best = node;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return best;
+    }
+
+    private AVLNode<K, V> higherNode(K key) {
+        AVLNode<K, V> node = root, best = null;
+        while (node != null) {
+            if (key.compareTo(node.key) < 0) {
+                best = node;
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return best;
+    }
+
+    private AVLNode<K, V> lowerNode(K key) {
+        AVLNode<K, V> node = root, best = null;
+        while (node != null) {
+            if (key.compareTo(node.key) > 0) {
+                best = node;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return best;
+    }
+
+    // Live views
+
+    /**
+     * Iterator over a (possibly bounded) key range in either direction, driven
+     * by an explicit stack of the ancestors still to be visited. Seeding the
+     * stack costs one descent, after which each step is amortised O(1), and
+     * nodes are returned as-is so nothing is allocated per element.
+     */
+    private abstract class TreeIterator<T> implements Iterator<T> {
+        private final ArrayDeque<AVLNode<K, V>> stack = new ArrayDeque<>();
+        private final boolean descending;
+        private final boolean fromStart, loInclusive, toEnd, hiInclusive;
+        private final K lo, hi;
+        private AVLNode<K, V> lastReturned;
+        private int expectedModCount = modCount;
+
+        TreeIterator() {
+            this(false, true, null, true, true, null, true);
+        }
+
+        TreeIterator(boolean descending, boolean fromStart, K lo, boolean loInclusive,
+                     boolean toEnd, K hi, boolean hiInclusive) {
+            this.descending = descending;
+            this.fromStart = fromStart;
+            this.lo = lo;
+            this.loInclusive = loInclusive;
+            this.toEnd = toEnd;
+            this.hi = hi;
+            this.hiInclusive = hiInclusive;
+            if (descending) seek(toEnd ? null : hi, hiInclusive);
+            else seek(fromStart ? null : lo, loInclusive);
+        }
+
+        /** Rebuilds the stack so its top is the first node at or past {@code key}. */
+        private void seek(K key, boolean inclusive) {
+            stack.clear();
+            AVLNode<K, V> node = root;
+            while (node != null) {
+                int cmp = key == null ? 0 : key.compareTo(node.key);
+                if (descending) cmp = -cmp;
+                if (key == null || cmp < 0 || (cmp == 0 && inclusive)) {
+                    stack.push(node);
+                    node = descending ? node.right : node.left;
+                } else {
+                    node = descending ? node.left : node.right;
+                }
+            }
+        }
+
+        private void pushSpine(AVLNode<K, V> node) {
+            while (node != null) {
+                stack.push(node);
+                node = descending ? node.right : node.left;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            AVLNode<K, V> next = stack.peek();
+            if (next == null) return false;
+            if (descending) return fromStart || !tooLow(next.key);
+            return toEnd || !tooHigh(next.key);
+        }
+
+        private boolean tooLow(K key) {
+            int cmp = key.compareTo(lo);
+            return cmp < 0 || (cmp == 0 && !loInclusive);
+        }
+
+        private boolean tooHigh(K key) {
+            int cmp = key.compareTo(hi);
+            return cmp > 0 || (cmp == 0 && !hiInclusive);
+        }
+
+        AVLNode<K, V> nextNode() {
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            if (!hasNext()) throw new NoSuchElementException();
+            AVLNode<K, V> node = stack.pop();
+            pushSpine(descending ? node.left : node.right);
+            lastReturned = node;
+            return node;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) throw new IllegalStateException();
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            // rebalancing may rotate the stacked ancestors, so reseat the stack
+            // on the first key after the removed one instead of trusting it
+            K key = lastReturned.key;
+            AVLTree.this.remove(key);
+            lastReturned = null;
+            expectedModCount = modCount;
+            seek(key, false);
+        }
+    }
+
+    /**
+     * Spliterator over a (possibly bounded) key range in either direction.
+     * It covers an optional single node followed by one subtree clipped to
+     * the range, and splits by handing off the part of the subtree that comes
+     * first: its root's first-visited child, close to half on a balanced
+     * tree. Subtree sizes give the clipped counts in O(log n), so every piece
+     * knows its exact size. Splitting stops once traversal has begun.
+     */
+    private final class TreeSpliterator<T> implements Spliterator<T> {
+        private final Function<? super AVLNode<K, V>, ? extends T> element;
+        private final int characteristics;
+        private final Comparator<? super T> comparator;
+        private final boolean descending;
+        private final int expectedModCount;
+        // Splitting drops the bound on the side the piece no longer reaches
+        private boolean fromStart, loInclusive, toEnd, hiInclusive;
+        private K lo, hi;
+        // Visited before the subtree; always in range
+        private AVLNode<K, V> first;
+        private AVLNode<K, V> subtree;
+        private int remaining;
+        // Ancestors still to be visited, once traversal has begun
+        private ArrayDeque<AVLNode<K, V>> stack;
+
+        TreeSpliterator(Function<? super AVLNode<K, V>, ? extends T> element, int characteristics,
+                        Comparator<? super T> comparator, boolean descending, boolean fromStart, K lo,
+                        boolean loInclusive, boolean toEnd, K hi, boolean hiInclusive) {
+            this.element = element;
+            this.characteristics = characteristics | ORDERED | SIZED | SUBSIZED;
+            this.comparator = comparator;
+            this.descending = descending;
+            this.expectedModCount = modCount;
+            this.fromStart = fromStart;
+            this.lo = lo;
+            this.loInclusive = loInclusive;
+            this.toEnd = toEnd;
+            this.hi = hi;
+            this.hiInclusive = hiInclusive;
+            reset(null, root);
+        }
+
+        private TreeSpliterator(TreeSpliterator<T> other) {
+            this.element = other.element;
+            this.characteristics = other.characteristics;
+            this.comparator = other.comparator;
+            this.descending = other.descending;
+            this.expectedModCount = other.expectedModCount;
+            this.fromStart = other.fromStart;
+            this.lo = other.lo;
+            this.loInclusive = other.loInclusive;
+            this.toEnd = other.toEnd;
+            this.hi = other.hi;
+            this.hiInclusive = other.hiInclusive;
+        }
+
+        /** Covers {@code first}, then {@code subtree} clipped to the bounds. */
+        private void reset(AVLNode<K, V> first, AVLNode<K, V> subtree) {
+            while (subtree != null && (tooLow(subtree.key) || tooHigh(subtree.key))) {
+                subtree = tooLow(subtree.key) ? subtree.right : subtree.left;
+            }
+            this.first = first;
+            this.subtree = subtree;
+            remaining = first == null ? 0 : 1;
+            if (subtree != null) remaining += 1 + countNotLow(subtree.left) + countNotHigh(subtree.right);
+        }
+
+        private int countNotLow(AVLNode<K, V> node) {
+            int count = 0;
+            while (node != null) {
+                if (tooLow(node.key)) {
+                    node = node.right;
+                } else {
+                    count += 1 + size(node.right);
+                    node = node.left;
+                }
+            }
+            return count;
+        }
+
+        private int countNotHigh(AVLNode<K, V> node) {
+            int count = 0;
+            while (node != null) {
+                if (tooHigh(node.key)) {
+                    node = node.left;
+                } else {
+                    count += 1 + size(node.left);
+                    node = node.right;
+                }
+            }
+            return count;
+        }
+
+        private boolean tooLow(K key) {
+            if (fromStart) return false;
+            int cmp = key.compareTo(lo);
+            return cmp < 0 || (cmp == 0 && !loInclusive);
+        }
+
+        private boolean tooHigh(K key) {
+            if (toEnd) return false;
+            int cmp = key.compareTo(hi);
+            return cmp > 0 || (cmp == 0 && !hiInclusive);
+        }
+
+        private AVLNode<K, V> before(AVLNode<K, V> node) {
+            return descending ? node.right : node.left;
+        }
+
+        private AVLNode<K, V> after(AVLNode<K, V> node) {
+            return descending ? node.left : node.right;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            if (stack != null) return null;
+            while (subtree != null) {
+                AVLNode<K, V> pivot = subtree;
+                TreeSpliterator<T> prefix = null;
+                if (first != null || before(pivot) != null) {
+                    prefix = new TreeSpliterator<>(this);
+                    // Everything handed off lies before the pivot
+                    if (descending) prefix.fromStart = true;
+                    else prefix.toEnd = true;
+                    prefix.reset(first, before(pivot));
+                }
+                if (descending) toEnd = true;
+                else fromStart = true;
+                reset(pivot, after(pivot));
+                if (prefix != null) return prefix;
+            }
+            return null;
+        }
+
+        private AVLNode<K, V> nextNode() {
+            if (first != null) {
+                AVLNode<K, V> node = first;
+                first = null;
+                remaining--;
+                return node;
+            }
+            if (stack == null) {
+                stack = new ArrayDeque<>();
+                for (AVLNode<K, V> node = subtree; node != null; ) {
+                    if (descending ? tooHigh(node.key) : tooLow(node.key)) {
+                        node = after(node);
+                    } else {
+                        stack.push(node);
+                        node = before(node);
+                    }
+                }
+            }
+            AVLNode<K, V> node = stack.poll();
+            if (node == null || (descending ? tooLow(node.key) : tooHigh(node.key))) {
+                stack.clear();
+                return null;
+            }
+            for (AVLNode<K, V> next = after(node); next != null; next = before(next)) stack.push(next);
+            remaining--;
+            return node;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            Objects.requireNonNull(action);
+            AVLNode<K, V> node = nextNode();
+            if (node == null) return false;
+            action.accept(element.apply(node));
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            Objects.requireNonNull(action);
+            for (AVLNode<K, V> node; (node = nextNode()) != null; ) action.accept(element.apply(node));
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+        }
+
+        @Override
+        public long estimateSize() {
+            return remaining;
+        }
+
+        @Override
+        public int characteristics() {
+            return characteristics;
+        }
+
+        @Override
+        public Comparator<? super T> getComparator() {
+            if ((characteristics & SORTED) == 0) throw new IllegalStateException();
+            return comparator;
+        }
+    }
+
+    /** Key spliterator for {@link KeySet}, which only sees its map's entry view. */
+    private static final class KeySpliterator<E> implements Spliterator<E> {
+        private final Spliterator<? extends Entry<E, ?>> entries;
+        private final Comparator<? super E> comparator;
+
+        KeySpliterator(Spliterator<? extends Entry<E, ?>> entries, Comparator<? super E> comparator) {
+            this.entries = entries;
+            this.comparator = comparator;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) {
+            return entries.tryAdvance(e -> action.accept(e.getKey()));
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super E> action) {
+            entries.forEachRemaining(e -> action.accept(e.getKey()));
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            Spliterator<? extends Entry<E, ?>> prefix = entries.trySplit();
+            return prefix == null ? null : new KeySpliterator<>(prefix, comparator);
+        }
+
+        @Override
+        public long estimateSize() {
+            return entries.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return entries.characteristics();
+        }
+
+        @Override
+        public Comparator<? super E> getComparator() {
+            if (!hasCharacteristics(SORTED)) throw new IllegalStateException();
+            return comparator;
+        }
+    }
+
+    /** Key view shared by the map and all of its sub-maps. */
+    private static final class KeySet<E> extends AbstractSet<E> implements NavigableSet<E> {
+        private final NavigableMap<E, ?> m;
+
+        KeySet(NavigableMap<E, ?> m) {
+            this.m = m;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            Iterator<? extends Entry<E, ?>> it = m.entrySet().iterator();
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public E next() {
+                    return it.next().getKey();
+                }
+
+                @Override
+                public void remove() {
+                    it.remove();
+                }
+            };
+        }
+
+        @Override
+        public Spliterator<E> spliterator() {
+            return new KeySpliterator<>(m.entrySet().spliterator(), m.comparator());
+        }
+
+        @Override
+        public Iterator<E> descendingIterator() {
+            return descendingSet().iterator();
+        }
+
+        @Override
+        public int size() {
+            return m.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return m.isEmpty();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return m.containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!m.containsKey(o)) return false;
+            m.remove(o);
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            m.clear();
+        }
+
+        @Override
+        public Comparator<? super E> comparator() {
+            return m.comparator();
+        }
+
+        @Override
+        public E first() {
+            return m.firstKey();
+        }
+
+        @Override
+        public E last() {
+            return m.lastKey();
+        }
+
+        @Override
+        public E lower(E e) {
+            return m.lowerKey(e);
+        }
+
+        @Override
+        public E floor(E e) {
+            return m.floorKey(e);
+        }
+
+        @Override
+        public E ceiling(E e) {
+            return m.ceilingKey(e);
+        }
+
+        @Override
+        public E higher(E e) {
+            return m.higherKey(e);
+        }
+
+        @Override
+        public E pollFirst() {
+            Entry<E, ?> e = m.pollFirstEntry();
+            return e == null ? null : e.getKey();
+        }
+
+        @Override
+        public E pollLast() {
+            Entry<E, ?> e = m.pollLastEntry();
+            return e == null ? null : e.getKey();
+        }
+
+        @Override
+        public NavigableSet<E> descendingSet() {
+            return new KeySet<>(m.descendingMap());
+        }
+
+        @Override
+        public NavigableSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+            return new KeySet<>(m.subMap(fromElement, fromInclusive, toElement, toInclusive));
+        }
+
+        @Override
+        public NavigableSet<E> headSet(E toElement, boolean inclusive) {
+            return new KeySet<>(m.headMap(toElement, inclusive));
+        }
+
+        @Override
+        public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
+            return new KeySet<>(m.tailMap(fromElement, inclusive));
+        }
+
+        @Override
+        public SortedSet<E> subSet(E fromElement, E toElement) {
+            return subSet(fromElement, true, toElement, false);
+        }
+
+        @Override
+        public SortedSet<E> headSet(E toElement) {
+            return headSet(toElement, false);
+        }
+
+        @Override
+        public SortedSet<E> tailSet(E fromElement) {
+            return tailSet(fromElement, true);
+        }
+    }
+
+    private final class Values extends AbstractCollection<V> {
+        @Override
+        public Iterator<V> iterator() {
+            return new TreeIterator<>() {
+                @Override
+                public V next() {
+                    return nextNode().value;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Spliterator<V> spliterator() {
+            return new TreeSpliterator<V>(node -> node.value, 0, null, false, true, null, true, true, null, true);
+        }
+
+        @Override
+        public void clear() {
+            AVLTree.this.clear();
+        }
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<K, V>> {
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            return new TreeIterator<>() {
+                @Override
+                public Entry<K, V> next() {
+                    return nextNode();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Spliterator<Entry<K, V>> spliterator() {
+            return new TreeSpliterator<Entry<K, V>>(node -> node, Spliterator.DISTINCT | Spliterator.SORTED,
+                    Entry.comparingByKey(), false, true, null, true, true, null, true);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Entry<?, ?> e) || !(e.getKey() instanceof Comparable)) return false;
+            AVLNode<K, V> node = getNode(root, (K) e.getKey());
+            return node != null && Objects.equals(node.value, e.getValue());
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!contains(o)) return false;
+            AVLTree.this.remove(((Entry<?, ?>) o).getKey());
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            AVLTree.this.clear();
+        }
+    }
+
+    /**
+     * Live view of a key range, optionally in descending order. Bounds are
+     * always stored in ascending ("absolute") terms; the {@code abs*} helpers
+     * answer navigation queries against them with a single descent each and
+     * the public methods flip them around for descending views.
+     */
+    private final class SubMap extends AbstractMap<K, V> implements NavigableMap<K, V> {
+        private final boolean descending;
+        private final boolean fromStart, loInclusive, toEnd, hiInclusive;
+        private final K lo, hi;
+        private NavigableSet<K> keySetView;
+        private Set<Entry<K, V>> entrySetView;
+        private Collection<V> valuesView;
+
+        SubMap(boolean descending, boolean fromStart, K lo, boolean loInclusive,
+               boolean toEnd, K hi, boolean hiInclusive) {
+            this.descending = descending;
+            this.fromStart = fromStart;
+            this.lo = lo;
+            this.loInclusive = loInclusive;
+            this.toEnd = toEnd;
+            this.hi = hi;
+            this.hiInclusive = hiInclusive;
+        }
+
+        // Range checks
+
+        private boolean tooLow(K key) {
+            if (fromStart) return false;
+            int cmp = key.compareTo(lo);
+            return cmp < 0 || (cmp == 0 && !loInclusive);
+        }
+
+        private boolean tooHigh(K key) {
+            if (toEnd) return false;
+            int cmp = key.compareTo(hi);
+            return cmp > 0 || (cmp == 0 && !hiInclusive);
+        }
+
+        private boolean inRange(K key) {
+            return !tooLow(key) && !tooHigh(key);
+        }
+
+        /** Like {@link #inRange} but treats exclusive bounds as inclusive, for nested views. */
+        private boolean inClosedRange(K key) {
+            return (fromStart || key.compareTo(lo) >= 0) && (toEnd || key.compareTo(hi) <= 0);
+        }
+
+        private boolean inRange(K key, boolean inclusive) {
+            return inclusive ? inRange(key) : inClosedRange(key);
+        }
+
+        // Absolute navigation
+
+        private AVLNode<K, V> absLowest() {
+            AVLNode<K, V> node = fromStart ? firstNode() : loInclusive ? ceilingNode(lo) : higherNode(lo);
+            return node == null || tooHigh(node.key) ? null : node;
+        }
+
+        private AVLNode<K, V> absHighest() {
+            AVLNode<K, V> node = toEnd ? lastNode() : hiInclusive ? floorNode(hi) : lowerNode(hi);
+            return node == null || tooLow(node.key) ? null : node;
+        }
+
+        private AVLNode<K, V> absCeiling(K key) {
+            if (tooLow(key)) return absLowest();
+            AVLNode<K, V> node = ceilingNode(key);
+            return node == null || tooHigh(node.key) ? null : node;
+        }
+
+        private AVLNode<K, V> absHigher(K key) {
+            if (tooLow(key)) return absLowest();
+            AVLNode<K, V> node = higherNode(key);
+            return node == null || tooHigh(node.key) ? null : node;
+        }
+
+        private AVLNode<K, V> absFloor(K key) {
+            if (tooHigh(key)) return absHighest();
+            AVLNode<K, V> node = floorNode(key);
+            return node == null || tooLow(node.key) ? null : node;
+        }
+
+        private AVLNode<K, V> absLower(K key) {
+            if (tooHigh(key)) return absHighest();
+            AVLNode<K, V> node = lowerNode(key);
+            return node == null || tooLow(node.key) ? null : node;
+        }
+
+        // Map methods
+
+        @Override
+        public int size() {
+            int upper = toEnd ? AVLTree.this.size : countBelow(hi, hiInclusive);
+            int lower = fromStart ? 0 : countBelow(lo, !loInclusive);
+            return Math.max(0, upper - lower);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return absLowest() == null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof Comparable && inRange((K) key) && AVLTree.this.containsKey(key);
+        }
+
+        @Override
+        public V get(Object key) {
+            if (!(key instanceof Comparable) || !inRange((K) key)) return null;
+            return AVLTree.this.get(key);
+        }
+
+        @Override
+        public V put(K key, V value) {
+            if (!inRange(key)) throw new IllegalArgumentException("key out of range");
+            return AVLTree.this.put(key, value);
+        }
+
+        @Override
+        public V remove(Object key) {
+            if (!(key instanceof Comparable) || !inRange((K) key)) return null;
+            return AVLTree.this.remove(key);
+        }
+
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            if (entrySetView == null) entrySetView = new SubEntrySet();
+            return entrySetView;
+        }
+
+        @Override
+        public Set<K> keySet() {
+            return navigableKeySet();
+        }
+
+        @Override
+        public Collection<V> values() {
+            if (valuesView == null) valuesView = new SubValues();
+            return valuesView;
+        }
+
+        // SortedMap / NavigableMap methods
+
+        @Override
+        public Comparator<? super K> comparator() {
+            return descending ? Collections.reverseOrder() : null;
+        }
+
+        @Override
+        public K firstKey() {
+            return key(descending ? absHighest() : absLowest());
+        }
+
+        @Override
+        public K lastKey() {
+            return key(descending ? absLowest() : absHighest());
+        }
+
+        @Override
+        public Entry<K, V> firstEntry() {
+            return exportEntry(descending ? absHighest() : absLowest());
+        }
+
+        @Override
+        public Entry<K, V> lastEntry() {
+            return exportEntry(descending ? absLowest() : absHighest());
+        }
+
+        @Override
+        public Entry<K, V> pollFirstEntry() {
+            AVLNode<K, V> node = descending ? absHighest() : absLowest();
+            Entry<K, V> entry = exportEntry(node);
+            if (node != null) AVLTree.this.remove(node.key);
+            return entry;
+        }
+
+        @Override
+        public Entry<K, V> pollLastEntry() {
+            AVLNode<K, V> node = descending ? absLowest() : absHighest();
+            Entry<K, V> entry = exportEntry(node);
+            if (node != null) AVLTree.this.remove(node.key);
+            return entry;
+        }
+
+        @Override
+        public Entry<K, V> lowerEntry(K key) {
+            return exportEntry(descending ? absHigher(key) : absLower(key));
+        }
+
+        @Override
+        public K lowerKey(K key) {
+            return keyOrNull(descending ? absHigher(key) : absLower(key));
+        }
+
+        @Override
+        public Entry<K, V> floorEntry(K key) {
+            return exportEntry(descending ? absCeiling(key) : absFloor(key));
+        }
+
+        @Override
+        public K floorKey(K key) {
+            return keyOrNull(descending ? absCeiling(key) : absFloor(key));
+        }
+
+        @Override
+        public Entry<K, V> ceilingEntry(K key) {
+            return exportEntry(descending ? absFloor(key) : absCeiling(key));
+        }
+
+        @Override
+        public K ceilingKey(K key) {
+            return keyOrNull(descending ? absFloor(key) : absCeiling(key));
+        }
+
+        @Override
+        public Entry<K, V> higherEntry(K key) {
+            return exportEntry(descending ? absLower(key) : absHigher(key));
+        }
+
+        @Override
+        public K higherKey(K key) {
+            return keyOrNull(descending ? absLower(key) : absHigher(key));
+        }
+
+        @Override
+        public NavigableSet<K> navigableKeySet() {
+            if (keySetView == null) keySetView = new KeySet<>(this);
+            return keySetView;
+        }
+
+        @Override
+        public NavigableSet<K> descendingKeySet() {
+            return descendingMap().navigableKeySet();
+        }
+
+        @Override
+        public NavigableMap<K, V> descendingMap() {
+            return new SubMap(!descending, fromStart, lo, loInclusive, toEnd, hi, hiInclusive);
+        }
+
+        @Override
+        public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+            if (!inRange(fromKey, fromInclusive)) throw new IllegalArgumentException("fromKey out of range");
+            if (!inRange(toKey, toInclusive)) throw new IllegalArgumentException("toKey out of range");
+            if (descending) {
+                if (fromKey.compareTo(toKey) < 0) throw new IllegalArgumentException("fromKey > toKey");
+                return new SubMap(true, false, toKey, toInclusive, false, fromKey, fromInclusive);
+            }
+            if (fromKey.compareTo(toKey) > 0) throw new IllegalArgumentException("fromKey > toKey");
+            return new SubMap(false, false, fromKey, fromInclusive, false, toKey, toInclusive);
+        }
+
+        @Override
+        public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+            if (!inRange(toKey, inclusive)) throw new IllegalArgumentException("toKey out of range");
+            if (descending) return new SubMap(true, false, toKey, inclusive, toEnd, hi, hiInclusive);
+            return new SubMap(false, fromStart, lo, loInclusive, false, toKey, inclusive);
+        }
+
+        @Override
+        public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+            if (!inRange(fromKey, inclusive)) throw new IllegalArgumentException("fromKey out of range");
+            if (descending) return new SubMap(true, fromStart, lo, loInclusive, false, fromKey, inclusive);
+            return new SubMap(false, false, fromKey, inclusive, toEnd, hi, hiInclusive);
+        }
+
+        @Override
+        public SortedMap<K, V> subMap(K fromKey, K toKey) {
+            return subMap(fromKey, true, toKey, false);
+        }
+
+        @Override
+        public SortedMap<K, V> headMap(K toKey) {
+            return headMap(toKey, false);
+        }
+
+        @Override
+        public SortedMap<K, V> tailMap(K fromKey) {
+            return tailMap(fromKey, true);
+        }
+
+        private final class SubValues extends AbstractCollection<V> {
+            @Override
+            public Iterator<V> iterator() {
+                return new TreeIterator<>(descending, fromStart, lo, loInclusive, toEnd, hi, hiInclusive) {
+                    @Override
+                    public V next() {
+                        return nextNode().value;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return SubMap.this.size();
+            }
+
+            @Override
+            public boolean isEmpty() {
+                return SubMap.this.isEmpty();
+            }
+
+            @Override
+            public Spliterator<V> spliterator() {
+                return new TreeSpliterator<V>(node -> node.value, 0, null,
+                        descending, fromStart, lo, loInclusive, toEnd, hi, hiInclusive);
+            }
+        }
+
+        private final class SubEntrySet extends AbstractSet<Entry<K, V>> {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new TreeIterator<>(descending, fromStart, lo, loInclusive, toEnd, hi, hiInclusive) {
+                    @Override
+                    public Entry<K, V> next() {
+                        return nextNode();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return SubMap.this.size();
+            }
+
+            @Override
+            public Spliterator<Entry<K, V>> spliterator() {
+                Comparator<Entry<K, V>> order = descending
+                        ? Entry.comparingByKey(Collections.reverseOrder()) : Entry.comparingByKey();
+                return new TreeSpliterator<>(node -> node, Spliterator.DISTINCT | Spliterator.SORTED, order,
+                        descending, fromStart, lo, loInclusive, toEnd, hi, hiInclusive);
+            }
+
+            @Override
+            public boolean isEmpty() {
+                return SubMap.this.isEmpty();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                if (!(o instanceof Entry<?, ?> e) || !(e.getKey() instanceof Comparable)) return false;
+                K key = (K) e.getKey();
+                if (!inRange(key)) return false;
+                AVLNode<K, V> node = getNode(root, key);
+                return node != null && Objects.equals(node.value, e.getValue());
+            }
+
+            @Override
+            public boolean remove(Object o) {
+                if (!contains(o)) return false;
+                AVLTree.this.remove(((Entry<?, ?>) o).getKey());
+                return true;
+            }
+        }
+    }
 }
\ No newline at end of file
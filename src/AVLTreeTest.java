@@ -79,5 +79,209 @@ public class AVLTreeTest {
         assertTrue(avl.isEmpty());
         assertEquals(0, avl.size());
     }
-}
 
+    @Test
+    public void testKeySetIsLiveView() {
+        Set<Integer> keys = avl.keySet();
+        avl.put(15, "Fifteen");
+        assertEquals(6, keys.size());
+        assertTrue(keys.contains(15));
+        keys.remove(20);
+        assertFalse(avl.containsKey(20));
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        Iterator<Map.Entry<Integer, String>> it = avl.entrySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().getKey() % 10 == 0) it.remove();
+        }
+        assertEquals(List.of(5, 25), new ArrayList<>(avl.keySet()));
+        assertEquals(2, avl.size());
+    }
+
+    @Test
+    public void testIteratorFailsFast() {
+        Iterator<Integer> it = avl.keySet().iterator();
+        it.next();
+        avl.put(99, "Ninety Nine");
+        assertThrows(ConcurrentModificationException.class, it::next);
+    }
+
+    @Test
+    public void testEntrySetValueWritesThrough() {
+        for (Map.Entry<Integer, String> e : avl.entrySet()) e.setValue(e.getValue().toUpperCase());
+        assertEquals("TEN", avl.get(10));
+        assertEquals(List.of("FIVE", "TEN", "TWENTY", "TWENTY FIVE", "THIRTY"), new ArrayList<>(avl.values()));
+    }
+
+    @Test
+    public void testNavigation() {
+        assertEquals(10, avl.ceilingKey(9));
+        assertEquals(20, avl.ceilingKey(20));
+        assertNull(avl.ceilingKey(31));
+        assertEquals(5, avl.floorKey(7));
+        assertNull(avl.floorKey(4));
+        assertEquals(25, avl.higherKey(20));
+        assertNull(avl.higherKey(30));
+        assertEquals(10, avl.lowerKey(20));
+        assertNull(avl.lowerKey(5));
+        assertEquals(5, avl.firstKey());
+        assertEquals(30, avl.lastKey());
+    }
+
+    @Test
+    public void testPollFirstAndLastEntry() {
+        assertEquals(new AbstractMap.SimpleEntry<>(5, "Five"), avl.pollFirstEntry());
+        assertEquals(new AbstractMap.SimpleEntry<>(30, "Thirty"), avl.pollLastEntry());
+        assertEquals(List.of(10, 20, 25), new ArrayList<>(avl.keySet()));
+    }
+
+    @Test
+    public void testSubMapIsLiveView() {
+        NavigableMap<Integer, String> sub = avl.subMap(10, true, 25, false);
+        assertEquals(List.of(10, 20), new ArrayList<>(sub.keySet()));
+        avl.put(15, "Fifteen");
+        assertEquals(List.of(10, 15, 20), new ArrayList<>(sub.keySet()));
+        assertEquals(15, sub.higherKey(10));
+        assertNull(sub.ceilingKey(21));
+        sub.remove(10);
+        assertFalse(avl.containsKey(10));
+        assertThrows(IllegalArgumentException.class, () -> sub.put(30, "Thirty"));
+    }
+
+    @Test
+    public void testHeadAndTailMap() {
+        assertEquals(List.of(5, 10), new ArrayList<>(avl.headMap(20).keySet()));
+        assertEquals(List.of(5, 10, 20), new ArrayList<>(avl.headMap(20, true).keySet()));
+        assertEquals(List.of(20, 25, 30), new ArrayList<>(avl.tailMap(20).keySet()));
+        assertEquals(List.of(25, 30), new ArrayList<>(avl.tailMap(20, false).keySet()));
+    }
+
+    @Test
+    public void testDescendingMap() {
+        NavigableMap<Integer, String> desc = avl.descendingMap();
+        assertEquals(List.of(30, 25, 20, 10, 5), new ArrayList<>(desc.keySet()));
+        assertEquals(10, desc.ceilingKey(15));
+        assertEquals(List.of(25, 20, 10), new ArrayList<>(desc.subMap(25, true, 10, true).keySet()));
+        assertEquals(List.of(30, 25, 20, 10, 5), new ArrayList<>(avl.descendingKeySet()));
+    }
+
+    @Test
+    public void testSelectAndRank() {
+        assertEquals(5, avl.select(0));
+        assertEquals(20, avl.select(2));
+        assertEquals(30, avl.select(4));
+        assertThrows(IndexOutOfBoundsException.class, () -> avl.select(5));
+        assertEquals(0, avl.rank(5));
+        assertEquals(2, avl.rank(20));
+        assertEquals(3, avl.rank(21));
+        assertEquals(5, avl.rank(100));
+    }
+
+    @Test
+    public void testCountRange() {
+        assertEquals(3, avl.countRange(10, 26));
+        assertEquals(2, avl.countRange(10, 25));
+        assertEquals(0, avl.countRange(11, 19));
+        avl.remove(20);
+        assertEquals(2, avl.countRange(10, 26));
+    }
+
+    @Test
+    public void testFromSorted() {
+        TreeMap<Integer, String> source = new TreeMap<>();
+        for (int i = 0; i < 100; i++) source.put(i, "v" + i);
+        AVLTree<Integer, String> built = AVLTree.fromSorted(source.entrySet().iterator(), source.size());
+        assertEquals(100, built.size());
+        assertEquals(new ArrayList<>(source.keySet()), new ArrayList<>(built.keySet()));
+        assertEquals(42, built.select(42));
+        built.put(100, "v100");
+        built.remove(0);
+        assertEquals(1, built.firstEntry().getKey());
+    }
+
+    @Test
+    public void testFromSortedRejectsUnorderedInput() {
+        List<Map.Entry<Integer, String>> entries = List.of(Map.entry(2, "Two"), Map.entry(1, "One"));
+        assertThrows(IllegalArgumentException.class, () -> AVLTree.fromSorted(entries.iterator(), 2));
+    }
+
+    @Test
+    public void testPutAllFromSortedMap() {
+        TreeMap<Integer, String> source = new TreeMap<>(Map.of(1, "One", 2, "Two", 3, "Three"));
+        AVLTree<Integer, String> empty = new AVLTree<>();
+        empty.putAll(source);
+        assertEquals(List.of(1, 2, 3), new ArrayList<>(empty.keySet()));
+        avl.putAll(source);
+        assertEquals(8, avl.size());
+    }
+
+    @Test
+    public void testPutAllSortedBatchMatchesTreeMap() {
+        AVLTree<Integer, Integer> map = new AVLTree<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random rand = new Random(7);
+        for (int round = 0; round < 20; round++) {
+            Integer[] keys = new Integer[500];
+            for (int i = 0; i < keys.length; i++) keys[i] = rand.nextInt(5000);
+            // Sorted, nearly sorted and random batches
+            if (round % 3 != 2) Arrays.sort(keys);
+            if (round % 3 == 1) {
+                List<Integer> view = Arrays.asList(keys);
+                for (int i = 0; i < 25; i++) Collections.swap(view, rand.nextInt(500), rand.nextInt(500));
+            }
+            Integer[] values = new Integer[keys.length];
+            for (int i = 0; i < keys.length; i++) values[i] = rand.nextInt();
+            map.putAllSortedBatch(keys, values);
+            for (int i = 0; i < keys.length; i++) expected.put(keys[i], values[i]);
+            assertEquals(new ArrayList<>(expected.entrySet()), new ArrayList<>(map.entrySet()));
+        }
+        assertEquals(expected.size(), map.size());
+        int key = expected.ceilingKey(2500);
+        assertEquals(expected.headMap(key).size(), map.rank(key));
+    }
+
+    @Test
+    public void testGetAll() {
+        AVLTree<Integer, String> map = new AVLTree<>();
+        for (int i = 0; i < 100; i += 2) map.put(i, "v" + i);
+        Integer[] keys = {-1, 0, 1, 2, 50, 51, 98, 99, 4};
+        String[] out = new String[keys.length];
+        map.getAll(keys, out);
+        assertArrayEquals(new String[]{null, "v0", null, "v2", "v50", null, "v98", null, "v4"}, out);
+        assertThrows(IllegalArgumentException.class, () -> map.getAll(keys, new String[1]));
+    }
+
+    @Test
+    public void testSpliteratorSplitsEvenly() {
+        AVLTree<Integer, Integer> map = new AVLTree<>();
+        for (int i = 0; i < 10_000; i++) map.put(i, i);
+        Spliterator<Map.Entry<Integer, Integer>> rest = map.entrySet().spliterator();
+        assertTrue(rest.hasCharacteristics(Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.SIZED));
+        assertEquals(10_000, rest.getExactSizeIfKnown());
+        Spliterator<Map.Entry<Integer, Integer>> prefix = rest.trySplit();
+        assertEquals(10_000, prefix.getExactSizeIfKnown() + rest.getExactSizeIfKnown());
+        assertTrue(prefix.estimateSize() > 1000 && rest.estimateSize() > 1000);
+        List<Integer> keys = new ArrayList<>();
+        prefix.forEachRemaining(e -> keys.add(e.getKey()));
+        rest.forEachRemaining(e -> keys.add(e.getKey()));
+        assertEquals(new ArrayList<>(map.keySet()), keys);
+        assertEquals(49_995_000L, map.values().parallelStream().mapToLong(Integer::longValue).sum());
+        assertEquals(new ArrayList<>(map.keySet()), map.keySet().parallelStream().toList());
+    }
+
+    @Test
+    public void testRangeViewSpliterator() {
+        AVLTree<Integer, Integer> map = new AVLTree<>();
+        for (int i = 0; i < 1000; i++) map.put(i, i);
+        NavigableMap<Integer, Integer> range = map.subMap(100, true, 200, false).descendingMap();
+        Spliterator<Integer> keys = range.navigableKeySet().spliterator();
+        assertEquals(100, keys.getExactSizeIfKnown());
+        assertEquals(Collections.reverseOrder(), keys.getComparator());
+        Spliterator<Integer> prefix = keys.trySplit();
+        assertEquals(100, prefix.getExactSizeIfKnown() + keys.getExactSizeIfKnown());
+        assertEquals(new ArrayList<>(range.keySet()), range.keySet().parallelStream().toList());
+        assertEquals(14_950, range.values().parallelStream().mapToInt(Integer::intValue).sum());
+    }
+}
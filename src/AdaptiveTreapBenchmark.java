@@ -0,0 +1,74 @@
+import java.util.*;
+
+/**
+ * Compares the plain {@link TreapMap} with its access-adaptive mode under
+ * skewed and uniform lookups. Depth is measured by counting key comparisons
+ * per successful {@code get}, which is the node's depth plus one.
+ */
+public class AdaptiveTreapBenchmark {
+
+    private static final int RECORDS = 100_000;
+    private static final int LOOKUPS = 2_000_000;
+    private static final long SEED = 42;
+
+    /** Integer key that counts every comparison made against it. */
+    static final class CountingKey implements Comparable<CountingKey> {
+        static long comparisons;
+        final int value;
+
+        CountingKey(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public int compareTo(CountingKey other) {
+            comparisons++;
+            return Integer.compare(value, other.value);
+        }
+    }
+
+    public static void main(String[] args) {
+        CountingKey[] keys = new CountingKey[RECORDS];
+        for (int i = 0; i < RECORDS; i++) keys[i] = new CountingKey(i);
+
+        for (String distribution : new String[]{"zipfian", "hotspot", "uniform"}) {
+            System.out.printf("--- Distribution: %s | Records: %d | Lookups: %d ---%n", distribution, RECORDS, LOOKUPS);
+            benchmark("Treap", new TreapMap<>(false), keys, distribution);
+            benchmark("AdaptiveTreap", new TreapMap<>(true), keys, distribution);
+            System.out.println("-------------------------------------------------");
+        }
+    }
+
+    static void benchmark(String label, TreapMap<CountingKey, Integer> treap, CountingKey[] keys, String distribution) {
+        for (int i = 0; i < keys.length; i++) treap.put(keys[i], i);
+
+        // Warm-up pass also lets the adaptive treap settle into its access pattern
+        Random rand = new Random(SEED);
+        KeyDistribution chooser = KeyDistribution.named(distribution);
+        long sink = lookups(treap, keys, chooser, rand, LOOKUPS, null);
+
+        LatencyHistogram latency = new LatencyHistogram();
+        CountingKey.comparisons = 0;
+        long start = System.nanoTime();
+        sink += lookups(treap, keys, chooser, rand, LOOKUPS, latency);
+        long duration = System.nanoTime() - start;
+        double depth = (double) CountingKey.comparisons / LOOKUPS - 1;
+
+        System.out.printf("%s: avg depth %.2f | %.2f Kops/s | p50=%.2f us | p99=%.2f us | p99.9=%.2f us (checksum %d)%n",
+                label, depth, LOOKUPS / (duration / 1e6),
+                latency.percentile(50) / 1e3, latency.percentile(99) / 1e3, latency.percentile(99.9) / 1e3, sink);
+    }
+
+    private static long lookups(TreapMap<CountingKey, Integer> treap, CountingKey[] keys, KeyDistribution chooser,
+                                Random rand, int count, LatencyHistogram latency) {
+        long sink = 0;
+        for (int i = 0; i < count; i++) {
+            CountingKey key = keys[(int) chooser.next(rand, keys.length)];
+            long begin = System.nanoTime();
+            sink += treap.get(key);
+            long elapsed = System.nanoTime() - begin;
+            if (latency != null) latency.record(elapsed);
+        }
+        return sink;
+    }
+}
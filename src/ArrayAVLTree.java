@@ -0,0 +1,151 @@
+/**
+ * AVL tree over the array-backed node pool of {@link ArrayTreeMap}, with
+ * {@code aux[]} holding each slot's height. Same balancing as {@link AVLTree},
+ * expressed over slot indices.
+ */
+public class ArrayAVLTree<K extends Comparable<K>, V> extends ArrayTreeMap<K, V> {
+
+    public ArrayAVLTree() {
+        super();
+    }
+
+    public ArrayAVLTree(int initialCapacity) {
+        super(initialCapacity);
+    }
+
+    @Override
+    public V put(K key, V value) {
+        int node = root;
+        if (node == NIL) {
+            root = newNode(key, value);
+            size++;
+            modCount++;
+            return value;
+        }
+        int depth = 0;
+        while (true) {
+            int cmp = key.compareTo(key(node));
+            if (cmp == 0) {
+                values[node] = value;
+                return value;
+            }
+            push(depth++, node);
+            int next = cmp < 0 ? left[node] : right[node];
+            if (next == NIL) {
+                int leaf = newNode(key, value);
+                if (cmp < 0) left[node] = leaf;
+                else right[node] = leaf;
+                break;
+            }
+            node = next;
+        }
+        size++;
+        modCount++;
+        rebalancePath(depth);
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Object o) {
+        if (!(o instanceof Comparable)) return null;
+        K key = (K) o;
+        int node = root;
+        int depth = 0;
+        while (node != NIL) {
+            int cmp = key.compareTo(key(node));
+            if (cmp == 0) break;
+            push(depth++, node);
+            node = cmp < 0 ? left[node] : right[node];
+        }
+        if (node == NIL) return null;
+        int parent = depth == 0 ? NIL : path[depth - 1];
+        int replacement;
+        if (left[node] == NIL || right[node] == NIL) {
+            replacement = left[node] != NIL ? left[node] : right[node];
+        } else {
+            // splice the successor slot into this position
+            int slot = depth;
+            push(depth++, node);
+            int successorParent = node, successor = right[node];
+            while (left[successor] != NIL) {
+                push(depth++, successor);
+                successorParent = successor;
+                successor = left[successor];
+            }
+            if (successorParent != node) {
+                left[successorParent] = right[successor];
+                right[successor] = right[node];
+            }
+            left[successor] = left[node];
+            path[slot] = successor;
+            replacement = successor;
+        }
+        replaceChild(parent, node, replacement);
+        V old = value(node);
+        release(node);
+        size--;
+        modCount++;
+        rebalancePath(depth);
+        return old;
+    }
+
+    private int newNode(K key, V value) {
+        int slot = allocate(key, value);
+        aux[slot] = 1;
+        return slot;
+    }
+
+    // Internal AVL methods
+
+    private int balanceFactor(int node) {
+        return node == NIL ? 0 : aux[left[node]] - aux[right[node]];
+    }
+
+    private void updateHeight(int node) {
+        aux[node] = 1 + Math.max(aux[left[node]], aux[right[node]]);
+    }
+
+    private int rotateRight(int y) {
+        int x = left[y];
+        left[y] = right[x];
+        right[x] = y;
+        updateHeight(y);
+        updateHeight(x);
+        return x;
+    }
+
+    private int rotateLeft(int x) {
+        int y = right[x];
+        right[x] = left[y];
+        left[y] = x;
+        updateHeight(x);
+        updateHeight(y);
+        return y;
+    }
+
+    private int rebalance(int node) {
+        updateHeight(node);
+        int balance = balanceFactor(node);
+
+        if (balance > 1) {
+            if (balanceFactor(left[node]) < 0) left[node] = rotateLeft(left[node]);
+            return rotateRight(node);
+        }
+
+        if (balance < -1) {
+            if (balanceFactor(right[node]) > 0) right[node] = rotateRight(right[node]);
+            return rotateLeft(node);
+        }
+
+        return node;
+    }
+
+    private void rebalancePath(int depth) {
+        for (int i = depth - 1; i >= 0; i--) {
+            int node = path[i];
+            int balanced = rebalance(node);
+            if (balanced != node) replaceChild(i == 0 ? NIL : path[i - 1], node, balanced);
+        }
+    }
+}
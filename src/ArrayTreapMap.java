@@ -0,0 +1,118 @@
+import java.util.Random;
+
+/**
+ * Treap over the array-backed node pool of {@link ArrayTreeMap}, with
+ * {@code aux[]} holding each slot's priority. Same algorithms as
+ * {@link TreapMap}, expressed over slot indices.
+ */
+public class ArrayTreapMap<K extends Comparable<K>, V> extends ArrayTreeMap<K, V> {
+
+    private final Random rand = new Random();
+
+    public ArrayTreapMap() {
+        super();
+    }
+
+    public ArrayTreapMap(int initialCapacity) {
+        super(initialCapacity);
+    }
+
+    @Override
+    public V put(K key, V value) {
+        int node = root;
+        int depth = 0;
+        while (node != NIL) {
+            int cmp = key.compareTo(key(node));
+            if (cmp == 0) {
+                values[node] = value;
+                return value;
+            }
+            push(depth++, node);
+            node = cmp < 0 ? left[node] : right[node];
+        }
+        int child = allocate(key, value);
+        aux[child] = rand.nextInt();
+        size++;
+        modCount++;
+        int i = depth - 1;
+        if (i < 0) {
+            root = child;
+            return value;
+        }
+        int parent = path[i];
+        if (key.compareTo(key(parent)) < 0) left[parent] = child;
+        else right[parent] = child;
+        // rotate the new slot up while it outranks its parent
+        for (; i >= 0; i--) {
+            parent = path[i];
+            if (aux[child] <= aux[parent]) break;
+            child = left[parent] == child ? rotateRight(parent) : rotateLeft(parent);
+            replaceChild(i == 0 ? NIL : path[i - 1], parent, child);
+        }
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Object o) {
+        if (!(o instanceof Comparable)) return null;
+        K key = (K) o;
+        int node = root, parent = NIL;
+        while (node != NIL) {
+            int cmp = key.compareTo(key(node));
+            if (cmp == 0) break;
+            parent = node;
+            node = cmp < 0 ? left[node] : right[node];
+        }
+        if (node == NIL) return null;
+        replaceChild(parent, node, merge(left[node], right[node]));
+        V old = value(node);
+        release(node);
+        size--;
+        modCount++;
+        return old;
+    }
+
+    // Treap core methods
+
+    private int merge(int a, int b) {
+        if (a == NIL) return b;
+        if (b == NIL) return a;
+        int result = NIL, hook = NIL;
+        boolean hookRight = false;
+        while (a != NIL && b != NIL) {
+            int chosen;
+            boolean fromLeft = aux[a] > aux[b];
+            if (fromLeft) {
+                chosen = a;
+                a = right[a];
+            } else {
+                chosen = b;
+                b = left[b];
+            }
+            if (hook == NIL) result = chosen;
+            else if (hookRight) right[hook] = chosen;
+            else left[hook] = chosen;
+            hook = chosen;
+            hookRight = fromLeft;
+        }
+        int rest = a != NIL ? a : b;
+        if (hookRight) right[hook] = rest;
+        else left[hook] = rest;
+        return result;
+    }
+
+    private int rotateLeft(int node) {
+        int r = right[node];
+        right[node] = left[r];
+        left[r] = node;
+        return r;
+    }
+
+    private int rotateRight(int node) {
+        int l = left[node];
+        left[node] = right[l];
+        right[l] = node;
+        return l;
+    }
+}
@@ -0,0 +1,91 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ArrayTreapMapTest {
+
+    private ArrayTreapMap<Integer, String> map;
+
+    @BeforeEach
+    public void setUp() {
+        map = new ArrayTreapMap<>();
+        map.put(20, "Twenty");
+        map.put(10, "Ten");
+        map.put(30, "Thirty");
+        map.put(5, "Five");
+        map.put(25, "Twenty Five");
+    }
+
+    @Test
+    public void testPutAndGet() {
+        assertEquals("Ten", map.get(10));
+        assertEquals("Thirty", map.get(30));
+        assertNull(map.get(100));
+    }
+
+    @Test
+    public void testUpdatePut() {
+        map.put(10, "Updated");
+        assertEquals("Updated", map.get(10));
+        assertEquals(5, map.size());
+    }
+
+    @Test
+    public void testRemove() {
+        assertEquals("Twenty", map.remove(20));
+        assertNull(map.get(20));
+        assertNull(map.remove(100));
+        assertEquals(4, map.size());
+    }
+
+    @Test
+    public void testKeySetIsSorted() {
+        assertEquals(List.of(5, 10, 20, 25, 30), new ArrayList<>(map.keySet()));
+    }
+
+    @Test
+    public void testFreedSlotsAreReused() {
+        for (int i = 0; i < 1000; i++) map.put(100 + i, "v");
+        int capacity = map.keys.length;
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 1000; i++) map.remove(100 + i);
+            for (int i = 0; i < 1000; i++) map.put(100 + i, "v");
+        }
+        assertEquals(capacity, map.keys.length);
+        assertEquals(1005, map.size());
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        Iterator<Map.Entry<Integer, String>> it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().getKey() % 10 == 0) it.remove();
+        }
+        assertEquals(List.of(5, 25), new ArrayList<>(map.keySet()));
+    }
+
+    @Test
+    public void testEntrySetValueWritesThrough() {
+        for (Map.Entry<Integer, String> e : map.entrySet()) e.setValue(e.getValue().toUpperCase());
+        assertEquals(List.of("FIVE", "TEN", "TWENTY", "TWENTY FIVE", "THIRTY"), new ArrayList<>(map.values()));
+    }
+
+    @Test
+    public void testIteratorFailsFast() {
+        Iterator<Integer> it = map.keySet().iterator();
+        it.next();
+        map.put(99, "Ninety Nine");
+        assertThrows(ConcurrentModificationException.class, it::next);
+    }
+
+    @Test
+    public void testClear() {
+        map.clear();
+        assertTrue(map.isEmpty());
+        map.put(1, "One");
+        assertEquals("One", map.get(1));
+    }
+}
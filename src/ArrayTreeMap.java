@@ -0,0 +1,374 @@
+import java.util.*;
+
+/**
+ * Array-backed storage engine shared by {@link ArrayAVLTree} and
+ * {@link ArrayTreapMap}. Nodes are slot indices into parallel arrays instead of
+ * objects, so a lookup walks a handful of dense arrays and the GC only ever sees
+ * a few large objects regardless of map size. Slot 0 is the nil sentinel, freed
+ * slots are chained through {@code left[]} into a free list, and the arrays grow
+ * by half whenever the pool runs out.
+ *
+ * <p>Subclasses supply the balancing scheme through {@link #put} and
+ * {@link #remove}; {@code aux[]} is theirs to use for heights or priorities.
+ */
+public abstract class ArrayTreeMap<K extends Comparable<K>, V> extends AbstractMap<K, V> {
+
+    static final int NIL = 0;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    Object[] keys;
+    Object[] values;
+    int[] left;
+    int[] right;
+    int[] aux;
+
+    int root = NIL;
+    int size;
+    int modCount;
+
+    private int nextSlot = 1;
+    private int freeHead = NIL;
+
+    // Scratch stack of ancestor slots for the iterative update paths
+    int[] path = new int[32];
+
+    private Set<Entry<K, V>> entrySetView;
+    private Set<K> keySetView;
+    private Collection<V> valuesView;
+
+    ArrayTreeMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    ArrayTreeMap(int initialCapacity) {
+        int capacity = Math.max(2, initialCapacity + 1);
+        keys = new Object[capacity];
+        values = new Object[capacity];
+        left = new int[capacity];
+        right = new int[capacity];
+        aux = new int[capacity];
+    }
+
+    // Slot management
+
+    int allocate(K key, V value) {
+        int slot;
+        if (freeHead != NIL) {
+            slot = freeHead;
+            freeHead = left[slot];
+        } else {
+            if (nextSlot == keys.length) grow();
+            slot = nextSlot++;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        left[slot] = NIL;
+        right[slot] = NIL;
+        return slot;
+    }
+
+    void release(int slot) {
+        keys[slot] = null;
+        values[slot] = null;
+        right[slot] = NIL;
+        left[slot] = freeHead;
+        freeHead = slot;
+    }
+
+    private void grow() {
+        int capacity = keys.length + (keys.length >> 1);
+        keys = Arrays.copyOf(keys, capacity);
+        values = Arrays.copyOf(values, capacity);
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+        aux = Arrays.copyOf(aux, capacity);
+    }
+
+    void push(int depth, int slot) {
+        if (depth == path.length) path = Arrays.copyOf(path, depth * 2);
+        path[depth] = slot;
+    }
+
+    @SuppressWarnings("unchecked")
+    K key(int slot) {
+        return (K) keys[slot];
+    }
+
+    @SuppressWarnings("unchecked")
+    V value(int slot) {
+        return (V) values[slot];
+    }
+
+    void replaceChild(int parent, int child, int replacement) {
+        if (parent == NIL) root = replacement;
+        else if (left[parent] == child) left[parent] = replacement;
+        else right[parent] = replacement;
+    }
+
+    int find(K key) {
+        int node = root;
+        while (node != NIL) {
+            int cmp = key.compareTo(key(node));
+            if (cmp < 0) node = left[node];
+            else if (cmp > 0) node = right[node];
+            else return node;
+        }
+        return NIL;
+    }
+
+    // Map methods
+
+    @Override
+    public abstract V put(K key, V value);
+
+    @Override
+    public abstract V remove(Object key);
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (!(key instanceof Comparable)) return null;
+        int node = find((K) key);
+        return node == NIL ? null : value(node);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean containsKey(Object key) {
+        return key instanceof Comparable && find((K) key) != NIL;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(keys, 0, nextSlot, null);
+        Arrays.fill(values, 0, nextSlot, null);
+        root = NIL;
+        size = 0;
+        nextSlot = 1;
+        freeHead = NIL;
+        modCount++;
+    }
+
+    @Override
+    public Set<K> keySet() {
+        if (keySetView == null) keySetView = new KeySet();
+        return keySetView;
+    }
+
+    @Override
+    public Collection<V> values() {
+        if (valuesView == null) valuesView = new Values();
+        return valuesView;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        if (entrySetView == null) entrySetView = new EntrySet();
+        return entrySetView;
+    }
+
+    // Live views
+
+    /** In-order iterator over slot indices, driven by an explicit int stack. */
+    private abstract class SlotIterator<T> implements Iterator<T> {
+        private int[] stack = new int[32];
+        private int top;
+        private int lastReturned = NIL;
+        private int expectedModCount = modCount;
+
+        SlotIterator() {
+            pushLeft(root);
+        }
+
+        private void pushLeft(int node) {
+            while (node != NIL) {
+                if (top == stack.length) stack = Arrays.copyOf(stack, top * 2);
+                stack[top++] = node;
+                node = left[node];
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return top > 0;
+        }
+
+        int nextSlot() {
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            if (top == 0) throw new NoSuchElementException();
+            int node = stack[--top];
+            pushLeft(right[node]);
+            lastReturned = node;
+            return node;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == NIL) throw new IllegalStateException();
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            K key = key(lastReturned);
+            ArrayTreeMap.this.remove(key);
+            lastReturned = NIL;
+            expectedModCount = modCount;
+            top = 0;
+            int node = root;
+            while (node != NIL) {
+                if (key.compareTo(key(node)) < 0) {
+                    if (top == stack.length) stack = Arrays.copyOf(stack, top * 2);
+                    stack[top++] = node;
+                    node = left[node];
+                } else {
+                    node = right[node];
+                }
+            }
+        }
+    }
+
+    /** Entry bound to a slot; writes through while the key is still mapped. */
+    private final class SlotEntry implements Entry<K, V> {
+        private final int slot;
+        private final K key;
+
+        SlotEntry(int slot) {
+            this.slot = slot;
+            this.key = key(slot);
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value(slot);
+        }
+
+        @Override
+        public V setValue(V value) {
+            if (keys[slot] != key) throw new IllegalStateException("entry no longer in map");
+            V old = value(slot);
+            values[slot] = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry<?, ?> e)) return false;
+            return Objects.equals(key, e.getKey()) && Objects.equals(getValue(), e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + getValue();
+        }
+    }
+
+    private final class KeySet extends AbstractSet<K> {
+        @Override
+        public Iterator<K> iterator() {
+            return new SlotIterator<>() {
+                @Override
+                public K next() {
+                    return key(nextSlot());
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!containsKey(o)) return false;
+            ArrayTreeMap.this.remove(o);
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            ArrayTreeMap.this.clear();
+        }
+    }
+
+    private final class Values extends AbstractCollection<V> {
+        @Override
+        public Iterator<V> iterator() {
+            return new SlotIterator<>() {
+                @Override
+                public V next() {
+                    return value(nextSlot());
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            ArrayTreeMap.this.clear();
+        }
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<K, V>> {
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            return new SlotIterator<>() {
+                @Override
+                public Entry<K, V> next() {
+                    return new SlotEntry(nextSlot());
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean contains(Object o) {
+            if (!(o instanceof Entry<?, ?> e) || !(e.getKey() instanceof Comparable)) return false;
+            int node = find((K) e.getKey());
+            return node != NIL && Objects.equals(value(node), e.getValue());
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!contains(o)) return false;
+            ArrayTreeMap.this.remove(((Entry<?, ?>) o).getKey());
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            ArrayTreeMap.this.clear();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,157 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BPlusTreeMapTest {
+
+    private BPlusTreeMap<Integer, String> tree;
+
+    @BeforeEach
+    public void setUp() {
+        tree = new BPlusTreeMap<>(4);
+        tree.put(20, "Twenty");
+        tree.put(10, "Ten");
+        tree.put(30, "Thirty");
+        tree.put(5, "Five");
+        tree.put(25, "Twenty Five");
+    }
+
+    @Test
+    public void testPutAndGet() {
+        assertEquals("Ten", tree.get(10));
+        assertEquals("Twenty Five", tree.get(25));
+        assertNull(tree.get(99));
+    }
+
+    @Test
+    public void testPutReturnsPreviousValue() {
+        assertEquals("Ten", tree.put(10, "Updated"));
+        assertEquals("Updated", tree.get(10));
+        assertNull(tree.put(11, "Eleven"));
+        assertEquals(6, tree.size());
+    }
+
+    @Test
+    public void testRemove() {
+        assertEquals("Ten", tree.remove(10));
+        assertNull(tree.get(10));
+        assertNull(tree.remove(99));
+        assertEquals(4, tree.size());
+    }
+
+    @Test
+    public void testRejectsTinyNodes() {
+        assertThrows(IllegalArgumentException.class, () -> new BPlusTreeMap<>(3));
+    }
+
+    @Test
+    public void testFirstAndLastEntry() {
+        assertEquals(5, tree.firstEntry().getKey());
+        assertEquals(30, tree.lastEntry().getKey());
+        tree.clear();
+        assertNull(tree.firstEntry());
+    }
+
+    @Test
+    public void testNavigation() {
+        assertEquals(10, tree.ceilingEntry(9).getKey());
+        assertEquals(20, tree.ceilingEntry(20).getKey());
+        assertNull(tree.ceilingEntry(31));
+        assertEquals(5, tree.floorEntry(7).getKey());
+        assertNull(tree.floorEntry(4));
+        assertEquals(10, tree.lowerEntry(20).getKey());
+        assertNull(tree.lowerEntry(5));
+        assertEquals(25, tree.higherEntry(20).getKey());
+        assertNull(tree.higherEntry(30));
+    }
+
+    @Test
+    public void testSubMap() {
+        List<Integer> keys = tree.subMap(10, 26).stream().map(Map.Entry::getKey).toList();
+        assertEquals(List.of(10, 20, 25), keys);
+    }
+
+    @Test
+    public void testSplitsAndMergesKeepOrder() {
+        BPlusTreeMap<Integer, Integer> map = new BPlusTreeMap<>(4);
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random rand = new Random(42);
+        for (int i = 0; i < 5000; i++) {
+            int key = rand.nextInt(1000);
+            if (rand.nextInt(3) == 0) assertEquals(expected.remove(key), map.remove(key));
+            else assertEquals(expected.put(key, i), map.put(key, i));
+        }
+        assertEquals(expected.size(), map.size());
+        assertEquals(new ArrayList<>(expected.entrySet()), new ArrayList<>(map.entrySet()));
+        assertEquals(expected.ceilingEntry(500), map.ceilingEntry(500));
+        assertEquals(expected.floorEntry(500), map.floorEntry(500));
+    }
+
+    @Test
+    public void testKeySetIsLiveView() {
+        Set<Integer> keys = tree.keySet();
+        tree.put(15, "Fifteen");
+        assertEquals(6, keys.size());
+        assertTrue(keys.contains(15));
+        keys.remove(20);
+        assertFalse(tree.containsKey(20));
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        Iterator<Map.Entry<Integer, String>> it = tree.entrySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().getKey() % 10 == 0) it.remove();
+        }
+        assertEquals(List.of(5, 25), new ArrayList<>(tree.keySet()));
+        assertEquals(2, tree.size());
+    }
+
+    @Test
+    public void testIteratorFailsFast() {
+        Iterator<Integer> it = tree.keySet().iterator();
+        it.next();
+        tree.put(99, "Ninety Nine");
+        assertThrows(ConcurrentModificationException.class, it::next);
+    }
+
+    @Test
+    public void testEntrySetValueWritesThrough() {
+        for (Map.Entry<Integer, String> e : tree.entrySet()) e.setValue(e.getValue().toUpperCase());
+        assertEquals("TEN", tree.get(10));
+        assertEquals(List.of("FIVE", "TEN", "TWENTY", "TWENTY FIVE", "THIRTY"), new ArrayList<>(tree.values()));
+    }
+
+    @Test
+    public void testFromSorted() {
+        TreeMap<Integer, String> source = new TreeMap<>();
+        for (int i = 0; i < 100; i++) source.put(i, "v" + i);
+        BPlusTreeMap<Integer, String> built = BPlusTreeMap.fromSorted(source.entrySet().iterator(), 4);
+        assertEquals(100, built.size());
+        assertEquals(new ArrayList<>(source.keySet()), new ArrayList<>(built.keySet()));
+        assertEquals("v42", built.get(42));
+        built.put(100, "v100");
+        for (int i = 0; i < 50; i++) built.remove(i);
+        assertEquals(50, built.firstEntry().getKey());
+        assertEquals(100, built.lastEntry().getKey());
+    }
+
+    @Test
+    public void testFromSortedRejectsUnorderedInput() {
+        List<Map.Entry<Integer, String>> entries = List.of(Map.entry(2, "Two"), Map.entry(1, "One"));
+        assertThrows(IllegalArgumentException.class, () -> BPlusTreeMap.fromSorted(entries.iterator(), 4));
+    }
+
+    @Test
+    public void testPutAllFromSortedMap() {
+        TreeMap<Integer, String> source = new TreeMap<>(Map.of(1, "One", 2, "Two", 3, "Three"));
+        BPlusTreeMap<Integer, String> empty = new BPlusTreeMap<>();
+        empty.putAll(source);
+        assertEquals(List.of(1, 2, 3), new ArrayList<>(empty.keySet()));
+        tree.putAll(source);
+        assertEquals(8, tree.size());
+    }
+}
@@ -0,0 +1,71 @@
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Compares per-key {@code put} and {@code get} with the finger-search batch
+ * operations {@code putAllSortedBatch} and {@code getAll} of {@link AVLTree}
+ * and {@link TreapMap}. Each batch is applied to a map that already holds
+ * every other key, so the batch search runs against a populated tree.
+ *
+ * <p>Argument: batch size (default 1,000,000).
+ */
+public class BatchBenchmark {
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        String[] patterns = {"sorted", "partial", "nearlySorted", "random"};
+
+        for (String pattern : patterns) {
+            int[] data = Benchmark.generateData(size, pattern);
+            Integer[] keys = new Integer[size];
+            for (int i = 0; i < size; i++) keys[i] = 2 * data[i] + 1;
+            // Unlabelled rounds only warm up the JIT
+            for (int round = 0; round < 3; round++) {
+                benchmark(null, AVLTree::new, keys, AVLTree::putAllSortedBatch, AVLTree::getAll);
+                benchmark(null, TreapMap::new, keys, TreapMap::putAllSortedBatch, TreapMap::getAll);
+            }
+            System.out.printf("--- Batch: %d | Pattern: %s ---%n", size, pattern);
+            benchmark("AVLTree", AVLTree::new, keys, AVLTree::putAllSortedBatch, AVLTree::getAll);
+            benchmark("Treap", TreapMap::new, keys, TreapMap::putAllSortedBatch, TreapMap::getAll);
+            System.out.println("-------------------------------------------------");
+        }
+    }
+
+    interface BatchOp<M> {
+        void apply(M map, Integer[] keys, Integer[] values);
+    }
+
+    static <M extends Map<Integer, Integer>> void benchmark(String label, Supplier<M> factory,
+                                                            Integer[] keys, BatchOp<M> put, BatchOp<M> getAll) {
+        Integer[] out = new Integer[keys.length];
+
+        M map = populated(factory, keys.length);
+        long start = System.nanoTime();
+        for (Integer key : keys) map.put(key, key);
+        long putTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < keys.length; i++) out[i] = map.get(keys[i]);
+        long getTime = System.nanoTime() - start;
+
+        map = null;
+        map = populated(factory, keys.length);
+        start = System.nanoTime();
+        put.apply(map, keys, keys);
+        long batchPutTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        getAll.apply(map, keys, out);
+        long batchGetTime = System.nanoTime() - start;
+
+        if (label == null) return;
+        System.out.printf("%s | Put: %.2f ms | Batch put: %.2f ms | Get: %.2f ms | Batch get: %.2f ms%n",
+                label, putTime / 1e6, batchPutTime / 1e6, getTime / 1e6, batchGetTime / 1e6);
+    }
+
+    // Holds the even keys 0, 2, ..., 2 * (size - 1), between which the batch keys fall
+    private static <M extends Map<Integer, Integer>> M populated(Supplier<M> factory, int size) {
+        M map = factory.get();
+        int[] data = Benchmark.generateData(size, "random");
+        for (int x : data) map.put(2 * x, x);
+        return map;
+    }
+}
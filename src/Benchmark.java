@@ -13,6 +13,22 @@ public class Benchmark {
                 benchmark("Treap", new TreapMap<>(), data);
                 benchmark("AVLTree", new AVLTree<>(), data);
                 benchmark("TreeMap", new TreeMap<>(), data);
+                benchmark("BPlusTree", new BPlusTreeMap<>(), data);
+                benchmark("ArrayTreap", new ArrayTreapMap<>(size), data);
+                benchmark("ArrayAVLTree", new ArrayAVLTree<>(size), data);
+                benchmark("IntIntAVLTree", new IntIntAVLTree(), data);
+                benchmark("LongLongTreap", new LongLongTreapMap(), data);
+                try (OffHeapLongLongAVLTree offHeap = new OffHeapLongLongAVLTree()) {
+                    benchmark("OffHeapAVLTree", offHeap, data);
+                }
+                if (pattern.equals("sorted")) {
+                    TreeMap<Integer, Integer> source = new TreeMap<>();
+                    for (int x : data) source.put(x, x);
+                    bulkLoad("Treap", new TreapMap<>(), source);
+                    bulkLoad("AVLTree", new AVLTree<>(), source);
+                    bulkLoad("TreeMap", new TreeMap<>(), source);
+                    bulkLoad("BPlusTree", new BPlusTreeMap<>(), source);
+                }
                 System.out.println("-------------------------------------------------");
             }
         }
@@ -42,6 +58,16 @@ public class Benchmark {
                     data[i] = size + i;
                 }
             }
+            case "nearlySorted" -> {
+                Random rand = new Random();
+                for (int i = 0; i < size / 10; i++) {
+                    int a = rand.nextInt(size);
+                    int b = rand.nextInt(size);
+                    int temp = data[a];
+                    data[a] = data[b];
+                    data[b] = temp;
+                }
+            }
         }
         return data;
     }
@@ -66,14 +92,102 @@ public class Benchmark {
 
         // In-order traversal
         start = System.nanoTime();
-        for (int x : map.keySet()) {}
+        long checksum = 0;
+        for (int x : map.keySet()) checksum += x;
         long traversalTime = System.nanoTime() - start;
+        if (checksum == Long.MIN_VALUE) System.out.println(checksum);
 
         // Deletion
         start = System.nanoTime();
         for (int x : data) map.remove(x);
         long deleteTime = System.nanoTime() - start;
 
+        print(label, insertTime, getSuccessTime, getFailTime, traversalTime, deleteTime);
+    }
+
+    // Unboxed counterparts of the loop above, so the primitive maps can be
+    // compared row for row with the generic ones
+
+    static void benchmark(String label, IntIntAVLTree map, int[] data) {
+        long start = System.nanoTime();
+        for (int x : data) map.put(x, x);
+        long insertTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int x : data) map.get(x);
+        long getSuccessTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int x : data) map.get(x + 100_000);
+        long getFailTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        long checksum = 0;
+        for (PrimitiveIterator.OfInt it = map.keyIterator(); it.hasNext(); ) checksum += it.nextInt();
+        long traversalTime = System.nanoTime() - start;
+        if (checksum == Long.MIN_VALUE) System.out.println(checksum);
+
+        start = System.nanoTime();
+        for (int x : data) map.remove(x);
+        long deleteTime = System.nanoTime() - start;
+
+        print(label, insertTime, getSuccessTime, getFailTime, traversalTime, deleteTime);
+    }
+
+    static void benchmark(String label, LongLongTreapMap map, int[] data) {
+        long start = System.nanoTime();
+        for (int x : data) map.put(x, x);
+        long insertTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int x : data) map.get(x);
+        long getSuccessTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int x : data) map.get(x + 100_000);
+        long getFailTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        long checksum = 0;
+        for (PrimitiveIterator.OfLong it = map.keyIterator(); it.hasNext(); ) checksum += it.nextLong();
+        long traversalTime = System.nanoTime() - start;
+        if (checksum == Long.MIN_VALUE) System.out.println(checksum);
+
+        start = System.nanoTime();
+        for (int x : data) map.remove(x);
+        long deleteTime = System.nanoTime() - start;
+
+        print(label, insertTime, getSuccessTime, getFailTime, traversalTime, deleteTime);
+    }
+
+    static void benchmark(String label, OffHeapLongLongAVLTree map, int[] data) {
+        long start = System.nanoTime();
+        for (int x : data) map.put(x, x);
+        long insertTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int x : data) map.get(x);
+        long getSuccessTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int x : data) map.get(x + 100_000);
+        long getFailTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        long checksum = 0;
+        for (PrimitiveIterator.OfLong it = map.keyIterator(); it.hasNext(); ) checksum += it.nextLong();
+        long traversalTime = System.nanoTime() - start;
+        if (checksum == Long.MIN_VALUE) System.out.println(checksum);
+
+        start = System.nanoTime();
+        for (int x : data) map.remove(x);
+        long deleteTime = System.nanoTime() - start;
+
+        print(label, insertTime, getSuccessTime, getFailTime, traversalTime, deleteTime);
+    }
+
+    static void print(String label, long insertTime, long getSuccessTime, long getFailTime,
+                      long traversalTime, long deleteTime) {
         System.out.printf("%s | Insert: %.2f ms | Get✓: %.2f ms | Get✗: %.2f ms | Traverse: %.2f ms | Delete: %.2f ms%n",
                 label,
                 insertTime / 1e6,
@@ -83,4 +197,12 @@ public class Benchmark {
                 deleteTime / 1e6
         );
     }
+
+    // putAll from a SortedMap takes the linear bulk-build path in all of these maps
+    static void bulkLoad(String label, Map<Integer, Integer> map, SortedMap<Integer, Integer> source) {
+        long start = System.nanoTime();
+        map.putAll(source);
+        long bulkTime = System.nanoTime() - start;
+        System.out.printf("%s | Bulk load: %.2f ms (%d entries)%n", label, bulkTime / 1e6, map.size());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,149 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of puts and removes, replayed on top of the last snapshot to
+ * recover a map after a crash without rewriting the whole snapshot on every
+ * change. Each record is
+ *
+ * <pre>
+ *   byte op, int payload bytes, int CRC32C of op and payload, payload
+ * </pre>
+ *
+ * where the payload is the encoded key, followed by the encoded value for a
+ * put. Records are buffered and reach the file on {@link #flush()},
+ * {@link #sync()} or {@link #close()}; only what {@link #sync()} has forced is
+ * sure to survive a crash. After a new snapshot has been written the log can
+ * be emptied with {@link #truncate()}.
+ *
+ * <p>Typical use: {@code loadSnapshot(snapshot, log, ...)}, then for every
+ * change call {@code log.put(k, v)} alongside {@code map.put(k, v)}, and
+ * periodically {@code writeSnapshot} followed by {@code log.truncate()}.
+ */
+public class ChangeLog<K, V> implements Closeable {
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final int RECORD_HEADER_BYTES = 9;
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final FileChannel channel;
+    private final SnapshotCodec<K> keyCodec;
+    private final SnapshotCodec<V> valueCodec;
+    private final CRC32C crc = new CRC32C();
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+
+    /** Opens {@code file} for appending, creating it if needed. */
+    public ChangeLog(Path file, SnapshotCodec<K> keyCodec, SnapshotCodec<V> valueCodec) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+    }
+
+    public void put(K key, V value) throws IOException {
+        append(PUT, key, value, keyCodec.size(key) + valueCodec.size(value));
+    }
+
+    public void remove(K key) throws IOException {
+        append(REMOVE, key, null, keyCodec.size(key));
+    }
+
+    private void append(byte op, K key, V value, int bytes) throws IOException {
+        if (buffer.remaining() < RECORD_HEADER_BYTES + bytes) {
+            flush();
+            if (buffer.capacity() < RECORD_HEADER_BYTES + bytes) {
+                buffer = ByteBuffer.allocateDirect(RECORD_HEADER_BYTES + bytes);
+            }
+        }
+        int start = buffer.position();
+        buffer.position(start + RECORD_HEADER_BYTES);
+        keyCodec.write(key, buffer);
+        if (op == PUT) valueCodec.write(value, buffer);
+        int end = buffer.position();
+        crc.reset();
+        crc.update(op);
+        crc.update(buffer.position(start + RECORD_HEADER_BYTES).limit(end));
+        buffer.limit(buffer.capacity()).position(end);
+        buffer.put(start, op).putInt(start + 1, bytes).putInt(start + 5, (int) crc.getValue());
+    }
+
+    /** Writes the buffered records to the file. */
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    /** Writes the buffered records and forces them to the storage device. */
+    public void sync() throws IOException {
+        flush();
+        channel.force(false);
+    }
+
+    /** Discards every record, buffered or written, typically right after a snapshot. */
+    public void truncate() throws IOException {
+        buffer.clear();
+        channel.truncate(0);
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Applies the records in {@code file} to {@code map} in order and returns
+     * how many there were. A missing file counts as an empty log. Replay stops
+     * at the first record that is incomplete or fails its checksum, which is
+     * what a crash in the middle of a write leaves behind, and the file is cut
+     * back to the last good record so that later appends follow it.
+     *
+     * @throws IOException if a record passes its checksum but does not decode to its stated length
+     */
+    public static <K, V> int replay(Path file, Map<K, V> map, SnapshotCodec<K> keyCodec,
+                                    SnapshotCodec<V> valueCodec) throws IOException {
+        if (!Files.exists(file)) return 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) throw new IOException("change log over 2 GB; take a snapshot instead");
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            CRC32C crc = new CRC32C();
+            int applied = 0, good = 0;
+            while (in.remaining() >= RECORD_HEADER_BYTES) {
+                int start = in.position();
+                byte op = in.get();
+                int bytes = in.getInt();
+                int checksum = in.getInt();
+                if ((op != PUT && op != REMOVE) || bytes < 0 || bytes > in.remaining()) break;
+                int payload = in.position();
+                crc.reset();
+                crc.update(op);
+                crc.update(in.limit(payload + bytes));
+                in.limit(in.capacity()).position(payload);
+                if ((int) crc.getValue() != checksum) break;
+                try {
+                    K key = keyCodec.read(in);
+                    if (op == PUT) map.put(key, valueCodec.read(in));
+                    else map.remove(key);
+                } catch (BufferUnderflowException e) {
+                    throw new IOException("corrupt change log record at " + start, e);
+                }
+                if (in.position() != payload + bytes) throw new IOException("corrupt change log record at " + start);
+                applied++;
+                good = in.position();
+            }
+            if (good < size) channel.truncate(good);
+            return applied;
+        }
+    }
+}
@@ -0,0 +1,747 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe AVL tree using the optimistic hand-over-hand scheme of Bronson
+ * et al., "A Practical Concurrent Binary Search Tree" (PPoPP 2010). Every node
+ * carries its own lock and a version number that changes whenever a rotation
+ * shrinks the key range below it. Readers take no locks: they step from parent
+ * to child, re-validating the parent's version after reading the child, and
+ * back up to the last valid node if it moved. Writers search the same way and
+ * lock only the node they attach to or unlink from, so writers in different
+ * parts of the tree neither wait for each other nor disturb readers elsewhere.
+ *
+ * <p>Rebalancing is relaxed: the thread that damages a node repairs it
+ * afterwards, walking up the tree and locking only the nodes each rotation
+ * moves, always top-down. Removing a key whose node has two
+ * children only clears its value; the node stays behind as a routing node until
+ * it has at most one child, at which point whichever thread sees it splices it
+ * out.
+ *
+ * <p>Like {@link java.util.concurrent.ConcurrentSkipListMap}, null values are
+ * rejected so that {@code get} returning null always means "absent".
+ *
+ * <p>Iteration is weakly consistent: each step looks up the successor of the
+ * last key returned, so iterators never throw
+ * {@link ConcurrentModificationException} and see every key that stays in the
+ * map for the whole traversal.
+ */
+public class ConcurrentAVLTree<K extends Comparable<K>, V> extends AbstractMap<K, V>
+        implements ConcurrentMap<K, V> {
+
+    // Version bits. An unlinked node's version is exactly UNLINKED and never
+    // changes again; otherwise SHRINKING is set for the duration of a rotation
+    // that moves part of the node's subtree out from under it, and each such
+    // rotation bumps the count above the two flag bits.
+    private static final long UNLINKED = 1L;
+    private static final long SHRINKING = 2L;
+    private static final long SHRINK_COUNT = 4L;
+
+    private static final int SPIN_COUNT = 100;
+
+    // Returned by the recursive search steps when the parent moved and the
+    // caller has to re-read its child pointer
+    private static final Object RETRY = new Object();
+
+    // Update modes
+    private static final int ALWAYS = 0;
+    private static final int IF_ABSENT = 1;
+    private static final int IF_PRESENT = 2;
+    private static final int IF_EQUAL = 3;
+
+    private static final class Node<K, V> {
+        final K key;
+        volatile V value; // null marks a routing node
+        volatile int height;
+        volatile long version;
+        volatile Node<K, V> parent, left, right;
+
+        Node(K key, V value, Node<K, V> parent) {
+            this.key = key;
+            this.value = value;
+            this.parent = parent;
+            this.height = 1;
+        }
+
+        Node<K, V> child(int dir) {
+            return dir < 0 ? left : right;
+        }
+
+        void setChild(int dir, Node<K, V> node) {
+            if (dir < 0) left = node;
+            else right = node;
+        }
+
+        /** Waits out a rotation in progress; the rotating thread holds the lock. */
+        void waitUntilShrinkCompleted(long ovl) {
+            if ((ovl & SHRINKING) == 0) return;
+            for (int i = 0; i < SPIN_COUNT; i++) {
+                if (version != ovl) return;
+                Thread.onSpinWait();
+            }
+            synchronized (this) {
+                // nothing to do, acquiring the lock means the shrink is over
+            }
+        }
+    }
+
+    // Sentinel above the real root, which is always its right child. It is
+    // never rotated, so its version never changes.
+    private final Node<K, V> rootHolder = new Node<>(null, null, null);
+    private final LongAdder size = new LongAdder();
+
+    private Set<Entry<K, V>> entrySet;
+
+    /**
+     * The one unchecked cast: narrows keys passed in as Object, and the
+     * results of the search steps, which return Object so that they can
+     * also return {@link #RETRY}. RETRY never escapes the top-level calls.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T decode(Object o) {
+        return (T) o;
+    }
+
+    private static boolean isUnlinked(long ovl) {
+        return ovl == UNLINKED;
+    }
+
+    private static boolean isShrinkingOrUnlinked(long ovl) {
+        return (ovl & (SHRINKING | UNLINKED)) != 0;
+    }
+
+    // Reads
+
+    @Override
+    public V get(Object key) {
+        if (!(key instanceof Comparable)) return null;
+        return decode(attemptGet(decode(key), rootHolder, 1, rootHolder.version));
+    }
+
+    /**
+     * Looks for key below {@code node}'s child in direction {@code dir}, where
+     * {@code nodeOVL} is the version at which the caller reached node. Returns
+     * {@link #RETRY} if node has shrunk since, so the caller re-reads its own
+     * child pointer.
+     */
+    private Object attemptGet(K key, Node<K, V> node, int dir, long nodeOVL) {
+        while (true) {
+            Node<K, V> child = node.child(dir);
+            if (child == null) {
+                // read while node was valid, so no rotation can have hidden key
+                return node.version != nodeOVL ? RETRY : null;
+            }
+            int cmp = key.compareTo(child.key);
+            if (cmp == 0) return child.value;
+            long childOVL = child.version;
+            if (isShrinkingOrUnlinked(childOVL)) {
+                child.waitUntilShrinkCompleted(childOVL);
+                if (node.version != nodeOVL) return RETRY;
+            } else if (child != node.child(dir)) {
+                // the child pointer is only protected by childOVL once re-read
+                if (node.version != nodeOVL) return RETRY;
+            } else {
+                if (node.version != nodeOVL) return RETRY;
+                // node to child is valid as of now, so node's shrinks no longer matter
+                Object result = attemptGet(key, child, cmp, childOVL);
+                if (result != RETRY) return result;
+            }
+        }
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        // removals can be counted before the insert they undo
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, size.sum()));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // Navigation, used by the weakly consistent iterator
+
+    public Entry<K, V> firstEntry() {
+        return higherOrFirst(null);
+    }
+
+    public Entry<K, V> higherEntry(K key) {
+        return higherOrFirst(key);
+    }
+
+    private Entry<K, V> higherOrFirst(K key) {
+        while (true) {
+            Node<K, V> node = decode(attemptHigher(key, rootHolder, 1, rootHolder.version));
+            if (node == null) return null;
+            V value = node.value;
+            if (value != null) return new AbstractMap.SimpleImmutableEntry<>(node.key, value);
+            // removed since it was found; carry on past it
+            key = node.key;
+        }
+    }
+
+    /**
+     * Finds the lowest live node above key (or the lowest of all if key is
+     * null) below {@code node}'s child in direction {@code dir}, validating
+     * each step as {@link #attemptGet} does.
+     */
+    private Object attemptHigher(K key, Node<K, V> node, int dir, long nodeOVL) {
+        while (true) {
+            Node<K, V> child = node.child(dir);
+            if (child == null) return node.version != nodeOVL ? RETRY : null;
+            long childOVL = child.version;
+            if (isShrinkingOrUnlinked(childOVL)) {
+                child.waitUntilShrinkCompleted(childOVL);
+                if (node.version != nodeOVL) return RETRY;
+            } else if (child != node.child(dir)) {
+                if (node.version != nodeOVL) return RETRY;
+            } else {
+                if (node.version != nodeOVL) return RETRY;
+                Object result = attemptHigherAt(key, child, childOVL);
+                if (result != RETRY) return result;
+            }
+        }
+    }
+
+    private Object attemptHigherAt(K key, Node<K, V> node, long nodeOVL) {
+        if (key == null || key.compareTo(node.key) < 0) {
+            Object result = attemptHigher(key, node, -1, nodeOVL);
+            if (result != null) return result;
+            if (node.value != null) return node;
+        }
+        // everything on the right is above key, and above a routing node too
+        return attemptHigher(key, node, 1, nodeOVL);
+    }
+
+    // Writes
+
+    @Override
+    public V put(K key, V value) {
+        Objects.requireNonNull(value);
+        return update(key, ALWAYS, null, value);
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        Objects.requireNonNull(value);
+        return update(key, IF_ABSENT, null, value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        if (!(key instanceof Comparable)) return null;
+        return update(decode(key), ALWAYS, null, null);
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        if (!(key instanceof Comparable) || value == null) return false;
+        return value.equals(update(decode(key), IF_EQUAL, value, null));
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        Objects.requireNonNull(newValue);
+        if (oldValue == null) return false;
+        return oldValue.equals(update(key, IF_EQUAL, oldValue, newValue));
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        Objects.requireNonNull(value);
+        return update(key, IF_PRESENT, null, value);
+    }
+
+    /**
+     * Removes the keys one at a time, so like the iterator it is weakly
+     * consistent: keys inserted while it runs may survive it.
+     */
+    @Override
+    public void clear() {
+        for (Entry<K, V> e = firstEntry(); e != null; e = higherEntry(e.getKey())) remove(e.getKey());
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        if (entrySet == null) entrySet = new EntrySet();
+        return entrySet;
+    }
+
+    // Internal AVL methods
+
+    private static boolean shouldUpdate(int mode, Object prev, Object expected) {
+        return switch (mode) {
+            case IF_ABSENT -> prev == null;
+            case IF_PRESENT -> prev != null;
+            case IF_EQUAL -> prev != null && prev.equals(expected);
+            default -> true;
+        };
+    }
+
+    /**
+     * Sets key's value to newValue, or removes key if newValue is null, when
+     * the current value passes {@link #shouldUpdate}. Returns the value seen
+     * under the lock, whether or not it was replaced.
+     */
+    private V update(K key, int mode, Object expected, V newValue) {
+        return decode(attemptUpdateChild(key, mode, expected, newValue, rootHolder, 1, rootHolder.version));
+    }
+
+    private Object attemptUpdate(K key, int mode, Object expected, V newValue,
+                                 Node<K, V> parent, Node<K, V> node, long nodeOVL) {
+        int cmp = key.compareTo(node.key);
+        if (cmp == 0) return attemptNodeUpdate(mode, expected, newValue, parent, node);
+        return attemptUpdateChild(key, mode, expected, newValue, node, cmp, nodeOVL);
+    }
+
+    private Object attemptUpdateChild(K key, int mode, Object expected, V newValue,
+                                      Node<K, V> node, int dir, long nodeOVL) {
+        while (true) {
+            Node<K, V> child = node.child(dir);
+            if (node.version != nodeOVL) return RETRY;
+            if (child == null) {
+                if (newValue == null) return null;
+                Node<K, V> damaged;
+                synchronized (node) {
+                    // locked, so no rotation can move node after this check
+                    if (node.version != nodeOVL) return RETRY;
+                    if (node.child(dir) != null) {
+                        // lost a race with another insert; look again
+                        continue;
+                    }
+                    if (!shouldUpdate(mode, null, expected)) return null;
+                    node.setChild(dir, new Node<>(key, newValue, node));
+                    size.increment();
+                    damaged = fixHeight(node);
+                }
+                fixHeightAndRebalance(damaged);
+                return null;
+            }
+            long childOVL = child.version;
+            if (isShrinkingOrUnlinked(childOVL)) {
+                child.waitUntilShrinkCompleted(childOVL);
+            } else if (child == node.child(dir)) {
+                if (node.version != nodeOVL) return RETRY;
+                Object result = attemptUpdate(key, mode, expected, newValue, node, child, childOVL);
+                if (result != RETRY) return result;
+            }
+        }
+    }
+
+    /** Updates node in place, or unlinks it from parent if it is a removal. */
+    private Object attemptNodeUpdate(int mode, Object expected, V newValue, Node<K, V> parent, Node<K, V> node) {
+        if (newValue == null && node.value == null) return null;
+
+        if (newValue == null && (node.left == null || node.right == null)) {
+            V prev;
+            Node<K, V> damaged;
+            synchronized (parent) {
+                if (isUnlinked(parent.version) || node.parent != parent) return RETRY;
+                synchronized (node) {
+                    prev = node.value;
+                    if (prev == null || !shouldUpdate(mode, prev, expected)) return prev;
+                    if (!attemptUnlink(parent, node)) return RETRY;
+                    size.decrement();
+                }
+                damaged = fixHeight(parent);
+            }
+            fixHeightAndRebalance(damaged);
+            return prev;
+        }
+
+        synchronized (node) {
+            if (isUnlinked(node.version)) return RETRY;
+            V prev = node.value;
+            if (!shouldUpdate(mode, prev, expected)) return prev;
+            // a child may have gone since the check above, so unlink instead
+            if (newValue == null && (node.left == null || node.right == null)) return RETRY;
+            node.value = newValue;
+            if (prev == null && newValue != null) size.increment();
+            else if (prev != null && newValue == null) size.decrement();
+            return prev;
+        }
+    }
+
+    /** Splices out node, which must have at most one child. Parent and node are locked. */
+    private boolean attemptUnlink(Node<K, V> parent, Node<K, V> node) {
+        Node<K, V> parentLeft = parent.left;
+        if (parentLeft != node && parent.right != node) return false;
+        Node<K, V> left = node.left, right = node.right;
+        if (left != null && right != null) return false;
+        Node<K, V> splice = left != null ? left : right;
+        if (parentLeft == node) parent.left = splice;
+        else parent.right = splice;
+        if (splice != null) splice.parent = parent;
+        node.version = UNLINKED;
+        node.value = null;
+        return true;
+    }
+
+    private static int height(Node<?, ?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    // What a node needs: one of these, or else the height it should have
+    private static final int UNLINK_REQUIRED = -1;
+    private static final int REBALANCE_REQUIRED = -2;
+    private static final int NOTHING_REQUIRED = -3;
+
+    /**
+     * Reads node's state without a lock. Any thread that changes a node
+     * repairs it afterwards, so a torn read is either correct or somebody
+     * else's responsibility.
+     */
+    private int nodeCondition(Node<K, V> node) {
+        Node<K, V> left = node.left, right = node.right;
+        if ((left == null || right == null) && node.value == null) return UNLINK_REQUIRED;
+        int hLeft = height(left), hRight = height(right);
+        int balance = hLeft - hRight;
+        if (balance < -1 || balance > 1) return REBALANCE_REQUIRED;
+        int repaired = 1 + Math.max(hLeft, hRight);
+        return node.height != repaired ? repaired : NOTHING_REQUIRED;
+    }
+
+    /**
+     * Repairs damage from node all the way up to the root, like
+     * {@link AVLTree}'s path rebalancing. A rotation can hand back a damaged
+     * node below the one it fixed, so stopping at the first sound node could
+     * strand damage above it.
+     */
+    private void fixHeightAndRebalance(Node<K, V> node) {
+        while (node != null && node.parent != null) {
+            // whoever unlinked it repairs from its parent up
+            if (isUnlinked(node.version)) return;
+            int condition = nodeCondition(node);
+            if (condition == NOTHING_REQUIRED) {
+                node = node.parent;
+            } else if (condition != UNLINK_REQUIRED && condition != REBALANCE_REQUIRED) {
+                synchronized (node) {
+                    node = fixHeight(node);
+                }
+            } else {
+                Node<K, V> parent = node.parent;
+                synchronized (parent) {
+                    if (!isUnlinked(parent.version) && node.parent == parent) {
+                        synchronized (node) {
+                            node = rebalance(parent, node);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Fixes the height of locked node if that is all it needs. Returns node if
+     * it needs more than that, otherwise its parent.
+     */
+    private Node<K, V> fixHeight(Node<K, V> node) {
+        int condition = nodeCondition(node);
+        switch (condition) {
+            case REBALANCE_REQUIRED, UNLINK_REQUIRED:
+                return node;
+            case NOTHING_REQUIRED:
+                return node.parent;
+            default:
+                node.height = condition;
+                return node.parent;
+        }
+    }
+
+    /** Parent and node are locked. Returns the next node to look at. */
+    private Node<K, V> rebalance(Node<K, V> parent, Node<K, V> node) {
+        Node<K, V> left = node.left, right = node.right;
+        if ((left == null || right == null) && node.value == null) {
+            return attemptUnlink(parent, node) ? fixHeight(parent) : node;
+        }
+        int hLeft = height(left), hRight = height(right);
+        int balance = hLeft - hRight;
+        if (balance > 1) return rebalanceToRight(parent, node, left, hRight);
+        if (balance < -1) return rebalanceToLeft(parent, node, right, hLeft);
+        node.height = 1 + Math.max(hLeft, hRight);
+        return fixHeight(parent);
+    }
+
+    // Rotations lock every node whose parent changes. A height fix on a node
+    // reports to the parent it sees under that node's lock, so a subtree moved
+    // without its lock could pass its damage to the parent it just left.
+    // Relocking a node already held is a no-op, which stands in for null.
+
+    private Node<K, V> rebalanceToRight(Node<K, V> parent, Node<K, V> n, Node<K, V> nL, int hR) {
+        synchronized (nL) {
+            if (nL.height - hR <= 1) return n;
+            Node<K, V> nLL = nL.left, nLR = nL.right;
+            int hLL = height(nLL);
+            // a routing node with one child is unlinked before it is rotated
+            if (hLL == 0 && nL.value == null) return nL;
+            synchronized (nLR != null ? nLR : nL) {
+                int hLR = height(nLR);
+                if (hLL >= hLR) return rotateRight(parent, n, nL, hR, hLL, nLR, hLR);
+                Node<K, V> nLRL = nLR.left, nLRR = nLR.right;
+                synchronized (nLRL != null ? nLRL : nLR) {
+                    synchronized (nLRR != null ? nLRR : nLR) {
+                        int b = hLL - height(nLRL);
+                        // nLR is itself out of balance, so fix it first
+                        if (b > 1) return nLR;
+                        if (b >= -1) {
+                            synchronized (nLL != null ? nLL : nL) {
+                                return rotateRightOverLeft(parent, n, nL, hR, nLR);
+                            }
+                        }
+                    }
+                }
+            }
+            // nL is too heavy on the right to take nLR's left subtree; rotate
+            // it first and come back for n
+            return rebalanceToLeft(n, nL, nLR, hLL);
+        }
+    }
+
+    private Node<K, V> rebalanceToLeft(Node<K, V> parent, Node<K, V> n, Node<K, V> nR, int hL) {
+        synchronized (nR) {
+            if (hL - nR.height >= -1) return n;
+            Node<K, V> nRL = nR.left, nRR = nR.right;
+            int hRR = height(nRR);
+            if (hRR == 0 && nR.value == null) return nR;
+            synchronized (nRL != null ? nRL : nR) {
+                int hRL = height(nRL);
+                if (hRR >= hRL) return rotateLeft(parent, n, hL, nR, nRL, hRL, hRR);
+                Node<K, V> nRLL = nRL.left, nRLR = nRL.right;
+                synchronized (nRLL != null ? nRLL : nRL) {
+                    synchronized (nRLR != null ? nRLR : nRL) {
+                        int b = hRR - height(nRLR);
+                        if (b > 1) return nRL;
+                        if (b >= -1) {
+                            synchronized (nRR != null ? nRR : nR) {
+                                return rotateLeftOverRight(parent, n, hL, nR, nRL);
+                            }
+                        }
+                    }
+                }
+            }
+            return rebalanceToRight(n, nR, nRL, hRR);
+        }
+    }
+
+    private Node<K, V> rotateRight(Node<K, V> parent, Node<K, V> n, Node<K, V> nL,
+                                   int hR, int hLL, Node<K, V> nLR, int hLR) {
+        long nodeOVL = n.version;
+        Node<K, V> parentLeft = parent.left;
+        n.version = nodeOVL | SHRINKING;
+
+        n.left = nLR;
+        if (nLR != null) nLR.parent = n;
+        nL.right = n;
+        n.parent = nL;
+        if (parentLeft == n) parent.left = nL;
+        else parent.right = nL;
+        nL.parent = parent;
+
+        int hN = 1 + Math.max(hLR, hR);
+        n.height = hN;
+        nL.height = 1 + Math.max(hLL, hN);
+
+        n.version = nodeOVL + SHRINK_COUNT;
+
+        // n is the deepest node that may still be damaged, and the walk from
+        // it passes nL and parent on the way up
+        int balN = hLR - hR;
+        if (balN < -1 || balN > 1) return n;
+        if ((nLR == null || hR == 0) && n.value == null) return n;
+        return nL;
+    }
+
+    private Node<K, V> rotateLeft(Node<K, V> parent, Node<K, V> n, int hL,
+                                  Node<K, V> nR, Node<K, V> nRL, int hRL, int hRR) {
+        long nodeOVL = n.version;
+        Node<K, V> parentLeft = parent.left;
+        n.version = nodeOVL | SHRINKING;
+
+        n.right = nRL;
+        if (nRL != null) nRL.parent = n;
+        nR.left = n;
+        n.parent = nR;
+        if (parentLeft == n) parent.left = nR;
+        else parent.right = nR;
+        nR.parent = parent;
+
+        int hN = 1 + Math.max(hL, hRL);
+        n.height = hN;
+        nR.height = 1 + Math.max(hN, hRR);
+
+        n.version = nodeOVL + SHRINK_COUNT;
+
+        int balN = hRL - hL;
+        if (balN < -1 || balN > 1) return n;
+        if ((nRL == null || hL == 0) && n.value == null) return n;
+        return nR;
+    }
+
+    /**
+     * Double rotation lifting nLR above nL and n. If nL is a routing node and
+     * nLR has no left child, nL would be left with only nLL, so it is spliced
+     * out as part of the rotation.
+     */
+    private Node<K, V> rotateRightOverLeft(Node<K, V> parent, Node<K, V> n, Node<K, V> nL,
+                                           int hR, Node<K, V> nLR) {
+        long nodeOVL = n.version;
+        long leftOVL = nL.version;
+        Node<K, V> parentLeft = parent.left;
+        Node<K, V> nLL = nL.left;
+        int hLL = height(nLL);
+        Node<K, V> nLRL = nLR.left;
+        Node<K, V> nLRR = nLR.right;
+        int hLRL = height(nLRL);
+        int hLRR = height(nLRR);
+        boolean unlinkL = nLRL == null && nL.value == null;
+
+        n.version = nodeOVL | SHRINKING;
+        nL.version = leftOVL | SHRINKING;
+
+        n.left = nLRR;
+        if (nLRR != null) nLRR.parent = n;
+        nLR.right = n;
+        n.parent = nLR;
+        int hL;
+        if (unlinkL) {
+            nLR.left = nLL;
+            nLL.parent = nLR;
+            hL = hLL;
+        } else {
+            nL.right = nLRL;
+            if (nLRL != null) nLRL.parent = nL;
+            nLR.left = nL;
+            nL.parent = nLR;
+            hL = 1 + Math.max(hLL, hLRL);
+            nL.height = hL;
+        }
+        if (parentLeft == n) parent.left = nLR;
+        else parent.right = nLR;
+        nLR.parent = parent;
+
+        int hN = 1 + Math.max(hLRR, hR);
+        n.height = hN;
+        nLR.height = 1 + Math.max(hL, hN);
+
+        n.version = nodeOVL + SHRINK_COUNT;
+        nL.version = unlinkL ? UNLINKED : leftOVL + SHRINK_COUNT;
+
+        // the caller checked that nL comes out sound
+        int balN = hLRR - hR;
+        if (balN < -1 || balN > 1) return n;
+        if ((nLRR == null || hR == 0) && n.value == null) return n;
+        return nLR;
+    }
+
+    private Node<K, V> rotateLeftOverRight(Node<K, V> parent, Node<K, V> n, int hL,
+                                           Node<K, V> nR, Node<K, V> nRL) {
+        long nodeOVL = n.version;
+        long rightOVL = nR.version;
+        Node<K, V> parentLeft = parent.left;
+        Node<K, V> nRR = nR.right;
+        int hRR = height(nRR);
+        Node<K, V> nRLL = nRL.left;
+        Node<K, V> nRLR = nRL.right;
+        int hRLL = height(nRLL);
+        int hRLR = height(nRLR);
+        boolean unlinkR = nRLR == null && nR.value == null;
+
+        n.version = nodeOVL | SHRINKING;
+        nR.version = rightOVL | SHRINKING;
+
+        n.right = nRLL;
+        if (nRLL != null) nRLL.parent = n;
+        nRL.left = n;
+        n.parent = nRL;
+        int hR;
+        if (unlinkR) {
+            nRL.right = nRR;
+            nRR.parent = nRL;
+            hR = hRR;
+        } else {
+            nR.left = nRLR;
+            if (nRLR != null) nRLR.parent = nR;
+            nRL.right = nR;
+            nR.parent = nRL;
+            hR = 1 + Math.max(hRLR, hRR);
+            nR.height = hR;
+        }
+        if (parentLeft == n) parent.left = nRL;
+        else parent.right = nRL;
+        nRL.parent = parent;
+
+        int hN = 1 + Math.max(hL, hRLL);
+        n.height = hN;
+        nRL.height = 1 + Math.max(hN, hR);
+
+        n.version = nodeOVL + SHRINK_COUNT;
+        nR.version = unlinkR ? UNLINKED : rightOVL + SHRINK_COUNT;
+
+        int balN = hRLL - hL;
+        if (balN < -1 || balN > 1) return n;
+        if ((nRLL == null || hL == 0) && n.value == null) return n;
+        return nRL;
+    }
+
+    // Weakly consistent views
+
+    private final class EntrySet extends AbstractSet<Entry<K, V>> {
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            return new Iterator<>() {
+                private Entry<K, V> next = firstEntry();
+                private Entry<K, V> lastReturned;
+
+                @Override
+                public boolean hasNext() {
+                    return next != null;
+                }
+
+                @Override
+                public Entry<K, V> next() {
+                    if (next == null) throw new NoSuchElementException();
+                    lastReturned = next;
+                    next = higherEntry(next.getKey());
+                    return lastReturned;
+                }
+
+                @Override
+                public void remove() {
+                    if (lastReturned == null) throw new IllegalStateException();
+                    ConcurrentAVLTree.this.remove(lastReturned.getKey());
+                    lastReturned = null;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return ConcurrentAVLTree.this.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Entry<?, ?> e)) return false;
+            V value = get(e.getKey());
+            return value != null && value.equals(e.getValue());
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!(o instanceof Entry<?, ?> e)) return false;
+            return ConcurrentAVLTree.this.remove(e.getKey(), e.getValue());
+        }
+
+        @Override
+        public void clear() {
+            ConcurrentAVLTree.this.clear();
+        }
+    }
+}
\ No newline at end of file
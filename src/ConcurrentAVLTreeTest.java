@@ -0,0 +1,135 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentAVLTreeTest {
+
+    private ConcurrentAVLTree<Integer, String> avl;
+
+    @BeforeEach
+    public void setUp() {
+        avl = new ConcurrentAVLTree<>();
+        avl.put(20, "Twenty");
+        avl.put(10, "Ten");
+        avl.put(30, "Thirty");
+        avl.put(5, "Five");
+        avl.put(25, "Twenty Five");
+    }
+
+    @Test
+    public void testPutAndGet() {
+        assertEquals("Ten", avl.get(10));
+        assertNull(avl.get(100));
+        assertEquals("Ten", avl.put(10, "Updated"));
+        assertEquals("Updated", avl.get(10));
+    }
+
+    @Test
+    public void testRemove() {
+        assertEquals("Twenty", avl.remove(20));
+        assertNull(avl.remove(20));
+        assertEquals(4, avl.size());
+    }
+
+    @Test
+    public void testConditionalUpdates() {
+        assertEquals("Ten", avl.putIfAbsent(10, "Other"));
+        assertNull(avl.putIfAbsent(15, "Fifteen"));
+        assertFalse(avl.replace(15, "Wrong", "X"));
+        assertTrue(avl.replace(15, "Fifteen", "FIFTEEN"));
+        assertFalse(avl.remove(15, "Fifteen"));
+        assertTrue(avl.remove(15, "FIFTEEN"));
+        assertThrows(NullPointerException.class, () -> avl.put(1, null));
+    }
+
+    @Test
+    public void testIterationIsSortedAndWeaklyConsistent() {
+        Iterator<Integer> it = avl.keySet().iterator();
+        assertEquals(5, it.next());
+        avl.put(27, "Twenty Seven");
+        avl.remove(25);
+        List<Integer> rest = new ArrayList<>();
+        it.forEachRemaining(rest::add);
+        assertEquals(List.of(10, 20, 27, 30), rest);
+    }
+
+    @Test
+    public void testConcurrentReadersAndWriters() throws Exception {
+        ConcurrentAVLTree<Integer, Integer> map = new ConcurrentAVLTree<>();
+        for (int i = 0; i < 10_000; i += 2) map.put(i, i);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 2; t++) {
+            int offset = t;
+            futures.add(pool.submit(() -> {
+                for (int i = 1 + 2 * offset; i < 10_000; i += 4) map.put(i, i);
+            }));
+            futures.add(pool.submit(() -> {
+                for (int round = 0; round < 5; round++) {
+                    for (int i = 0; i < 10_000; i += 2) assertEquals(i, map.get(i));
+                }
+            }));
+        }
+        for (Future<?> f : futures) f.get();
+        pool.shutdown();
+        assertEquals(10_000, map.size());
+        int expected = 0;
+        for (int key : map.keySet()) assertEquals(expected++, key);
+    }
+
+    @Test
+    public void testRemovingInnerNodesKeepsOrder() {
+        ConcurrentAVLTree<Integer, Integer> map = new ConcurrentAVLTree<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random rand = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            int key = rand.nextInt(500);
+            if (rand.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, i), map.put(key, i));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        assertEquals(new ArrayList<>(expected.entrySet()), new ArrayList<>(map.entrySet()));
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.firstEntry());
+    }
+
+    @Test
+    public void testConcurrentWriters() throws Exception {
+        // Each writer owns the keys congruent to its index, so every thread can
+        // check its own results while all of them rotate the same tree
+        int writers = 4;
+        ConcurrentAVLTree<Integer, Integer> map = new ConcurrentAVLTree<>();
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        List<Future<TreeMap<Integer, Integer>>> futures = new ArrayList<>();
+        for (int t = 0; t < writers; t++) {
+            int owner = t;
+            futures.add(pool.submit(() -> {
+                TreeMap<Integer, Integer> mine = new TreeMap<>();
+                Random rand = new Random(owner);
+                for (int i = 0; i < 50_000; i++) {
+                    int key = rand.nextInt(2_000) * writers + owner;
+                    switch (rand.nextInt(4)) {
+                        case 0 -> assertEquals(mine.remove(key), map.remove(key));
+                        case 1 -> assertEquals(mine.putIfAbsent(key, i), map.putIfAbsent(key, i));
+                        default -> assertEquals(mine.put(key, i), map.put(key, i));
+                    }
+                    assertEquals(mine.get(key), map.get(key));
+                }
+                return mine;
+            }));
+        }
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for (Future<TreeMap<Integer, Integer>> f : futures) expected.putAll(f.get());
+        pool.shutdown();
+        assertEquals(expected.size(), map.size());
+        assertEquals(new ArrayList<>(expected.entrySet()), new ArrayList<>(map.entrySet()));
+    }
+}
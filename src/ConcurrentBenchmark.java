@@ -0,0 +1,85 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+public class ConcurrentBenchmark {
+
+    private static final int KEY_RANGE = 100_000;
+    private static final long RUN_MILLIS = 1_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int[] threadCounts = {1, 2, 4, 8, 16};
+        int[] writePercents = {0, 10, 50, 100};
+
+        for (int writePercent : writePercents) {
+            // single-thread throughput per map, to show how each one scales
+            Map<String, Double> baseline = new HashMap<>();
+            for (int threads : threadCounts) {
+                if (threads > 2 * cores) continue;
+                System.out.printf("--- Threads: %d | Writes: %d%% ---%n", threads, writePercent);
+                benchmark("ConcurrentAVLTree", ConcurrentAVLTree::new, threads, writePercent, baseline);
+                benchmark("ConcurrentSkipList", ConcurrentSkipListMap::new, threads, writePercent, baseline);
+                benchmark("SynchronizedAVL", () -> Collections.synchronizedMap(new AVLTree<Integer, Integer>()),
+                        threads, writePercent, baseline);
+                System.out.println("-------------------------------------------------");
+            }
+        }
+    }
+
+    static void benchmark(String label, Supplier<Map<Integer, Integer>> factory, int threads, int writePercent,
+                          Map<String, Double> baseline) throws InterruptedException {
+        Map<Integer, Integer> map = factory.get();
+        for (int i = 0; i < KEY_RANGE; i += 2) map.put(i, i);
+
+        LongAdder reads = new LongAdder();
+        LongAdder writes = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        long[] deadline = new long[1];
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom rand = ThreadLocalRandom.current();
+                long localReads = 0, localWrites = 0, sink = 0;
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while (System.nanoTime() < deadline[0]) {
+                    for (int i = 0; i < 256; i++) {
+                        int key = rand.nextInt(KEY_RANGE);
+                        if (rand.nextInt(100) < writePercent) {
+                            if (rand.nextBoolean()) map.put(key, key);
+                            else map.remove(key);
+                            localWrites++;
+                        } else {
+                            Integer v = map.get(key);
+                            if (v != null) sink += v;
+                            localReads++;
+                        }
+                    }
+                }
+                reads.add(localReads);
+                writes.add(localWrites);
+                if (sink == Long.MIN_VALUE) System.out.println(sink);
+            });
+            workers[t].start();
+        }
+        deadline[0] = System.nanoTime() + RUN_MILLIS * 1_000_000;
+        start.countDown();
+        for (Thread worker : workers) worker.join();
+
+        double seconds = RUN_MILLIS / 1e3;
+        double total = (reads.sum() + writes.sum()) / seconds / 1e6;
+        double scaling = total / baseline.computeIfAbsent(label, l -> total);
+        System.out.printf("%s | Reads: %.2f Mops/s | Writes: %.2f Mops/s | Total: %.2f Mops/s | Scaling: %.2fx%n",
+                label,
+                reads.sum() / seconds / 1e6,
+                writes.sum() / seconds / 1e6,
+                total,
+                scaling
+        );
+    }
+}
@@ -0,0 +1,361 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * External merge sort for binary files of {@code int}s that are too large for
+ * the heap.
+ *
+ * <p>The first phase memory-maps the input one chunk at a time, radix sorts
+ * each chunk in memory and writes it out as a sorted run file. The second
+ * phase merges up to {@code fanIn} runs at a time with a loser tree, so each
+ * output element costs about log2(fanIn) comparisons. If there are more runs
+ * than {@code fanIn}, intermediate merge passes run first. Run files are read
+ * through either buffered channel reads or memory-mapped windows.
+ *
+ * <p>In pipelined mode, reading the next chunk and writing the previous run
+ * happen on background threads while the current chunk is sorted. That needs
+ * three chunk arrays instead of one, so the chunks are smaller for the same
+ * budget.
+ */
+public class ExternalSort {
+
+    private static final long MIN_BUFFER_BYTES = 64 * 1024;
+    private static final long MAX_BUFFER_BYTES = 8 * 1024 * 1024;
+    private static final int MAX_CHUNK_INTS = 1 << 28;
+
+    private final long memoryBudget;
+    private final int fanIn;
+    private final boolean pipelined;
+    private final boolean mmapRuns;
+    private final ByteOrder order;
+    private final Path tempDir;
+
+    /** Big-endian ints, buffered run readers, no pipelining, runs in the default temp directory. */
+    public ExternalSort(long memoryBudget, int fanIn) {
+        this(memoryBudget, fanIn, false, false, ByteOrder.BIG_ENDIAN, null);
+    }
+
+    /**
+     * @param memoryBudget heap bytes to use for chunk arrays and I/O buffers
+     * @param fanIn        maximum number of runs merged at once, at least 2 and at most
+     *                     {@code memoryBudget / 64 KB - 1} so that every merge buffer gets 64 KB
+     * @param pipelined    overlap input reads and run writes with sorting
+     * @param mmapRuns     read run files through memory-mapped windows instead of buffered reads
+     * @param order        byte order of the input and output files
+     * @param tempDir      directory for run files, or null for the default temp directory
+     */
+    public ExternalSort(long memoryBudget, int fanIn, boolean pipelined, boolean mmapRuns, ByteOrder order, Path tempDir) {
+        if (fanIn < 2) throw new IllegalArgumentException("fanIn must be at least 2");
+        if (memoryBudget < 16 * MIN_BUFFER_BYTES) throw new IllegalArgumentException("memory budget too small");
+        // A merge needs a buffer of at least MIN_BUFFER_BYTES per run plus one for the output
+        if (fanIn > memoryBudget / MIN_BUFFER_BYTES - 1) {
+            throw new IllegalArgumentException("fanIn too large for the memory budget: at most "
+                    + (memoryBudget / MIN_BUFFER_BYTES - 1));
+        }
+        this.memoryBudget = memoryBudget;
+        this.fanIn = fanIn;
+        this.pipelined = pipelined;
+        this.mmapRuns = mmapRuns;
+        this.order = order;
+        this.tempDir = tempDir;
+    }
+
+    /**
+     * Sorts the ints in {@code input} into {@code output}, replacing it if it exists.
+     *
+     * @throws IllegalArgumentException if the input length is not a multiple of four bytes
+     */
+    public void sort(Path input, Path output) throws IOException {
+        List<Path> runs = new ArrayList<>();
+        // Runs written by the current merge pass, so a failed pass cleans them up too
+        List<Path> merged = new ArrayList<>();
+        try {
+            createRuns(input, runs);
+            while (runs.size() > fanIn) {
+                for (int i = 0; i < runs.size(); i += fanIn) {
+                    List<Path> group = runs.subList(i, Math.min(i + fanIn, runs.size()));
+                    Path run = newRunFile();
+                    merged.add(run);
+                    merge(group, run);
+                    for (Path p : group) Files.delete(p);
+                }
+                List<Path> t = runs;
+                runs = merged;
+                merged = t;
+                merged.clear();
+            }
+            if (runs.size() == 1) {
+                Files.move(runs.get(0), output, StandardCopyOption.REPLACE_EXISTING);
+                runs.clear();
+            } else {
+                merge(runs, output);
+            }
+        } finally {
+            for (Path run : runs) Files.deleteIfExists(run);
+            for (Path run : merged) Files.deleteIfExists(run);
+        }
+    }
+
+    // Phase 1: sorted runs
+
+    private void createRuns(Path input, List<Path> runs) throws IOException {
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+            long bytes = in.size();
+            if (bytes % Integer.BYTES != 0) throw new IllegalArgumentException("input length is not a multiple of 4");
+            long total = bytes / Integer.BYTES;
+            if (total == 0) return;
+            ByteBuffer writeBuffer = ByteBuffer.allocateDirect((int) ioBufferBytes(16)).order(order);
+            // Each chunk array needs a radix sort buffer of the same size
+            int arrays = pipelined ? 4 : 2;
+            long budgetInts = (memoryBudget - writeBuffer.capacity()) / Integer.BYTES / arrays;
+            int chunkInts = (int) Math.min(Math.min(budgetInts, MAX_CHUNK_INTS), total);
+            int[] scratch = new int[chunkInts];
+            if (pipelined) {
+                createRunsPipelined(in, total, chunkInts, scratch, writeBuffer, runs);
+                return;
+            }
+            int[] chunk = new int[chunkInts];
+            for (long pos = 0; pos < total; pos += chunkInts) {
+                int n = readChunk(in, pos, chunk, (int) Math.min(chunkInts, total - pos));
+                SortingAlgorithms.radixSort(chunk, 0, n - 1, scratch);
+                Path run = newRunFile();
+                runs.add(run);
+                writeRun(run, chunk, n, writeBuffer);
+            }
+        }
+    }
+
+    /**
+     * Rotates three chunk arrays: while chunk i is sorted, chunk i+1 is read
+     * and run i-1 is written. Run i-1 must finish before run i is submitted,
+     * so chunk i-2's array is always free for the next read.
+     */
+    private void createRunsPipelined(FileChannel in, long total, int chunkInts, int[] scratch,
+                                     ByteBuffer writeBuffer, List<Path> runs) throws IOException {
+        int[][] chunks = {new int[chunkInts], new int[chunkInts], new int[chunkInts]};
+        ExecutorService io = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> read = io.submit(() -> readChunk(in, 0, chunks[0], (int) Math.min(chunkInts, total)));
+            Future<?> write = null;
+            int i = 0;
+            for (long pos = 0; pos < total; pos += chunkInts, i++) {
+                int[] chunk = chunks[i % 3];
+                int n = await(read);
+                long next = pos + chunkInts;
+                if (next < total) {
+                    int[] target = chunks[(i + 1) % 3];
+                    read = io.submit(() -> readChunk(in, next, target, (int) Math.min(chunkInts, total - next)));
+                }
+                SortingAlgorithms.radixSort(chunk, 0, n - 1, scratch);
+                if (write != null) await(write);
+                Path run = newRunFile();
+                runs.add(run);
+                write = io.submit(() -> {
+                    writeRun(run, chunk, n, writeBuffer);
+                    return null;
+                });
+            }
+            if (write != null) await(write);
+        } finally {
+            io.shutdownNow();
+        }
+    }
+
+    private int readChunk(FileChannel in, long pos, int[] chunk, int n) throws IOException {
+        MappedByteBuffer map = in.map(FileChannel.MapMode.READ_ONLY, pos * Integer.BYTES, (long) n * Integer.BYTES);
+        map.order(order).asIntBuffer().get(chunk, 0, n);
+        return n;
+    }
+
+    private void writeRun(Path run, int[] chunk, int n, ByteBuffer buffer) throws IOException {
+        try (RunWriter out = new RunWriter(run, buffer)) {
+            out.write(chunk, n);
+        }
+    }
+
+    // Phase 2: k-way merge
+
+    private void merge(List<Path> runs, Path output) throws IOException {
+        long bufferBytes = ioBufferBytes(runs.size() + 1);
+        RunReader[] readers = new RunReader[runs.size()];
+        try (RunWriter out = new RunWriter(output, ByteBuffer.allocateDirect((int) bufferBytes).order(order))) {
+            if (readers.length == 0) return;
+            for (int i = 0; i < readers.length; i++) readers[i] = new RunReader(runs.get(i), bufferBytes);
+            LoserTree tree = new LoserTree(readers);
+            for (long key = tree.peek(); key != LoserTree.EXHAUSTED; key = tree.next()) out.write((int) key);
+        } finally {
+            for (RunReader reader : readers) {
+                if (reader != null) reader.close();
+            }
+        }
+    }
+
+    // Splits the part of the budget not spent on chunk arrays between the merge buffers
+    private long ioBufferBytes(int buffers) {
+        long bytes = Math.min(MAX_BUFFER_BYTES, Math.max(MIN_BUFFER_BYTES, memoryBudget / buffers));
+        return bytes & ~(Integer.BYTES - 1L);
+    }
+
+    private Path newRunFile() throws IOException {
+        return tempDir == null ? Files.createTempFile("run", ".bin") : Files.createTempFile(tempDir, "run", ".bin");
+    }
+
+    private static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Tournament tree over the run heads. Each internal node keeps the loser
+     * of the match played there and {@code tree[0]} keeps the overall winner,
+     * so replacing the winner replays only its path to the root: one
+     * comparison per level instead of the two a binary heap needs.
+     */
+    private static final class LoserTree {
+        static final long EXHAUSTED = Long.MAX_VALUE;
+
+        private final RunReader[] runs;
+        private final long[] keys;
+        private final int[] tree;
+
+        LoserTree(RunReader[] runs) throws IOException {
+            int k = runs.length;
+            this.runs = runs;
+            this.keys = new long[k];
+            this.tree = new int[k];
+            Arrays.fill(tree, -1);
+            for (int i = 0; i < k; i++) {
+                keys[i] = runs[i].next();
+                replay(i);
+            }
+        }
+
+        long peek() {
+            return keys[tree[0]];
+        }
+
+        /** Advances the winning run and returns the new smallest head. */
+        long next() throws IOException {
+            int winner = tree[0];
+            keys[winner] = runs[winner].next();
+            replay(winner);
+            return keys[tree[0]];
+        }
+
+        // While the tree is being built, an empty node just keeps the first
+        // contender and stops; the second one to arrive plays the match.
+        private void replay(int s) {
+            for (int t = (s + keys.length) >> 1; t > 0; t >>= 1) {
+                if (tree[t] == -1) {
+                    tree[t] = s;
+                    return;
+                }
+                if (keys[tree[t]] < keys[s]) {
+                    int loser = s;
+                    s = tree[t];
+                    tree[t] = loser;
+                }
+            }
+            tree[0] = s;
+        }
+    }
+
+    /** Sequential reader over a run file, either buffered or through mapped windows. */
+    private final class RunReader implements Closeable {
+        private final FileChannel channel;
+        private final long size;
+        private final ByteBuffer buffer;
+        private final long window;
+        private IntBuffer ints = IntBuffer.allocate(0);
+        private long position;
+
+        RunReader(Path run, long bufferBytes) throws IOException {
+            channel = FileChannel.open(run, StandardOpenOption.READ);
+            size = channel.size();
+            window = bufferBytes;
+            buffer = mmapRuns ? null : ByteBuffer.allocateDirect((int) bufferBytes).order(order);
+        }
+
+        /** Returns the next int, or {@link LoserTree#EXHAUSTED} at the end of the run. */
+        long next() throws IOException {
+            if (!ints.hasRemaining() && !refill()) return LoserTree.EXHAUSTED;
+            return ints.get();
+        }
+
+        private boolean refill() throws IOException {
+            if (position >= size) return false;
+            long length = Math.min(window, size - position);
+            if (mmapRuns) {
+                ints = channel.map(FileChannel.MapMode.READ_ONLY, position, length).order(order).asIntBuffer();
+            } else {
+                buffer.clear().limit((int) length);
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, position + buffer.position()) < 0) throw new EOFException();
+                }
+                ints = buffer.flip().asIntBuffer();
+            }
+            position += length;
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    private static final class RunWriter implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private final IntBuffer ints;
+
+        RunWriter(Path path, ByteBuffer buffer) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.buffer = buffer;
+            this.ints = buffer.clear().asIntBuffer();
+        }
+
+        void write(int value) throws IOException {
+            if (!ints.hasRemaining()) flush();
+            ints.put(value);
+        }
+
+        void write(int[] values, int n) throws IOException {
+            for (int off = 0; off < n; ) {
+                if (!ints.hasRemaining()) flush();
+                int len = Math.min(ints.remaining(), n - off);
+                ints.put(values, off, len);
+                off += len;
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.limit(ints.position() * Integer.BYTES).position(0);
+            while (buffer.hasRemaining()) channel.write(buffer);
+            buffer.clear();
+            ints.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
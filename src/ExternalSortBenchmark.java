@@ -0,0 +1,97 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Generates a file of random ints, sorts it with {@link ExternalSort} in each
+ * mode, and checks that every output is sorted and has the same length and
+ * checksum as the input.
+ *
+ * <p>Arguments: input size in MB (default 1024), memory budget in MB (default
+ * 64), fan-in (default 64) and an optional temp directory. Run with a heap a
+ * little larger than the budget, e.g. {@code -Xmx256m}.
+ */
+public class ExternalSortBenchmark {
+
+    private static final long SEED = 42;
+    private static final int IO_BUFFER = 1 << 20;
+
+    public static void main(String[] args) throws IOException {
+        long sizeMb = args.length > 0 ? Long.parseLong(args[0]) : 1024;
+        long budgetMb = args.length > 1 ? Long.parseLong(args[1]) : 64;
+        int fanIn = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        Path dir = args.length > 3 ? Paths.get(args[3]) : Files.createTempDirectory("extsort");
+
+        Path input = dir.resolve("input.bin");
+        Path output = dir.resolve("output.bin");
+        try {
+            long start = System.nanoTime();
+            long checksum = generate(input, sizeMb * 1024 * 1024 / Integer.BYTES);
+            System.out.printf("--- Input: %d MB | Budget: %d MB | Fan-in: %d | generated in %.2f s ---%n",
+                    sizeMb, budgetMb, fanIn, (System.nanoTime() - start) / 1e9);
+
+            for (boolean pipelined : new boolean[]{false, true}) {
+                for (boolean mmapRuns : new boolean[]{false, true}) {
+                    ExternalSort sorter = new ExternalSort(budgetMb * 1024 * 1024, fanIn, pipelined, mmapRuns,
+                            ByteOrder.BIG_ENDIAN, dir);
+                    start = System.nanoTime();
+                    sorter.sort(input, output);
+                    double seconds = (System.nanoTime() - start) / 1e9;
+                    verify(output, Files.size(input) / Integer.BYTES, checksum);
+                    System.out.printf("Pipelined: %-5b | MmapRuns: %-5b | %.2f s | %.2f MB/s%n",
+                            pipelined, mmapRuns, seconds, sizeMb / seconds);
+                }
+            }
+            System.out.println("-------------------------------------------------");
+        } finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(output);
+            if (args.length <= 3) Files.deleteIfExists(dir);
+        }
+    }
+
+    /** Writes {@code count} random ints and returns their sum. */
+    static long generate(Path path, long count) throws IOException {
+        Random rand = new Random(SEED);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(IO_BUFFER);
+        long sum = 0;
+        try (FileChannel out = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (long written = 0; written < count; ) {
+                buffer.clear();
+                while (buffer.remaining() >= Integer.BYTES && written < count) {
+                    int x = rand.nextInt();
+                    buffer.putInt(x);
+                    sum += x;
+                    written++;
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) out.write(buffer);
+            }
+        }
+        return sum;
+    }
+
+    static void verify(Path path, long count, long checksum) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(IO_BUFFER);
+        long seen = 0, sum = 0;
+        int prev = Integer.MIN_VALUE;
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (in.read(buffer) >= 0) {
+                buffer.flip();
+                while (buffer.remaining() >= Integer.BYTES) {
+                    int x = buffer.getInt();
+                    if (x < prev) throw new AssertionError("not sorted at " + seen);
+                    prev = x;
+                    sum += x;
+                    seen++;
+                }
+                buffer.compact();
+            }
+            if (buffer.position() != 0) throw new AssertionError("partial int in output");
+        }
+        if (seen != count || sum != checksum) throw new AssertionError("output does not match input");
+    }
+}
@@ -0,0 +1,129 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExternalSortTest {
+
+    // The smallest budget the sorter accepts
+    private static final long BUDGET = 1024 * 1024;
+
+    @TempDir
+    Path dir;
+    private Path runDir;
+    private Path input;
+    private Path output;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        runDir = Files.createDirectory(dir.resolve("runs"));
+        input = dir.resolve("input.bin");
+        output = dir.resolve("output.bin");
+    }
+
+    private static void write(Path path, int[] values, ByteOrder order) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(values.length * Integer.BYTES).order(order);
+        bytes.asIntBuffer().put(values);
+        Files.write(path, bytes.array());
+    }
+
+    private static int[] read(Path path, ByteOrder order) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(path)).order(order);
+        int[] values = new int[bytes.remaining() / Integer.BYTES];
+        bytes.asIntBuffer().get(values);
+        return values;
+    }
+
+    private static int[] randomInts(int n, long seed) {
+        Random rand = new Random(seed);
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) values[i] = rand.nextInt();
+        if (n > 2) {
+            values[0] = Integer.MAX_VALUE;
+            values[n - 1] = Integer.MIN_VALUE;
+        }
+        return values;
+    }
+
+    private void assertRoundTrip(int[] values, ExternalSort sorter, ByteOrder order) throws IOException {
+        write(input, values, order);
+        sorter.sort(input, output);
+        int[] expected = values.clone();
+        Arrays.sort(expected);
+        assertArrayEquals(expected, read(output, order));
+        try (var runs = Files.list(runDir)) {
+            assertEquals(0L, runs.count(), "run files left behind");
+        }
+    }
+
+    @Test
+    public void testRoundTripInEveryMode() throws IOException {
+        // About 17 runs buffered or 34 pipelined from 8 MB at a 1 MB budget; a
+        // fan-in of 3 forces several intermediate merge passes in both cases
+        int[] values = randomInts(2_000_000, 1);
+        for (boolean pipelined : new boolean[]{false, true}) {
+            for (boolean mmapRuns : new boolean[]{false, true}) {
+                ExternalSort sorter = new ExternalSort(BUDGET, 3, pipelined, mmapRuns, ByteOrder.BIG_ENDIAN, runDir);
+                assertRoundTrip(values, sorter, ByteOrder.BIG_ENDIAN);
+            }
+        }
+    }
+
+    @Test
+    public void testSingleMergePass() throws IOException {
+        ExternalSort sorter = new ExternalSort(BUDGET, 15, false, true, ByteOrder.BIG_ENDIAN, runDir);
+        assertRoundTrip(randomInts(1_000_000, 2), sorter, ByteOrder.BIG_ENDIAN);
+    }
+
+    @Test
+    public void testLittleEndianWithDuplicates() throws IOException {
+        int[] values = new int[600_000];
+        Random rand = new Random(3);
+        for (int i = 0; i < values.length; i++) values[i] = rand.nextInt(10) - 5;
+        ExternalSort sorter = new ExternalSort(BUDGET, 2, true, false, ByteOrder.LITTLE_ENDIAN, runDir);
+        assertRoundTrip(values, sorter, ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Test
+    public void testSmallAndEmptyInputs() throws IOException {
+        ExternalSort sorter = new ExternalSort(BUDGET, 2, false, false, ByteOrder.BIG_ENDIAN, runDir);
+        assertRoundTrip(new int[0], sorter, ByteOrder.BIG_ENDIAN);
+        assertRoundTrip(new int[]{3, -1, 2}, sorter, ByteOrder.BIG_ENDIAN);
+    }
+
+    @Test
+    public void testRejectsPartialInts() throws IOException {
+        Files.write(input, new byte[]{1, 2, 3, 4, 5});
+        ExternalSort sorter = new ExternalSort(BUDGET, 2);
+        assertThrows(IllegalArgumentException.class, () -> sorter.sort(input, output));
+    }
+
+    @Test
+    public void testRejectsFanInBeyondBudget() {
+        // 1 MB holds sixteen 64 KB merge buffers: fifteen inputs and the output
+        assertDoesNotThrow(() -> new ExternalSort(BUDGET, 15));
+        assertThrows(IllegalArgumentException.class, () -> new ExternalSort(BUDGET, 16));
+        assertThrows(IllegalArgumentException.class, () -> new ExternalSort(BUDGET, 1));
+        assertThrows(IllegalArgumentException.class, () -> new ExternalSort(BUDGET / 2, 2));
+    }
+
+    @Test
+    public void testFailedMergeDeletesRuns() throws IOException {
+        write(input, randomInts(1_000_000, 4), ByteOrder.BIG_ENDIAN);
+        // A non-empty directory cannot be opened as the output file
+        Files.createDirectory(output);
+        Files.createFile(output.resolve("blocker"));
+        ExternalSort sorter = new ExternalSort(BUDGET, 3, false, false, ByteOrder.BIG_ENDIAN, runDir);
+        assertThrows(IOException.class, () -> sorter.sort(input, output));
+        try (var runs = Files.list(runDir)) {
+            assertEquals(0L, runs.count(), "run files left behind");
+        }
+    }
+}
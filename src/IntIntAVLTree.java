@@ -0,0 +1,395 @@
+import java.util.*;
+
+/**
+ * AVL tree mapping {@code int} keys to {@code int} values without boxing.
+ * Mirrors the core {@link AVLTree} operations; lookups that find nothing return
+ * the configured no-entry key or value instead of {@code null}.
+ */
+public class IntIntAVLTree {
+
+    private static class Node {
+        final int key;
+        int value;
+        int height;
+        Node left, right;
+
+        Node(int key, int value) {
+            this.key = key;
+            this.value = value;
+            this.height = 1;
+        }
+    }
+
+    /** Receives entries in ascending key order from {@link #forEach}. */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(int key, int value);
+    }
+
+    private static final int MAX_HEIGHT = 64;
+
+    private final int noEntryKey;
+    private final int noEntryValue;
+    private Node root;
+    private int size;
+    private int modCount;
+    private final Node[] path = new Node[MAX_HEIGHT];
+
+    public IntIntAVLTree() {
+        this(0, 0);
+    }
+
+    public IntIntAVLTree(int noEntryKey, int noEntryValue) {
+        this.noEntryKey = noEntryKey;
+        this.noEntryValue = noEntryValue;
+    }
+
+    public int getNoEntryKey() {
+        return noEntryKey;
+    }
+
+    public int getNoEntryValue() {
+        return noEntryValue;
+    }
+
+    /** Associates {@code value} with {@code key}, returning the previous value or the no-entry value. */
+    public int put(int key, int value) {
+        Node node = root;
+        if (node == null) {
+            root = new Node(key, value);
+            size++;
+            modCount++;
+            return noEntryValue;
+        }
+        int depth = 0;
+        while (true) {
+            if (key == node.key) {
+                int old = node.value;
+                node.value = value;
+                clearPath(depth);
+                return old;
+            }
+            path[depth++] = node;
+            Node next = key < node.key ? node.left : node.right;
+            if (next == null) {
+                if (key < node.key) node.left = new Node(key, value);
+                else node.right = new Node(key, value);
+                break;
+            }
+            node = next;
+        }
+        size++;
+        modCount++;
+        rebalancePath(depth);
+        return noEntryValue;
+    }
+
+    public int get(int key) {
+        Node node = getNode(key);
+        return node == null ? noEntryValue : node.value;
+    }
+
+    public int getOrDefault(int key, int defaultValue) {
+        Node node = getNode(key);
+        return node == null ? defaultValue : node.value;
+    }
+
+    public boolean containsKey(int key) {
+        return getNode(key) != null;
+    }
+
+    /** Removes {@code key}, returning its value or the no-entry value if it was absent. */
+    public int remove(int key) {
+        Node node = root;
+        int depth = 0;
+        while (node != null && key != node.key) {
+            path[depth++] = node;
+            node = key < node.key ? node.left : node.right;
+        }
+        if (node == null) {
+            clearPath(depth);
+            return noEntryValue;
+        }
+        Node parent = depth == 0 ? null : path[depth - 1];
+        Node replacement;
+        if (node.left == null || node.right == null) {
+            replacement = node.left != null ? node.left : node.right;
+        } else {
+            int slot = depth++;
+            Node successorParent = node, successor = node.right;
+            while (successor.left != null) {
+                path[depth++] = successor;
+                successorParent = successor;
+                successor = successor.left;
+            }
+            if (successorParent != node) {
+                successorParent.left = successor.right;
+                successor.right = node.right;
+            }
+            successor.left = node.left;
+            path[slot] = successor;
+            replacement = successor;
+        }
+        replaceChild(parent, node, replacement);
+        node.left = node.right = null;
+        size--;
+        modCount++;
+        rebalancePath(depth);
+        return node.value;
+    }
+
+    public void clear() {
+        root = null;
+        size = 0;
+        modCount++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Navigation
+
+    public int firstKey() {
+        if (root == null) throw new NoSuchElementException();
+        Node node = root;
+        while (node.left != null) node = node.left;
+        return node.key;
+    }
+
+    public int lastKey() {
+        if (root == null) throw new NoSuchElementException();
+        Node node = root;
+        while (node.right != null) node = node.right;
+        return node.key;
+    }
+
+    /** Returns the least key {@code >= key}, or the no-entry key if there is none. */
+    public int ceilingKey(int key) {
+        Node node = root, best = null;
+        while (node != null) {
+            if (key == node.key) return key;
+            if (key < node.key) {
+                best = node;
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return best == null ? noEntryKey : best.key;
+    }
+
+    /** Returns the greatest key {@code <= key}, or the no-entry key if there is none. */
+    public int floorKey(int key) {
+        Node node = root, best = null;
+        while (node != null) {
+            if (key == node.key) return key;
+            if (key > node.key) {
+                best = node;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return best == null ? noEntryKey : best.key;
+    }
+
+    /** Returns the least key {@code > key}, or the no-entry key if there is none. */
+    public int higherKey(int key) {
+        Node node = root, best = null;
+        while (node != null) {
+            if (key < node.key) {
+                best = node;
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return best == null ? noEntryKey : best.key;
+    }
+
+    /** Returns the greatest key {@code < key}, or the no-entry key if there is none. */
+    public int lowerKey(int key) {
+        Node node = root, best = null;
+        while (node != null) {
+            if (key > node.key) {
+                best = node;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return best == null ? noEntryKey : best.key;
+    }
+
+    // Iteration
+
+    public PrimitiveIterator.OfInt keyIterator() {
+        return new NodeIterator() {
+            @Override
+            public int nextInt() {
+                return nextNode().key;
+            }
+        };
+    }
+
+    public PrimitiveIterator.OfInt valueIterator() {
+        return new NodeIterator() {
+            @Override
+            public int nextInt() {
+                return nextNode().value;
+            }
+        };
+    }
+
+    public void forEach(EntryConsumer action) {
+        int expectedModCount = modCount;
+        Node[] stack = new Node[MAX_HEIGHT];
+        int top = 0;
+        Node node = root;
+        while (node != null || top > 0) {
+            while (node != null) {
+                stack[top++] = node;
+                node = node.left;
+            }
+            node = stack[--top];
+            action.accept(node.key, node.value);
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            node = node.right;
+        }
+    }
+
+    private abstract class NodeIterator implements PrimitiveIterator.OfInt {
+        private final Node[] stack = new Node[MAX_HEIGHT];
+        private int top;
+        private Node lastReturned;
+        private int expectedModCount = modCount;
+
+        NodeIterator() {
+            pushLeft(root);
+        }
+
+        private void pushLeft(Node node) {
+            while (node != null) {
+                stack[top++] = node;
+                node = node.left;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return top > 0;
+        }
+
+        Node nextNode() {
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            if (top == 0) throw new NoSuchElementException();
+            Node node = stack[--top];
+            pushLeft(node.right);
+            lastReturned = node;
+            return node;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) throw new IllegalStateException();
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            int key = lastReturned.key;
+            IntIntAVLTree.this.remove(key);
+            lastReturned = null;
+            expectedModCount = modCount;
+            top = 0;
+            Node node = root;
+            while (node != null) {
+                if (key < node.key) {
+                    stack[top++] = node;
+                    node = node.left;
+                } else {
+                    node = node.right;
+                }
+            }
+        }
+    }
+
+    // Internal AVL methods
+
+    private Node getNode(int key) {
+        Node node = root;
+        while (node != null) {
+            if (key < node.key) node = node.left;
+            else if (key > node.key) node = node.right;
+            else return node;
+        }
+        return null;
+    }
+
+    private int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private int balanceFactor(Node node) {
+        return node == null ? 0 : height(node.left) - height(node.right);
+    }
+
+    private void updateHeight(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+    }
+
+    private Node rotateRight(Node y) {
+        Node x = y.left;
+        y.left = x.right;
+        x.right = y;
+        updateHeight(y);
+        updateHeight(x);
+        return x;
+    }
+
+    private Node rotateLeft(Node x) {
+        Node y = x.right;
+        x.right = y.left;
+        y.left = x;
+        updateHeight(x);
+        updateHeight(y);
+        return y;
+    }
+
+    private Node rebalance(Node node) {
+        updateHeight(node);
+        int balance = balanceFactor(node);
+
+        if (balance > 1) {
+            if (balanceFactor(node.left) < 0) node.left = rotateLeft(node.left);
+            return rotateRight(node);
+        }
+
+        if (balance < -1) {
+            if (balanceFactor(node.right) > 0) node.right = rotateRight(node.right);
+            return rotateLeft(node);
+        }
+
+        return node;
+    }
+
+    private void rebalancePath(int depth) {
+        for (int i = depth - 1; i >= 0; i--) {
+            Node node = path[i];
+            path[i] = null;
+            Node balanced = rebalance(node);
+            if (balanced != node) replaceChild(i == 0 ? null : path[i - 1], node, balanced);
+        }
+    }
+
+    private void clearPath(int depth) {
+        for (int i = 0; i < depth; i++) path[i] = null;
+    }
+
+    private void replaceChild(Node parent, Node child, Node replacement) {
+        if (parent == null) root = replacement;
+        else if (parent.left == child) parent.left = replacement;
+        else parent.right = replacement;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,89 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntIntAVLTreeTest {
+
+    private IntIntAVLTree avl;
+
+    @BeforeEach
+    public void setUp() {
+        avl = new IntIntAVLTree(Integer.MIN_VALUE, -1);
+        avl.put(20, 200);
+        avl.put(10, 100);
+        avl.put(30, 300);
+        avl.put(5, 50);
+        avl.put(25, 250);
+    }
+
+    @Test
+    public void testPutAndGet() {
+        assertEquals(100, avl.get(10));
+        assertEquals(300, avl.get(30));
+        assertEquals(-1, avl.get(100));
+        assertEquals(7, avl.getOrDefault(100, 7));
+    }
+
+    @Test
+    public void testPutReturnsPreviousValue() {
+        assertEquals(100, avl.put(10, 101));
+        assertEquals(101, avl.get(10));
+        assertEquals(-1, avl.put(11, 110));
+        assertEquals(6, avl.size());
+    }
+
+    @Test
+    public void testRemove() {
+        assertEquals(200, avl.remove(20));
+        assertFalse(avl.containsKey(20));
+        assertEquals(-1, avl.remove(20));
+        assertEquals(4, avl.size());
+    }
+
+    @Test
+    public void testNavigation() {
+        assertEquals(5, avl.firstKey());
+        assertEquals(30, avl.lastKey());
+        assertEquals(10, avl.ceilingKey(9));
+        assertEquals(5, avl.floorKey(7));
+        assertEquals(25, avl.higherKey(20));
+        assertEquals(10, avl.lowerKey(20));
+        assertEquals(Integer.MIN_VALUE, avl.higherKey(30));
+    }
+
+    @Test
+    public void testKeyIteratorIsSorted() {
+        List<Integer> keys = new ArrayList<>();
+        avl.keyIterator().forEachRemaining((int k) -> keys.add(k));
+        assertEquals(List.of(5, 10, 20, 25, 30), keys);
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        PrimitiveIterator.OfInt it = avl.keyIterator();
+        while (it.hasNext()) {
+            if (it.nextInt() % 10 == 0) it.remove();
+        }
+        List<Integer> values = new ArrayList<>();
+        avl.forEach((k, v) -> values.add(v));
+        assertEquals(List.of(50, 250), values);
+    }
+
+    @Test
+    public void testIteratorFailsFast() {
+        PrimitiveIterator.OfInt it = avl.valueIterator();
+        it.nextInt();
+        avl.put(99, 990);
+        assertThrows(ConcurrentModificationException.class, it::nextInt);
+    }
+
+    @Test
+    public void testClear() {
+        avl.clear();
+        assertTrue(avl.isEmpty());
+        assertThrows(NoSuchElementException.class, avl::firstKey);
+    }
+}
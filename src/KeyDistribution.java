@@ -0,0 +1,127 @@
+import java.util.*;
+
+/**
+ * Chooses which existing key a workload operation touches. Keys are the dense
+ * indices {@code [0, itemCount)}; {@code itemCount} grows as the workload
+ * inserts, and every distribution follows it.
+ */
+public interface KeyDistribution {
+
+    /** Returns the next key index, in {@code [0, itemCount)}. */
+    long next(Random rand, long itemCount);
+
+    static KeyDistribution uniform() {
+        return (rand, itemCount) -> (long) (rand.nextDouble() * itemCount);
+    }
+
+    /** Cycles through the keys in ascending order, like a sequential-append log being read back. */
+    static KeyDistribution sequential() {
+        return new KeyDistribution() {
+            private long next;
+
+            @Override
+            public long next(Random rand, long itemCount) {
+                if (next >= itemCount) next = 0;
+                return next++;
+            }
+        };
+    }
+
+    /**
+     * {@code hotOpFraction} of the operations go uniformly to the first
+     * {@code hotSetFraction} of the keys, the rest uniformly to the others.
+     * {@code hotspot(0.2, 0.8)} is the classic 80/20 split.
+     */
+    static KeyDistribution hotspot(double hotSetFraction, double hotOpFraction) {
+        return (rand, itemCount) -> {
+            long hot = Math.max(1, (long) (itemCount * hotSetFraction));
+            if (hot >= itemCount || rand.nextDouble() < hotOpFraction) return (long) (rand.nextDouble() * hot);
+            return hot + (long) (rand.nextDouble() * (itemCount - hot));
+        };
+    }
+
+    /** Zipfian over key rank, so key 0 is the most popular. */
+    static KeyDistribution zipfian() {
+        return new Zipfian(Zipfian.DEFAULT_THETA);
+    }
+
+    /**
+     * Zipfian popularity with the popular keys hashed across the key space, so
+     * the hot set is not one contiguous run of neighbouring keys.
+     */
+    static KeyDistribution scrambledZipfian() {
+        Zipfian zipfian = new Zipfian(Zipfian.DEFAULT_THETA);
+        return (rand, itemCount) -> Math.floorMod(fnv64(zipfian.next(rand, itemCount)), itemCount);
+    }
+
+    /** Zipfian over recency: the most recently inserted keys are the most popular. */
+    static KeyDistribution latest() {
+        Zipfian zipfian = new Zipfian(Zipfian.DEFAULT_THETA);
+        return (rand, itemCount) -> itemCount - 1 - zipfian.next(rand, itemCount);
+    }
+
+    static KeyDistribution named(String name) {
+        return switch (name) {
+            case "uniform" -> uniform();
+            case "sequential" -> sequential();
+            case "hotspot" -> hotspot(0.2, 0.8);
+            case "zipfian" -> scrambledZipfian();
+            case "latest" -> latest();
+            default -> throw new IllegalArgumentException("unknown distribution: " + name);
+        };
+    }
+
+    private static long fnv64(long value) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < 8; i++) {
+            hash ^= value & 0xFF;
+            hash *= 0x100000001B3L;
+            value >>>= 8;
+        }
+        return hash;
+    }
+
+    /**
+     * Gray et al.'s rejection-free Zipfian generator ("Quickly generating
+     * billion-record synthetic databases"), as used by YCSB. The zeta constant
+     * is extended incrementally as the key space grows, which costs O(1)
+     * amortized per insert.
+     */
+    final class Zipfian implements KeyDistribution {
+        static final double DEFAULT_THETA = 0.99;
+
+        private final double theta;
+        private final double alpha;
+        private final double zeta2;
+        private long items;
+        private double zetan;
+        private double eta;
+
+        Zipfian(double theta) {
+            this.theta = theta;
+            this.alpha = 1.0 / (1.0 - theta);
+            this.zeta2 = 1.0 + Math.pow(0.5, theta);
+        }
+
+        @Override
+        public long next(Random rand, long itemCount) {
+            if (itemCount != items) resize(itemCount);
+            double u = rand.nextDouble();
+            double uz = u * zetan;
+            if (uz < 1.0) return 0;
+            if (uz < zeta2) return 1;
+            long rank = (long) (items * Math.pow(eta * u - eta + 1.0, alpha));
+            return Math.min(rank, items - 1);
+        }
+
+        private void resize(long itemCount) {
+            if (itemCount < items) {
+                items = 0;
+                zetan = 0;
+            }
+            for (long i = items + 1; i <= itemCount; i++) zetan += 1.0 / Math.pow(i, theta);
+            items = itemCount;
+            eta = (1.0 - Math.pow(2.0 / items, 1.0 - theta)) / (1.0 - zeta2 / zetan);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+import java.util.*;
+
+/**
+ * Fixed-precision latency histogram in the style of HdrHistogram. Values are
+ * bucketed by power of two, and each power of two is split into 64 linear
+ * sub-buckets, so any recorded value is reproduced to within 1/64 (about 1.6%)
+ * whatever its magnitude. Recording is a shift and an array increment, cheap
+ * enough to time every operation.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT >> 1;
+
+    private final long[] counts = new long[bucketIndex(Long.MAX_VALUE) + 1];
+    private long totalCount;
+    private long max;
+    private double sum;
+
+    /** Records one value; negative values count as zero. */
+    public void record(long value) {
+        if (value < 0) value = 0;
+        counts[bucketIndex(value)]++;
+        totalCount++;
+        sum += value;
+        if (value > max) max = value;
+    }
+
+    public long count() {
+        return totalCount;
+    }
+
+    public long max() {
+        return max;
+    }
+
+    public double mean() {
+        return totalCount == 0 ? 0 : sum / totalCount;
+    }
+
+    /**
+     * Returns the value at the given percentile (0 to 100], reported as the
+     * highest value that falls into the same bucket.
+     */
+    public long percentile(double percentile) {
+        if (totalCount == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(highestEquivalentValue(i), max);
+        }
+        return max;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        max = 0;
+        sum = 0;
+    }
+
+    // Values below SUB_BUCKET_COUNT map to themselves; above that, a value with
+    // its top bit at position m keeps its leading SUB_BUCKET_BITS bits and the
+    // dropped low bits select the bucket.
+    private static int bucketIndex(long value) {
+        int magnitude = 63 - Long.numberOfLeadingZeros(value | 1);
+        if (magnitude < SUB_BUCKET_BITS) return (int) value;
+        int shift = magnitude - SUB_BUCKET_BITS + 1;
+        return shift * SUB_BUCKET_HALF + (int) (value >>> shift);
+    }
+
+    private static long highestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT) return index;
+        int shift = index / SUB_BUCKET_HALF - 1;
+        long sub = index - (long) shift * SUB_BUCKET_HALF;
+        return ((sub + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,360 @@
+import java.util.*;
+
+/**
+ * Treap mapping {@code long} keys to {@code long} values without boxing.
+ * Mirrors the core {@link TreapMap} operations; lookups that find nothing
+ * return the configured no-entry key or value instead of {@code null}.
+ */
+public class LongLongTreapMap {
+
+    private static class Node {
+        final long key;
+        long value;
+        final int priority;
+        Node left, right;
+
+        Node(long key, long value, int priority) {
+            this.key = key;
+            this.value = value;
+            this.priority = priority;
+        }
+    }
+
+    /** Receives entries in ascending key order from {@link #forEach}. */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, long value);
+    }
+
+    private final long noEntryKey;
+    private final long noEntryValue;
+    private Node root;
+    private int size;
+    private int modCount;
+    private final Random rand = new Random();
+    private Node[] path = new Node[32];
+
+    public LongLongTreapMap() {
+        this(0L, 0L);
+    }
+
+    public LongLongTreapMap(long noEntryKey, long noEntryValue) {
+        this.noEntryKey = noEntryKey;
+        this.noEntryValue = noEntryValue;
+    }
+
+    public long getNoEntryKey() {
+        return noEntryKey;
+    }
+
+    public long getNoEntryValue() {
+        return noEntryValue;
+    }
+
+    /** Associates {@code value} with {@code key}, returning the previous value or the no-entry value. */
+    public long put(long key, long value) {
+        Node node = root;
+        int depth = 0;
+        while (node != null) {
+            if (key == node.key) {
+                long old = node.value;
+                node.value = value;
+                clearPath(depth);
+                return old;
+            }
+            push(depth++, node);
+            node = key < node.key ? node.left : node.right;
+        }
+        Node child = new Node(key, value, rand.nextInt());
+        size++;
+        modCount++;
+        int i = depth - 1;
+        if (i < 0) {
+            root = child;
+            return noEntryValue;
+        }
+        if (key < path[i].key) path[i].left = child;
+        else path[i].right = child;
+        for (; i >= 0; i--) {
+            Node parent = path[i];
+            path[i] = null;
+            if (child.priority <= parent.priority) break;
+            child = parent.left == child ? rotateRight(parent) : rotateLeft(parent);
+            replaceChild(i == 0 ? null : path[i - 1], parent, child);
+        }
+        clearPath(i);
+        return noEntryValue;
+    }
+
+    public long get(long key) {
+        Node node = find(key);
+        return node == null ? noEntryValue : node.value;
+    }
+
+    public long getOrDefault(long key, long defaultValue) {
+        Node node = find(key);
+        return node == null ? defaultValue : node.value;
+    }
+
+    public boolean containsKey(long key) {
+        return find(key) != null;
+    }
+
+    /** Removes {@code key}, returning its value or the no-entry value if it was absent. */
+    public long remove(long key) {
+        Node node = root, parent = null;
+        while (node != null && key != node.key) {
+            parent = node;
+            node = key < node.key ? node.left : node.right;
+        }
+        if (node == null) return noEntryValue;
+        replaceChild(parent, node, merge(node.left, node.right));
+        node.left = node.right = null;
+        size--;
+        modCount++;
+        return node.value;
+    }
+
+    public void clear() {
+        root = null;
+        size = 0;
+        modCount++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Navigation
+
+    public long firstKey() {
+        if (root == null) throw new NoSuchElementException();
+        Node node = root;
+        while (node.left != null) node = node.left;
+        return node.key;
+    }
+
+    public long lastKey() {
+        if (root == null) throw new NoSuchElementException();
+        Node node = root;
+        while (node.right != null) node = node.right;
+        return node.key;
+    }
+
+    /** Returns the least key {@code >= key}, or the no-entry key if there is none. */
+    public long ceilingKey(long key) {
+        Node node = root, best = null;
+        while (node != null) {
+            if (key == node.key) return key;
+            if (key < node.key) {
+                best = node;
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return best == null ? noEntryKey : best.key;
+    }
+
+    /** Returns the greatest key {@code <= key}, or the no-entry key if there is none. */
+    public long floorKey(long key) {
+        Node node = root, best = null;
+        while (node != null) {
+            if (key == node.key) return key;
+            if (key > node.key) {
+                best = node;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return best == null ? noEntryKey : best.key;
+    }
+
+    /** Returns the least key {@code > key}, or the no-entry key if there is none. */
+    public long higherKey(long key) {
+        Node node = root, best = null;
+        while (node != null) {
+            if (key < node.key) {
+                best = node;
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return best == null ? noEntryKey : best.key;
+    }
+
+    /** Returns the greatest key {@code < key}, or the no-entry key if there is none. */
+    public long lowerKey(long key) {
+        Node node = root, best = null;
+        while (node != null) {
+            if (key > node.key) {
+                best = node;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return best == null ? noEntryKey : best.key;
+    }
+
+    // Iteration
+
+    public PrimitiveIterator.OfLong keyIterator() {
+        return new NodeIterator() {
+            @Override
+            public long nextLong() {
+                return nextNode().key;
+            }
+        };
+    }
+
+    public PrimitiveIterator.OfLong valueIterator() {
+        return new NodeIterator() {
+            @Override
+            public long nextLong() {
+                return nextNode().value;
+            }
+        };
+    }
+
+    public void forEach(EntryConsumer action) {
+        int expectedModCount = modCount;
+        ArrayDeque<Node> stack = new ArrayDeque<>();
+        Node node = root;
+        while (node != null || !stack.isEmpty()) {
+            while (node != null) {
+                stack.push(node);
+                node = node.left;
+            }
+            node = stack.pop();
+            action.accept(node.key, node.value);
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            node = node.right;
+        }
+    }
+
+    private abstract class NodeIterator implements PrimitiveIterator.OfLong {
+        private final ArrayDeque<Node> stack = new ArrayDeque<>();
+        private Node lastReturned;
+        private int expectedModCount = modCount;
+
+        NodeIterator() {
+            pushLeft(root);
+        }
+
+        private void pushLeft(Node node) {
+            while (node != null) {
+                stack.push(node);
+                node = node.left;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        Node nextNode() {
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            if (stack.isEmpty()) throw new NoSuchElementException();
+            Node node = stack.pop();
+            pushLeft(node.right);
+            lastReturned = node;
+            return node;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) throw new IllegalStateException();
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            long key = lastReturned.key;
+            LongLongTreapMap.this.remove(key);
+            lastReturned = null;
+            expectedModCount = modCount;
+            stack.clear();
+            Node node = root;
+            while (node != null) {
+                if (key < node.key) {
+                    stack.push(node);
+                    node = node.left;
+                } else {
+                    node = node.right;
+                }
+            }
+        }
+    }
+
+    // Treap core methods
+
+    private Node find(long key) {
+        Node node = root;
+        while (node != null) {
+            if (key < node.key) node = node.left;
+            else if (key > node.key) node = node.right;
+            else return node;
+        }
+        return null;
+    }
+
+    private Node merge(Node left, Node right) {
+        if (left == null) return right;
+        if (right == null) return left;
+        Node result = null, hook = null;
+        boolean hookRight = false;
+        while (left != null && right != null) {
+            Node chosen;
+            boolean fromLeft = left.priority > right.priority;
+            if (fromLeft) {
+                chosen = left;
+                left = left.right;
+            } else {
+                chosen = right;
+                right = right.left;
+            }
+            if (hook == null) result = chosen;
+            else if (hookRight) hook.right = chosen;
+            else hook.left = chosen;
+            hook = chosen;
+            hookRight = fromLeft;
+        }
+        Node rest = left != null ? left : right;
+        if (hookRight) hook.right = rest;
+        else hook.left = rest;
+        return result;
+    }
+
+    private Node rotateLeft(Node node) {
+        Node r = node.right;
+        node.right = r.left;
+        r.left = node;
+        return r;
+    }
+
+    private Node rotateRight(Node node) {
+        Node l = node.left;
+        node.left = l.right;
+        l.right = node;
+        return l;
+    }
+
+    private void push(int depth, Node node) {
+        if (depth == path.length) path = Arrays.copyOf(path, depth * 2);
+        path[depth] = node;
+    }
+
+    private void clearPath(int depth) {
+        for (int i = 0; i < depth; i++) path[i] = null;
+    }
+
+    private void replaceChild(Node parent, Node child, Node replacement) {
+        if (parent == null) root = replacement;
+        else if (parent.left == child) parent.left = replacement;
+        else parent.right = replacement;
+    }
+}
\ No newline at end of file
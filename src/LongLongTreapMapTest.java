@@ -0,0 +1,89 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LongLongTreapMapTest {
+
+    private LongLongTreapMap treap;
+
+    @BeforeEach
+    public void setUp() {
+        treap = new LongLongTreapMap(Long.MIN_VALUE, -1);
+        treap.put(20, 200);
+        treap.put(10, 100);
+        treap.put(30, 300);
+        treap.put(5, 50);
+        treap.put(25, 250);
+    }
+
+    @Test
+    public void testPutAndGet() {
+        assertEquals(100L, treap.get(10));
+        assertEquals(300L, treap.get(30));
+        assertEquals(-1L, treap.get(100));
+        assertEquals(7L, treap.getOrDefault(100, 7));
+    }
+
+    @Test
+    public void testPutReturnsPreviousValue() {
+        assertEquals(100L, treap.put(10, 101));
+        assertEquals(101L, treap.get(10));
+        assertEquals(-1L, treap.put(11, 110));
+        assertEquals(6, treap.size());
+    }
+
+    @Test
+    public void testRemove() {
+        assertEquals(200L, treap.remove(20));
+        assertFalse(treap.containsKey(20));
+        assertEquals(-1L, treap.remove(20));
+        assertEquals(4, treap.size());
+    }
+
+    @Test
+    public void testNavigation() {
+        assertEquals(5L, treap.firstKey());
+        assertEquals(30L, treap.lastKey());
+        assertEquals(10L, treap.ceilingKey(9));
+        assertEquals(5L, treap.floorKey(7));
+        assertEquals(25L, treap.higherKey(20));
+        assertEquals(10L, treap.lowerKey(20));
+        assertEquals(Long.MIN_VALUE, treap.higherKey(30));
+    }
+
+    @Test
+    public void testKeyIteratorIsSorted() {
+        List<Long> keys = new ArrayList<>();
+        treap.keyIterator().forEachRemaining((long k) -> keys.add(k));
+        assertEquals(List.of(5L, 10L, 20L, 25L, 30L), keys);
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        PrimitiveIterator.OfLong it = treap.keyIterator();
+        while (it.hasNext()) {
+            if (it.nextLong() % 10 == 0) it.remove();
+        }
+        List<Long> values = new ArrayList<>();
+        treap.forEach((k, v) -> values.add(v));
+        assertEquals(List.of(50L, 250L), values);
+    }
+
+    @Test
+    public void testIteratorFailsFast() {
+        PrimitiveIterator.OfLong it = treap.valueIterator();
+        it.nextLong();
+        treap.put(99, 990);
+        assertThrows(ConcurrentModificationException.class, it::nextLong);
+    }
+
+    @Test
+    public void testClear() {
+        treap.clear();
+        assertTrue(treap.isEmpty());
+        assertThrows(NoSuchElementException.class, treap::firstKey);
+    }
+}
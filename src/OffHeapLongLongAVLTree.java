@@ -0,0 +1,568 @@
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.*;
+
+/**
+ * AVL tree mapping {@code long} keys to {@code long} values whose nodes live
+ * outside the Java heap. Each node is a fixed 32-byte record in a direct
+ * {@link ByteBuffer}: key, value, left and right child ids, and height. The
+ * heap holds only the tree header and one buffer object per chunk of 65536
+ * nodes, so the GC has next to nothing to trace however large the map grows.
+ *
+ * <p>Storage works like {@link ArrayTreeMap}'s slot pool: node 0 is the nil
+ * sentinel, removed nodes are chained through their left field into a free
+ * list, and a new chunk is allocated when the pool runs out. Chunks are never
+ * moved or copied. Mirrors the {@link IntIntAVLTree} API.
+ *
+ * <p>The memory is released by {@link #close()}, not by the garbage collector
+ * reaching the tree, after which every operation throws
+ * {@link IllegalStateException}. Not thread-safe.
+ */
+public class OffHeapLongLongAVLTree implements AutoCloseable {
+
+    // Record layout, in bytes
+    private static final int KEY = 0;
+    private static final int VALUE = 8;
+    private static final int LEFT = 16;
+    private static final int RIGHT = 20;
+    private static final int HEIGHT = 24;
+    private static final int RECORD_SHIFT = 5;
+
+    private static final int CHUNK_SHIFT = 16;
+    private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+    private static final long CHUNK_BYTES = (long) (1 << CHUNK_SHIFT) << RECORD_SHIFT;
+
+    private static final int NIL = 0;
+    private static final int MAX_HEIGHT = 64;
+
+    /** Receives entries in ascending key order from {@link #forEach}. */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, long value);
+    }
+
+    private final long noEntryKey;
+    private final long noEntryValue;
+    private ByteBuffer[] chunks = new ByteBuffer[4];
+    private int chunkCount;
+    private int nextSlot = 1;
+    private int freeHead = NIL;
+    private int root = NIL;
+    private int size;
+    private int modCount;
+    private boolean closed;
+    private final int[] path = new int[MAX_HEIGHT];
+
+    public OffHeapLongLongAVLTree() {
+        this(0L, 0L);
+    }
+
+    public OffHeapLongLongAVLTree(long noEntryKey, long noEntryValue) {
+        this.noEntryKey = noEntryKey;
+        this.noEntryValue = noEntryValue;
+        // The first chunk's slot 0 is the nil node: all zeros, so height 0
+        addChunk();
+    }
+
+    public long getNoEntryKey() {
+        return noEntryKey;
+    }
+
+    public long getNoEntryValue() {
+        return noEntryValue;
+    }
+
+    /** Associates {@code value} with {@code key}, returning the previous value or the no-entry value. */
+    public long put(long key, long value) {
+        ensureOpen();
+        if (root == NIL) {
+            root = allocate(key, value);
+            size++;
+            modCount++;
+            return noEntryValue;
+        }
+        int node = root;
+        int depth = 0;
+        while (true) {
+            long nodeKey = key(node);
+            if (key == nodeKey) {
+                long old = value(node);
+                setValue(node, value);
+                return old;
+            }
+            path[depth++] = node;
+            int next = key < nodeKey ? left(node) : right(node);
+            if (next == NIL) {
+                int child = allocate(key, value);
+                if (key < nodeKey) setLeft(node, child);
+                else setRight(node, child);
+                break;
+            }
+            node = next;
+        }
+        size++;
+        modCount++;
+        rebalancePath(depth);
+        return noEntryValue;
+    }
+
+    public long get(long key) {
+        int node = getNode(key);
+        return node == NIL ? noEntryValue : value(node);
+    }
+
+    public long getOrDefault(long key, long defaultValue) {
+        int node = getNode(key);
+        return node == NIL ? defaultValue : value(node);
+    }
+
+    public boolean containsKey(long key) {
+        return getNode(key) != NIL;
+    }
+
+    /** Removes {@code key}, returning its value or the no-entry value if it was absent. */
+    public long remove(long key) {
+        ensureOpen();
+        int node = root;
+        int depth = 0;
+        while (node != NIL && key != key(node)) {
+            path[depth++] = node;
+            node = key < key(node) ? left(node) : right(node);
+        }
+        if (node == NIL) return noEntryValue;
+        int parent = depth == 0 ? NIL : path[depth - 1];
+        int replacement;
+        if (left(node) == NIL || right(node) == NIL) {
+            replacement = left(node) != NIL ? left(node) : right(node);
+        } else {
+            int slot = depth++;
+            int successorParent = node, successor = right(node);
+            while (left(successor) != NIL) {
+                path[depth++] = successor;
+                successorParent = successor;
+                successor = left(successor);
+            }
+            if (successorParent != node) {
+                setLeft(successorParent, right(successor));
+                setRight(successor, right(node));
+            }
+            setLeft(successor, left(node));
+            // Stands in for node, so rebalancePath can stop below it
+            setHeight(successor, height(node));
+            path[slot] = successor;
+            replacement = successor;
+        }
+        replaceChild(parent, node, replacement);
+        long old = value(node);
+        release(node);
+        size--;
+        modCount++;
+        rebalancePath(depth);
+        return old;
+    }
+
+    /** Removes every entry. Chunks already allocated are kept for reuse. */
+    public void clear() {
+        ensureOpen();
+        root = NIL;
+        nextSlot = 1;
+        freeHead = NIL;
+        size = 0;
+        modCount++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Returns the off-heap memory held by this tree, in bytes. */
+    public long offHeapBytes() {
+        return chunkCount * CHUNK_BYTES;
+    }
+
+    /**
+     * Frees the off-heap memory. The tree is unusable afterwards; closing it
+     * again does nothing.
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        for (int i = 0; i < chunkCount; i++) {
+            free(chunks[i]);
+            chunks[i] = null;
+        }
+        chunks = null;
+        chunkCount = 0;
+        root = NIL;
+        size = 0;
+        modCount++;
+    }
+
+    private void ensureOpen() {
+        if (closed) throw new IllegalStateException("tree is closed");
+    }
+
+    // Navigation
+
+    public long firstKey() {
+        ensureOpen();
+        if (root == NIL) throw new NoSuchElementException();
+        int node = root;
+        while (left(node) != NIL) node = left(node);
+        return key(node);
+    }
+
+    public long lastKey() {
+        ensureOpen();
+        if (root == NIL) throw new NoSuchElementException();
+        int node = root;
+        while (right(node) != NIL) node = right(node);
+        return key(node);
+    }
+
+    /** Returns the least key {@code >= key}, or the no-entry key if there is none. */
+    public long ceilingKey(long key) {
+        ensureOpen();
+        int node = root, best = NIL;
+        while (node != NIL) {
+            long nodeKey = key(node);
+            if (key == nodeKey) return key;
+            if (key < nodeKey) {
+                best = node;
+                node = left(node);
+            } else {
+                node = right(node);
+            }
+        }
+        return best == NIL ? noEntryKey : key(best);
+    }
+
+    /** Returns the greatest key {@code <= key}, or the no-entry key if there is none. */
+    public long floorKey(long key) {
+        ensureOpen();
+        int node = root, best = NIL;
+        while (node != NIL) {
+            long nodeKey = key(node);
+            if (key == nodeKey) return key;
+            if (key > nodeKey) {
+                best = node;
+                node = right(node);
+            } else {
+                node = left(node);
+            }
+        }
+        return best == NIL ? noEntryKey : key(best);
+    }
+
+    /** Returns the least key {@code > key}, or the no-entry key if there is none. */
+    public long higherKey(long key) {
+        ensureOpen();
+        int node = root, best = NIL;
+        while (node != NIL) {
+            if (key < key(node)) {
+                best = node;
+                node = left(node);
+            } else {
+                node = right(node);
+            }
+        }
+        return best == NIL ? noEntryKey : key(best);
+    }
+
+    /** Returns the greatest key {@code < key}, or the no-entry key if there is none. */
+    public long lowerKey(long key) {
+        ensureOpen();
+        int node = root, best = NIL;
+        while (node != NIL) {
+            if (key > key(node)) {
+                best = node;
+                node = right(node);
+            } else {
+                node = left(node);
+            }
+        }
+        return best == NIL ? noEntryKey : key(best);
+    }
+
+    // Iteration
+
+    public PrimitiveIterator.OfLong keyIterator() {
+        return new NodeIterator() {
+            @Override
+            public long nextLong() {
+                return key(nextNode());
+            }
+        };
+    }
+
+    public PrimitiveIterator.OfLong valueIterator() {
+        return new NodeIterator() {
+            @Override
+            public long nextLong() {
+                return value(nextNode());
+            }
+        };
+    }
+
+    public void forEach(EntryConsumer action) {
+        ensureOpen();
+        int expectedModCount = modCount;
+        int[] stack = new int[MAX_HEIGHT];
+        int top = 0;
+        int node = root;
+        while (node != NIL || top > 0) {
+            while (node != NIL) {
+                stack[top++] = node;
+                node = left(node);
+            }
+            node = stack[--top];
+            action.accept(key(node), value(node));
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            node = right(node);
+        }
+    }
+
+    private abstract class NodeIterator implements PrimitiveIterator.OfLong {
+        private final int[] stack = new int[MAX_HEIGHT];
+        private int top;
+        private int lastReturned = NIL;
+        private int expectedModCount = modCount;
+
+        NodeIterator() {
+            ensureOpen();
+            pushLeft(root);
+        }
+
+        private void pushLeft(int node) {
+            while (node != NIL) {
+                stack[top++] = node;
+                node = left(node);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return top > 0;
+        }
+
+        int nextNode() {
+            ensureOpen();
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            if (top == 0) throw new NoSuchElementException();
+            int node = stack[--top];
+            pushLeft(right(node));
+            lastReturned = node;
+            return node;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == NIL) throw new IllegalStateException();
+            ensureOpen();
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            long key = key(lastReturned);
+            OffHeapLongLongAVLTree.this.remove(key);
+            lastReturned = NIL;
+            expectedModCount = modCount;
+            top = 0;
+            int node = root;
+            while (node != NIL) {
+                if (key < key(node)) {
+                    stack[top++] = node;
+                    node = left(node);
+                } else {
+                    node = right(node);
+                }
+            }
+        }
+    }
+
+    // Record access
+
+    private long key(int node) {
+        return chunks[node >>> CHUNK_SHIFT].getLong(offset(node) + KEY);
+    }
+
+    private long value(int node) {
+        return chunks[node >>> CHUNK_SHIFT].getLong(offset(node) + VALUE);
+    }
+
+    private int left(int node) {
+        return chunks[node >>> CHUNK_SHIFT].getInt(offset(node) + LEFT);
+    }
+
+    private int right(int node) {
+        return chunks[node >>> CHUNK_SHIFT].getInt(offset(node) + RIGHT);
+    }
+
+    private int height(int node) {
+        return chunks[node >>> CHUNK_SHIFT].getInt(offset(node) + HEIGHT);
+    }
+
+    private void setValue(int node, long value) {
+        chunks[node >>> CHUNK_SHIFT].putLong(offset(node) + VALUE, value);
+    }
+
+    private void setLeft(int node, int child) {
+        chunks[node >>> CHUNK_SHIFT].putInt(offset(node) + LEFT, child);
+    }
+
+    private void setRight(int node, int child) {
+        chunks[node >>> CHUNK_SHIFT].putInt(offset(node) + RIGHT, child);
+    }
+
+    private void setHeight(int node, int height) {
+        chunks[node >>> CHUNK_SHIFT].putInt(offset(node) + HEIGHT, height);
+    }
+
+    private static int offset(int node) {
+        return (node & CHUNK_MASK) << RECORD_SHIFT;
+    }
+
+    // Slot management
+
+    private int allocate(long key, long value) {
+        int node;
+        if (freeHead != NIL) {
+            node = freeHead;
+            freeHead = left(node);
+        } else {
+            if (nextSlot >>> CHUNK_SHIFT == chunkCount) addChunk();
+            node = nextSlot++;
+        }
+        ByteBuffer chunk = chunks[node >>> CHUNK_SHIFT];
+        int offset = offset(node);
+        chunk.putLong(offset + KEY, key);
+        chunk.putLong(offset + VALUE, value);
+        chunk.putInt(offset + LEFT, NIL);
+        chunk.putInt(offset + RIGHT, NIL);
+        chunk.putInt(offset + HEIGHT, 1);
+        return node;
+    }
+
+    private void release(int node) {
+        setRight(node, NIL);
+        setLeft(node, freeHead);
+        freeHead = node;
+    }
+
+    private void addChunk() {
+        if (chunkCount == 1 << (Integer.SIZE - 1 - CHUNK_SHIFT)) throw new IllegalStateException("tree is full");
+        if (chunkCount == chunks.length) chunks = Arrays.copyOf(chunks, chunkCount * 2);
+        chunks[chunkCount++] = ByteBuffer.allocateDirect((int) CHUNK_BYTES).order(ByteOrder.nativeOrder());
+    }
+
+    // Direct buffers are otherwise only freed once the GC finds them unreachable,
+    // so close() frees them eagerly through the JDK's own cleaner hook
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> type = Class.forName("sun.misc.Unsafe");
+            Field field = type.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Fall back to letting the GC free the chunks
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private static void free(ByteBuffer chunk) {
+        if (INVOKE_CLEANER == null) return;
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, chunk);
+        } catch (ReflectiveOperationException e) {
+            // Left to the GC
+        }
+    }
+
+    // Internal AVL methods
+
+    private int getNode(long key) {
+        ensureOpen();
+        int node = root;
+        while (node != NIL) {
+            ByteBuffer chunk = chunks[node >>> CHUNK_SHIFT];
+            int offset = offset(node);
+            long nodeKey = chunk.getLong(offset + KEY);
+            if (key < nodeKey) node = chunk.getInt(offset + LEFT);
+            else if (key > nodeKey) node = chunk.getInt(offset + RIGHT);
+            else return node;
+        }
+        return NIL;
+    }
+
+    private int balanceFactor(int node) {
+        return node == NIL ? 0 : height(left(node)) - height(right(node));
+    }
+
+    private void updateHeight(int node) {
+        setHeight(node, 1 + Math.max(height(left(node)), height(right(node))));
+    }
+
+    private int rotateRight(int y) {
+        int x = left(y);
+        setLeft(y, right(x));
+        setRight(x, y);
+        updateHeight(y);
+        updateHeight(x);
+        return x;
+    }
+
+    private int rotateLeft(int x) {
+        int y = right(x);
+        setRight(x, left(y));
+        setLeft(y, x);
+        updateHeight(x);
+        updateHeight(y);
+        return y;
+    }
+
+    private int rebalance(int node) {
+        updateHeight(node);
+        int balance = balanceFactor(node);
+
+        if (balance > 1) {
+            if (balanceFactor(left(node)) < 0) setLeft(node, rotateLeft(left(node)));
+            return rotateRight(node);
+        }
+
+        if (balance < -1) {
+            if (balanceFactor(right(node)) > 0) setRight(node, rotateRight(right(node)));
+            return rotateLeft(node);
+        }
+
+        return node;
+    }
+
+    // Every record touched is a buffer read, so stop climbing at the first
+    // node left neither rotated nor changed in height: nothing above it changes
+    private void rebalancePath(int depth) {
+        for (int i = depth - 1; i >= 0; i--) {
+            int node = path[i];
+            int oldHeight = height(node);
+            int balanced = rebalance(node);
+            if (balanced != node) replaceChild(i == 0 ? NIL : path[i - 1], node, balanced);
+            else if (height(node) == oldHeight) return;
+        }
+    }
+
+    private void replaceChild(int parent, int child, int replacement) {
+        if (parent == NIL) root = replacement;
+        else if (left(parent) == child) setLeft(parent, replacement);
+        else setRight(parent, replacement);
+    }
+}
@@ -0,0 +1,121 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapLongLongAVLTreeTest {
+
+    private OffHeapLongLongAVLTree tree;
+
+    @BeforeEach
+    public void setUp() {
+        tree = new OffHeapLongLongAVLTree(Long.MIN_VALUE, -1);
+        tree.put(20, 200);
+        tree.put(10, 100);
+        tree.put(30, 300);
+        tree.put(5, 50);
+        tree.put(25, 250);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        tree.close();
+    }
+
+    @Test
+    public void testPutAndGet() {
+        assertEquals(100L, tree.get(10));
+        assertEquals(300L, tree.get(30));
+        assertEquals(-1L, tree.get(100));
+        assertEquals(7L, tree.getOrDefault(100, 7));
+    }
+
+    @Test
+    public void testPutReturnsPreviousValue() {
+        assertEquals(100L, tree.put(10, 101));
+        assertEquals(101L, tree.get(10));
+        assertEquals(-1L, tree.put(11, 110));
+        assertEquals(6, tree.size());
+    }
+
+    @Test
+    public void testRemove() {
+        assertEquals(200L, tree.remove(20));
+        assertFalse(tree.containsKey(20));
+        assertEquals(-1L, tree.remove(20));
+        assertEquals(4, tree.size());
+    }
+
+    @Test
+    public void testNavigation() {
+        assertEquals(5L, tree.firstKey());
+        assertEquals(30L, tree.lastKey());
+        assertEquals(10L, tree.ceilingKey(9));
+        assertEquals(5L, tree.floorKey(7));
+        assertEquals(25L, tree.higherKey(20));
+        assertEquals(10L, tree.lowerKey(20));
+        assertEquals(Long.MIN_VALUE, tree.higherKey(30));
+    }
+
+    @Test
+    public void testGrowsAcrossChunksAndReusesFreedNodes() {
+        for (long k = 0; k < 200_000; k++) tree.put(k, -k);
+        long bytes = tree.offHeapBytes();
+        assertEquals(-123_456L, tree.get(123_456));
+        for (long k = 0; k < 200_000; k += 2) tree.remove(k);
+        for (long k = 0; k < 200_000; k += 2) tree.put(k, k);
+        assertEquals(bytes, tree.offHeapBytes());
+        assertEquals(200_000, tree.size());
+        assertEquals(123_456L, tree.get(123_456));
+        assertEquals(-99_999L, tree.get(99_999));
+    }
+
+    @Test
+    public void testKeyIteratorIsSorted() {
+        List<Long> keys = new ArrayList<>();
+        tree.keyIterator().forEachRemaining((long k) -> keys.add(k));
+        assertEquals(List.of(5L, 10L, 20L, 25L, 30L), keys);
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        PrimitiveIterator.OfLong it = tree.keyIterator();
+        while (it.hasNext()) {
+            if (it.nextLong() % 10 == 0) it.remove();
+        }
+        List<Long> values = new ArrayList<>();
+        tree.forEach((k, v) -> values.add(v));
+        assertEquals(List.of(50L, 250L), values);
+    }
+
+    @Test
+    public void testIteratorFailsFast() {
+        PrimitiveIterator.OfLong it = tree.valueIterator();
+        it.nextLong();
+        tree.put(99, 990);
+        assertThrows(ConcurrentModificationException.class, it::nextLong);
+    }
+
+    @Test
+    public void testClear() {
+        tree.clear();
+        assertTrue(tree.isEmpty());
+        assertThrows(NoSuchElementException.class, tree::firstKey);
+        tree.put(1, 10);
+        assertEquals(10L, tree.get(1));
+    }
+
+    @Test
+    public void testUseAfterCloseFails() {
+        PrimitiveIterator.OfLong it = tree.keyIterator();
+        tree.close();
+        tree.close();
+        assertEquals(0L, tree.offHeapBytes());
+        assertThrows(IllegalStateException.class, () -> tree.get(10));
+        assertThrows(IllegalStateException.class, () -> tree.put(1, 1));
+        assertThrows(IllegalStateException.class, it::nextLong);
+    }
+}
@@ -0,0 +1,73 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Speedup curves for the parallel sorts. Each algorithm runs in pools of 1, 2,
+ * 4, ... up to all available cores, and the report shows the best of
+ * {@code RUNS} timings plus the speedup over the same algorithm on one thread.
+ *
+ * <p>Sizes can be given as arguments, e.g. {@code 100000000} (needs about
+ * 1.5 GB of heap).
+ */
+public class ParallelSortBenchmark {
+
+    private static final int RUNS = 3;
+
+    interface ParallelSorter {
+        void sort(int[] arr, ForkJoinPool pool);
+    }
+
+    public static void main(String[] args) {
+        int[] sizes = args.length == 0 ? new int[]{1_000_000, 10_000_000}
+                : Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+        int cores = Runtime.getRuntime().availableProcessors();
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int t = 1; t < cores; t *= 2) threadCounts.add(t);
+        threadCounts.add(cores);
+
+        for (int size : sizes) {
+            int[] base = SortingBenchmark.generateData(size, "random");
+            System.out.printf("--- Size: %d | Pattern: random | Cores: %d ---%n", size, cores);
+            System.out.printf("Arrays.sort (sequential): %.2f ms%n", time(base, arr -> Arrays.sort(arr)) / 1e6);
+            curve("ParallelMergeSort", base, threadCounts,
+                    (arr, pool) -> SortingAlgorithms.parallelMergeSort(arr, pool, SortingAlgorithms.DEFAULT_PARALLEL_CUTOFF));
+            curve("ParallelQuickSort", base, threadCounts,
+                    (arr, pool) -> SortingAlgorithms.parallelQuickSort(arr, pool, SortingAlgorithms.DEFAULT_PARALLEL_CUTOFF));
+            // parallelSort forks into whichever pool calls it, so it runs with
+            // the pool's thread count (its split depth still follows the common pool)
+            curve("Arrays.parallelSort", base, threadCounts,
+                    (arr, pool) -> pool.submit(() -> Arrays.parallelSort(arr)).join());
+            System.out.println("-------------------------------------------------");
+        }
+    }
+
+    static void curve(String name, int[] base, List<Integer> threadCounts, ParallelSorter sorter) {
+        double single = 0;
+        for (int threads : threadCounts) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                double nanos = time(base, arr -> sorter.sort(arr, pool));
+                if (threads == 1) single = nanos;
+                System.out.printf("%s | Threads: %2d | %.2f ms | Speedup: %.2fx%n", name, threads, nanos / 1e6, single / nanos);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /** Best of a warm-up plus {@code RUNS} timed sorts of fresh copies, checking each result. */
+    static double time(int[] base, SortingBenchmark.Sorter sorter) {
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run <= RUNS; run++) {
+            int[] arr = base.clone();
+            long start = System.nanoTime();
+            sorter.sort(arr);
+            long duration = System.nanoTime() - start;
+            for (int i = 1; i < arr.length; i++) {
+                if (arr[i - 1] > arr[i]) throw new AssertionError("not sorted at " + i);
+            }
+            if (run > 0) best = Math.min(best, duration);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,52 @@
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ToLongFunction;
+
+/**
+ * Times a sequential and a parallel sum over the entry view of
+ * {@link AVLTree}, {@link TreapMap} and {@link TreeMap}, and over an AVLTree
+ * range view covering the middle half of the keys.
+ *
+ * <p>Argument: entry count (default 10,000,000). Needs a heap of a few GB at
+ * the default size.
+ */
+public class ParallelStreamBenchmark {
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        TreeMap<Integer, Integer> source = new TreeMap<>();
+        for (int i = 0; i < size; i++) source.put(i, i);
+        System.out.printf("--- Entries: %d | Parallelism: %d ---%n", size, ForkJoinPool.getCommonPoolParallelism());
+
+        AVLTree<Integer, Integer> avl = new AVLTree<>();
+        avl.putAll(source);
+        benchmark("AVLTree", avl);
+        benchmark("AVLTree subMap", avl.subMap(size / 4, size - size / 4));
+        TreapMap<Integer, Integer> treap = new TreapMap<>();
+        treap.putAll(source);
+        benchmark("Treap", treap);
+        benchmark("TreeMap", source);
+        System.out.println("-------------------------------------------------");
+    }
+
+    static void benchmark(String label, Map<Integer, Integer> map) {
+        ToLongFunction<Map.Entry<Integer, Integer>> value = e -> e.getValue();
+        // Warm up both paths before timing
+        for (int round = 0; round < 3; round++) {
+            map.entrySet().stream().mapToLong(value).sum();
+            map.entrySet().parallelStream().mapToLong(value).sum();
+        }
+
+        long start = System.nanoTime();
+        long sequential = map.entrySet().stream().mapToLong(value).sum();
+        long sequentialTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        long parallel = map.entrySet().parallelStream().mapToLong(value).sum();
+        long parallelTime = System.nanoTime() - start;
+
+        if (parallel != sequential) throw new AssertionError(label + ": parallel sum differs");
+        System.out.printf("%s | Sequential: %.2f ms | Parallel: %.2f ms | Speedup: %.1fx%n",
+                label, sequentialTime / 1e6, parallelTime / 1e6, (double) sequentialTime / parallelTime);
+    }
+}
@@ -0,0 +1,411 @@
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Immutable treap. {@link #plus} and {@link #minus} return a new map that
+ * copies only the nodes on one search path (expected O(log n) of them) and
+ * shares every untouched subtree with the original, so older versions stay
+ * valid and can be read from any thread without locking.
+ *
+ * <p>For batch loads, {@link #asTransient()} returns a mutable {@link Transient}
+ * that edits the nodes it created in place. Its {@link Transient#snapshot()}
+ * freezes the current state in O(1): later writes through the transient copy
+ * any node they touch instead of mutating it, so the snapshot never changes.
+ */
+public final class PersistentTreapMap<K extends Comparable<K>, V> extends AbstractMap<K, V> {
+
+    private static final class Node<K, V> implements Entry<K, V> {
+        final K key;
+        V value;
+        final int priority;
+        int size;
+        Node<K, V> left, right;
+        // Token of the transient allowed to mutate this node in place, if any
+        final Object edit;
+
+        Node(K key, V value, int priority, Object edit) {
+            this.key = key;
+            this.value = value;
+            this.priority = priority;
+            this.size = 1;
+            this.edit = edit;
+        }
+
+        Node(Node<K, V> node, Object edit) {
+            this.key = node.key;
+            this.value = node.value;
+            this.priority = node.priority;
+            this.size = node.size;
+            this.left = node.left;
+            this.right = node.right;
+            this.edit = edit;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry<?, ?> e)) return false;
+            return Objects.equals(key, e.getKey()) && Objects.equals(value, e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(value);
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    private static final PersistentTreapMap<?, ?> EMPTY = new PersistentTreapMap<>(null);
+
+    private final Node<K, V> root;
+
+    private Set<Entry<K, V>> entrySet;
+
+    private PersistentTreapMap(Node<K, V> root) {
+        this.root = root;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K extends Comparable<K>, V> PersistentTreapMap<K, V> empty() {
+        return (PersistentTreapMap<K, V>) EMPTY;
+    }
+
+    // Reads
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (!(key instanceof Comparable)) return null;
+        Node<K, V> node = find(root, (K) key);
+        return node == null ? null : node.value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean containsKey(Object key) {
+        return key instanceof Comparable && find(root, (K) key) != null;
+    }
+
+    @Override
+    public int size() {
+        return nodeSize(root);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    public Entry<K, V> firstEntry() {
+        Node<K, V> node = root;
+        if (node == null) return null;
+        while (node.left != null) node = node.left;
+        return node;
+    }
+
+    public Entry<K, V> lastEntry() {
+        Node<K, V> node = root;
+        if (node == null) return null;
+        while (node.right != null) node = node.right;
+        return node;
+    }
+
+    // Persistent updates
+
+    /** Returns a map that also maps {@code key} to {@code value}; this map is unchanged. */
+    public PersistentTreapMap<K, V> plus(K key, V value) {
+        Node<K, V> existing = find(root, key);
+        if (existing != null && existing.value == value) return this;
+        return new PersistentTreapMap<>(insert(root, key, value, existing != null, null));
+    }
+
+    /** Returns a map without {@code key}; this map is unchanged. */
+    public PersistentTreapMap<K, V> minus(K key) {
+        if (find(root, key) == null) return this;
+        return new PersistentTreapMap<>(delete(root, key, null));
+    }
+
+    /** Returns a mutable builder that starts from this map's contents, which it does not modify. */
+    public Transient<K, V> asTransient() {
+        return new Transient<>(root);
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        if (entrySet == null) entrySet = new EntrySet();
+        return entrySet;
+    }
+
+    /**
+     * Mutable view used to build or batch-update a {@link PersistentTreapMap}.
+     * Nodes it created since the last snapshot are updated in place; any other
+     * node is copied first, so maps handed out earlier are never affected. Not
+     * thread-safe.
+     */
+    public static final class Transient<K extends Comparable<K>, V> {
+        private Node<K, V> root;
+        private Object edit = new Object();
+
+        private Transient(Node<K, V> root) {
+            this.root = root;
+        }
+
+        public Transient<K, V> put(K key, V value) {
+            ensureEditable();
+            Node<K, V> existing = find(root, key);
+            if (existing != null && existing.edit == edit) existing.value = value;
+            else root = insert(root, key, value, existing != null, edit);
+            return this;
+        }
+
+        public Transient<K, V> remove(K key) {
+            ensureEditable();
+            if (find(root, key) != null) root = delete(root, key, edit);
+            return this;
+        }
+
+        public V get(K key) {
+            ensureEditable();
+            Node<K, V> node = find(root, key);
+            return node == null ? null : node.value;
+        }
+
+        public int size() {
+            ensureEditable();
+            return nodeSize(root);
+        }
+
+        /**
+         * Returns an immutable map of the current contents in O(1). The builder
+         * stays usable; it just stops mutating the nodes the snapshot can see.
+         */
+        public PersistentTreapMap<K, V> snapshot() {
+            ensureEditable();
+            edit = new Object();
+            return root == null ? empty() : new PersistentTreapMap<>(root);
+        }
+
+        /** Returns the final map and retires this builder. */
+        public PersistentTreapMap<K, V> persistent() {
+            PersistentTreapMap<K, V> map = snapshot();
+            edit = null;
+            root = null;
+            return map;
+        }
+
+        private void ensureEditable() {
+            if (edit == null) throw new IllegalStateException("transient used after persistent()");
+        }
+    }
+
+    // Path-copying treap core. Each method takes the edit token of the caller:
+    // null for persistent updates, which copy every node they change, or a
+    // transient's token, which lets nodes already owned by it be reused.
+
+    private static <K extends Comparable<K>, V> Node<K, V> find(Node<K, V> node, K key) {
+        while (node != null) {
+            int cmp = key.compareTo(node.key);
+            if (cmp < 0) node = node.left;
+            else if (cmp > 0) node = node.right;
+            else return node;
+        }
+        return null;
+    }
+
+    private static <K, V> Node<K, V> editable(Node<K, V> node, Object edit) {
+        return edit != null && node.edit == edit ? node : new Node<>(node, edit);
+    }
+
+    private static <K, V> int nodeSize(Node<K, V> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * Inserts or replaces {@code key}. A replacement copies the search path down
+     * to the node holding the key. A new key descends until it meets a node of
+     * lower priority, splits that subtree around the key and hangs the halves
+     * under the new node, so no rotations are needed.
+     */
+    private static <K extends Comparable<K>, V> Node<K, V> insert(
+            Node<K, V> root, K key, V value, boolean present, Object edit) {
+        ArrayList<Node<K, V>> path = new ArrayList<>();
+        Node<K, V> node = root, child;
+        if (present) {
+            while (true) {
+                int cmp = key.compareTo(node.key);
+                if (cmp == 0) break;
+                path.add(node);
+                node = cmp < 0 ? node.left : node.right;
+            }
+            child = editable(node, edit);
+            child.value = value;
+            return copyPath(path, key, child, 0, edit);
+        }
+        int priority = ThreadLocalRandom.current().nextInt();
+        while (node != null && node.priority >= priority) {
+            path.add(node);
+            node = key.compareTo(node.key) < 0 ? node.left : node.right;
+        }
+        child = new Node<>(key, value, priority, edit);
+        split(node, key, child, edit);
+        child.size = 1 + nodeSize(child.left) + nodeSize(child.right);
+        return copyPath(path, key, child, 1, edit);
+    }
+
+    /** Removes {@code key}, which must be present, by merging its two subtrees in its place. */
+    private static <K extends Comparable<K>, V> Node<K, V> delete(Node<K, V> root, K key, Object edit) {
+        ArrayList<Node<K, V>> path = new ArrayList<>();
+        Node<K, V> node = root;
+        while (true) {
+            int cmp = key.compareTo(node.key);
+            if (cmp == 0) break;
+            path.add(node);
+            node = cmp < 0 ? node.left : node.right;
+        }
+        return copyPath(path, key, merge(node.left, node.right, edit), -1, edit);
+    }
+
+    /**
+     * Rebuilds the ancestors of a changed subtree bottom-up, pointing each at
+     * the new child and adjusting its size by {@code delta}. Returns the root.
+     */
+    private static <K extends Comparable<K>, V> Node<K, V> copyPath(
+            ArrayList<Node<K, V>> path, K key, Node<K, V> child, int delta, Object edit) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node<K, V> parent = editable(path.get(i), edit);
+            if (key.compareTo(parent.key) < 0) parent.left = child;
+            else parent.right = child;
+            parent.size += delta;
+            child = parent;
+        }
+        return child;
+    }
+
+    /**
+     * Splits {@code node} around {@code key}, which it must not contain, into
+     * {@code into.left} and {@code into.right}. Same top-down walk as
+     * {@code TreapMap}'s split, except every node peeled off the search path is
+     * copied before it is relinked.
+     */
+    private static <K extends Comparable<K>, V> void split(Node<K, V> node, K key, Node<K, V> into, Object edit) {
+        ArrayList<Node<K, V>> copied = new ArrayList<>();
+        Node<K, V> lowerHook = null, upperHook = null;
+        while (node != null) {
+            Node<K, V> copy = editable(node, edit);
+            copied.add(copy);
+            if (key.compareTo(node.key) > 0) {
+                if (lowerHook == null) into.left = copy;
+                else lowerHook.right = copy;
+                lowerHook = copy;
+                node = node.right;
+            } else {
+                if (upperHook == null) into.right = copy;
+                else upperHook.left = copy;
+                upperHook = copy;
+                node = node.left;
+            }
+        }
+        if (lowerHook != null) lowerHook.right = null;
+        if (upperHook != null) upperHook.left = null;
+        for (int i = copied.size() - 1; i >= 0; i--) {
+            Node<K, V> n = copied.get(i);
+            n.size = 1 + nodeSize(n.left) + nodeSize(n.right);
+        }
+    }
+
+    /** Top-down merge of two treaps ordered left before right, copying the spine nodes it relinks. */
+    private static <K, V> Node<K, V> merge(Node<K, V> left, Node<K, V> right, Object edit) {
+        if (left == null) return right;
+        if (right == null) return left;
+        Node<K, V> result = null, hook = null;
+        boolean hookRight = false;
+        while (left != null && right != null) {
+            Node<K, V> chosen;
+            int total = left.size + right.size;
+            boolean fromLeft = left.priority > right.priority;
+            if (fromLeft) {
+                chosen = editable(left, edit);
+                left = left.right;
+            } else {
+                chosen = editable(right, edit);
+                right = right.left;
+            }
+            chosen.size = total;
+            if (hook == null) result = chosen;
+            else if (hookRight) hook.right = chosen;
+            else hook.left = chosen;
+            hook = chosen;
+            hookRight = fromLeft;
+        }
+        Node<K, V> rest = left != null ? left : right;
+        if (hookRight) hook.right = rest;
+        else hook.left = rest;
+        return result;
+    }
+
+    // Views
+
+    private final class EntrySet extends AbstractSet<Entry<K, V>> {
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            return new Iterator<>() {
+                private final ArrayDeque<Node<K, V>> stack = new ArrayDeque<>();
+
+                {
+                    pushLeft(root);
+                }
+
+                private void pushLeft(Node<K, V> node) {
+                    while (node != null) {
+                        stack.push(node);
+                        node = node.left;
+                    }
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return !stack.isEmpty();
+                }
+
+                @Override
+                public Entry<K, V> next() {
+                    if (stack.isEmpty()) throw new NoSuchElementException();
+                    Node<K, V> node = stack.pop();
+                    pushLeft(node.right);
+                    return node;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return nodeSize(root);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean contains(Object o) {
+            if (!(o instanceof Entry<?, ?> e) || !(e.getKey() instanceof Comparable)) return false;
+            Node<K, V> node = find(root, (K) e.getKey());
+            return node != null && Objects.equals(node.value, e.getValue());
+        }
+    }
+}
@@ -0,0 +1,89 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersistentTreapMapTest {
+
+    private PersistentTreapMap<Integer, String> map;
+
+    @BeforeEach
+    public void setUp() {
+        map = PersistentTreapMap.<Integer, String>empty()
+                .plus(20, "Twenty")
+                .plus(10, "Ten")
+                .plus(30, "Thirty")
+                .plus(5, "Five")
+                .plus(25, "Twenty Five");
+    }
+
+    @Test
+    public void testPlusAndGet() {
+        assertEquals("Ten", map.get(10));
+        assertNull(map.get(100));
+        assertEquals(5, map.size());
+    }
+
+    @Test
+    public void testPlusLeavesOriginalUnchanged() {
+        PersistentTreapMap<Integer, String> updated = map.plus(10, "Updated").plus(15, "Fifteen");
+        assertEquals("Ten", map.get(10));
+        assertFalse(map.containsKey(15));
+        assertEquals(5, map.size());
+        assertEquals("Updated", updated.get(10));
+        assertEquals("Fifteen", updated.get(15));
+        assertEquals(6, updated.size());
+    }
+
+    @Test
+    public void testMinusLeavesOriginalUnchanged() {
+        PersistentTreapMap<Integer, String> smaller = map.minus(20).minus(5);
+        assertSame(smaller, smaller.minus(100));
+        assertEquals(List.of(10, 25, 30), new ArrayList<>(smaller.keySet()));
+        assertEquals(List.of(5, 10, 20, 25, 30), new ArrayList<>(map.keySet()));
+    }
+
+    @Test
+    public void testImmutable() {
+        assertThrows(UnsupportedOperationException.class, () -> map.put(1, "One"));
+        assertThrows(UnsupportedOperationException.class, () -> map.firstEntry().setValue("X"));
+        assertEquals(5, map.firstEntry().getKey());
+        assertEquals(30, map.lastEntry().getKey());
+    }
+
+    @Test
+    public void testTransientSnapshot() {
+        PersistentTreapMap.Transient<Integer, String> builder = map.asTransient();
+        builder.put(1, "One").remove(20);
+        PersistentTreapMap<Integer, String> snapshot = builder.snapshot();
+        builder.put(1, "Uno").put(40, "Forty").remove(5);
+
+        assertEquals(List.of(1, 5, 10, 25, 30), new ArrayList<>(snapshot.keySet()));
+        assertEquals("One", snapshot.get(1));
+        assertEquals(5, map.size());
+        assertTrue(map.containsKey(20));
+
+        PersistentTreapMap<Integer, String> result = builder.persistent();
+        assertEquals(List.of(1, 10, 25, 30, 40), new ArrayList<>(result.keySet()));
+        assertEquals("Uno", result.get(1));
+        assertThrows(IllegalStateException.class, () -> builder.put(2, "Two"));
+    }
+
+    @Test
+    public void testManyVersions() {
+        PersistentTreapMap.Transient<Integer, Integer> builder = PersistentTreapMap.<Integer, Integer>empty().asTransient();
+        for (int i = 0; i < 1000; i++) builder.put(i, i);
+        PersistentTreapMap<Integer, Integer> base = builder.persistent();
+        PersistentTreapMap<Integer, Integer> evens = base;
+        for (int i = 1; i < 1000; i += 2) evens = evens.minus(i);
+        assertEquals(1000, base.size());
+        assertEquals(500, evens.size());
+        int expected = 0;
+        for (int key : evens.keySet()) {
+            assertEquals(expected, key);
+            expected += 2;
+        }
+    }
+}
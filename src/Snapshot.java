@@ -0,0 +1,246 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary snapshot format shared by {@link AVLTree} and {@link TreapMap}. The
+ * file holds the entries in ascending key order, big-endian:
+ *
+ * <pre>
+ *   header   int magic, int version, long entry count
+ *   blocks   int payload bytes, int entries, int CRC32C of the payload, payload
+ *   trailer  a block header of three zero ints
+ * </pre>
+ *
+ * Each payload is the codec encodings of key then value for each of its
+ * entries. Blocks are about 1 MB, so a damaged block is detected before any of
+ * its entries reach the tree, and a missing trailer shows a truncated file.
+ *
+ * <p>Snapshots are written to a sibling temporary file, forced to disk and
+ * moved into place, so an existing snapshot is never left half-overwritten.
+ * They are read through read-only memory-mapped windows of up to 1 GB.
+ */
+final class Snapshot {
+
+    private static final int MAGIC = 0x534E4150; // "SNAP"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int BLOCK_HEADER_BYTES = 12;
+    private static final int BLOCK_BYTES = 1 << 20;
+    private static final long WINDOW_BYTES = 1L << 30;
+
+    /** Receives the decoded entries of a snapshot, in key order. */
+    @FunctionalInterface
+    interface Builder<K, V> {
+        void build(Iterator<Map.Entry<K, V>> entries, int count);
+    }
+
+    private Snapshot() {
+    }
+
+    static <K, V> void write(Path file, Iterator<? extends Map.Entry<K, V>> entries, int count,
+                             SnapshotCodec<K> keyCodec, SnapshotCodec<V> valueCodec) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION).putLong(count).flip());
+            ByteBuffer block = ByteBuffer.allocateDirect(BLOCK_BYTES).position(BLOCK_HEADER_BYTES);
+            CRC32C crc = new CRC32C();
+            int inBlock = 0, written = 0;
+            while (entries.hasNext()) {
+                Map.Entry<K, V> entry = entries.next();
+                K key = entry.getKey();
+                V value = entry.getValue();
+                int bytes = keyCodec.size(key) + valueCodec.size(value);
+                if (block.remaining() < bytes) {
+                    if (inBlock > 0) writeBlock(channel, block, inBlock, crc);
+                    inBlock = 0;
+                    // An entry bigger than a whole block gets a block to itself
+                    if (block.remaining() < bytes) {
+                        block = ByteBuffer.allocateDirect(BLOCK_HEADER_BYTES + bytes).position(BLOCK_HEADER_BYTES);
+                    }
+                }
+                keyCodec.write(key, block);
+                valueCodec.write(value, block);
+                inBlock++;
+                written++;
+            }
+            if (inBlock > 0) writeBlock(channel, block, inBlock, crc);
+            if (written != count) throw new ConcurrentModificationException();
+            writeFully(channel, block.clear().putInt(0).putInt(0).putInt(0).flip());
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Fills in the header of the block in buffer, writes it and readies the buffer for the next one
+    private static void writeBlock(FileChannel channel, ByteBuffer block, int entries, CRC32C crc)
+            throws IOException {
+        int end = block.position();
+        block.flip().position(BLOCK_HEADER_BYTES);
+        crc.reset();
+        crc.update(block);
+        block.putInt(0, end - BLOCK_HEADER_BYTES).putInt(4, entries).putInt(8, (int) crc.getValue()).position(0);
+        writeFully(channel, block);
+        block.clear().position(BLOCK_HEADER_BYTES);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) channel.write(buffer);
+    }
+
+    /**
+     * Decodes the snapshot in {@code file} and hands its entries to
+     * {@code builder}. The entry objects passed in are reused, so the builder
+     * must copy out key and value before asking for the next one.
+     *
+     * @throws IOException if the file is not a snapshot, is truncated or fails its checksums
+     */
+    static <K, V> void read(Path file, SnapshotCodec<K> keyCodec, SnapshotCodec<V> valueCodec,
+                            Builder<K, V> builder) throws IOException {
+        try (Reader<K, V> reader = new Reader<>(file, keyCodec, valueCodec)) {
+            builder.build(reader, reader.count);
+            if (reader.read != reader.count) throw new IOException("snapshot not fully consumed");
+            reader.checkTrailer();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class Reader<K, V> implements Iterator<Map.Entry<K, V>>, Closeable {
+        private final FileChannel channel;
+        private final long fileSize;
+        private final SnapshotCodec<K> keyCodec;
+        private final SnapshotCodec<V> valueCodec;
+        private final CRC32C crc = new CRC32C();
+        private final ReusedEntry<K, V> entry = new ReusedEntry<>();
+        private final int count;
+        private int read;
+
+        private MappedByteBuffer window;
+        private long windowStart;
+        // File offset of the next block header, and the current block's state
+        private long nextBlock = HEADER_BYTES;
+        private int blockEntries;
+        private int payloadEnd;
+
+        Reader(Path file, SnapshotCodec<K> keyCodec, SnapshotCodec<V> valueCodec) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            this.keyCodec = keyCodec;
+            this.valueCodec = valueCodec;
+            try {
+                fileSize = channel.size();
+                ByteBuffer header = map(0, HEADER_BYTES);
+                if (header.getInt() != MAGIC) throw new IOException("not a snapshot: " + file);
+                int version = header.getInt();
+                if (version != VERSION) throw new IOException("unsupported snapshot version " + version);
+                long entries = header.getLong();
+                if (entries < 0 || entries > Integer.MAX_VALUE) throw new IOException("corrupt snapshot header");
+                count = (int) entries;
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        // Positions the window at file offset pos with at least length bytes after it
+        private MappedByteBuffer map(long pos, long length) throws IOException {
+            if (pos + length > fileSize) throw new EOFException("snapshot truncated");
+            if (window == null || pos < windowStart || pos + length > windowStart + window.capacity()) {
+                long size = Math.min(fileSize - pos, Math.max(WINDOW_BYTES, length));
+                window = channel.map(FileChannel.MapMode.READ_ONLY, pos, size);
+                windowStart = pos;
+            }
+            window.limit(window.capacity()).position((int) (pos - windowStart));
+            return window;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return read < count;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (read == count) throw new NoSuchElementException();
+            try {
+                if (blockEntries == 0) nextBlock();
+                entry.key = keyCodec.read(window);
+                entry.value = valueCodec.read(window);
+                if (--blockEntries == 0 && window.position() != payloadEnd) {
+                    throw new IOException("corrupt snapshot block at " + (nextBlock - BLOCK_HEADER_BYTES));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (BufferUnderflowException e) {
+                throw new UncheckedIOException(new IOException("corrupt snapshot block", e));
+            }
+            read++;
+            return entry;
+        }
+
+        private void nextBlock() throws IOException {
+            ByteBuffer header = map(nextBlock, BLOCK_HEADER_BYTES);
+            int bytes = header.getInt();
+            int entries = header.getInt();
+            int checksum = header.getInt();
+            if (bytes <= 0 || entries <= 0) throw new IOException("snapshot ends early at " + nextBlock);
+            long payload = nextBlock + BLOCK_HEADER_BYTES;
+            ByteBuffer in = map(payload, bytes);
+            int start = in.position();
+            payloadEnd = start + bytes;
+            crc.reset();
+            crc.update(in.limit(payloadEnd));
+            if ((int) crc.getValue() != checksum) throw new IOException("snapshot checksum mismatch at " + nextBlock);
+            // Entries may not run past their block
+            in.position(start);
+            blockEntries = entries;
+            nextBlock = payload + bytes;
+        }
+
+        void checkTrailer() throws IOException {
+            if (blockEntries != 0) throw new IOException("corrupt snapshot block count");
+            ByteBuffer trailer = map(nextBlock, BLOCK_HEADER_BYTES);
+            if (trailer.getInt() != 0 || trailer.getInt() != 0 || trailer.getInt() != 0
+                    || nextBlock + BLOCK_HEADER_BYTES != fileSize) {
+                throw new IOException("corrupt snapshot trailer");
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /** One entry object for the whole read, refilled by each {@code next()}. */
+    private static final class ReusedEntry<K, V> implements Map.Entry<K, V> {
+        K key;
+        V value;
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Compares restoring an {@link AVLTree} and a {@link TreapMap} from a binary
+ * snapshot with rebuilding them by calling {@code put} once per entry.
+ *
+ * <p>Arguments: entry count (default 5,000,000) and an optional directory for
+ * the snapshot file. Needs a heap of a few GB at the default size.
+ */
+public class SnapshotBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        Path dir = args.length > 1 ? Paths.get(args[1]) : Files.createTempDirectory("snapshot");
+        Path file = dir.resolve("map.snap");
+        int[] keys = Benchmark.generateData(size, "random");
+        try {
+            System.out.printf("--- Entries: %d ---%n", size);
+
+            AVLTree<Integer, Long> avl = new AVLTree<>();
+            long start = System.nanoTime();
+            for (int k : keys) avl.put(k, (long) k);
+            System.out.printf("AVLTree | Rebuild with put: %.2f ms%n", (System.nanoTime() - start) / 1e6);
+            start = System.nanoTime();
+            avl.writeSnapshot(file, SnapshotCodec.INT, SnapshotCodec.LONG);
+            System.out.printf("AVLTree | Write snapshot: %.2f ms (%d MB)%n",
+                    (System.nanoTime() - start) / 1e6, Files.size(file) >> 20);
+            avl = null;
+            start = System.nanoTime();
+            AVLTree<Integer, Long> loaded = AVLTree.loadSnapshot(file, SnapshotCodec.INT, SnapshotCodec.LONG);
+            System.out.printf("AVLTree | Load snapshot: %.2f ms (%d entries)%n",
+                    (System.nanoTime() - start) / 1e6, loaded.size());
+            loaded = null;
+
+            TreapMap<Integer, Long> treap = new TreapMap<>();
+            start = System.nanoTime();
+            for (int k : keys) treap.put(k, (long) k);
+            System.out.printf("Treap | Rebuild with put: %.2f ms%n", (System.nanoTime() - start) / 1e6);
+            start = System.nanoTime();
+            treap.writeSnapshot(file, SnapshotCodec.INT, SnapshotCodec.LONG);
+            System.out.printf("Treap | Write snapshot: %.2f ms%n", (System.nanoTime() - start) / 1e6);
+            treap = null;
+            start = System.nanoTime();
+            TreapMap<Integer, Long> loadedTreap = TreapMap.loadSnapshot(file, SnapshotCodec.INT, SnapshotCodec.LONG);
+            System.out.printf("Treap | Load snapshot: %.2f ms (%d entries)%n",
+                    (System.nanoTime() - start) / 1e6, loadedTreap.size());
+            System.out.println("-------------------------------------------------");
+        } finally {
+            Files.deleteIfExists(file);
+            if (args.length <= 1) Files.deleteIfExists(dir);
+        }
+    }
+}
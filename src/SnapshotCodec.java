@@ -0,0 +1,107 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary encoding of keys or values for {@link AVLTree#writeSnapshot} and
+ * {@link TreapMap#writeSnapshot} snapshots and for {@link ChangeLog}s.
+ * {@link #write} must produce exactly {@link #size} bytes, and {@link #read}
+ * must consume exactly what {@code write} produced.
+ */
+public interface SnapshotCodec<T> {
+
+    /** Returns the number of bytes {@link #write} produces for {@code value}. */
+    int size(T value);
+
+    void write(T value, ByteBuffer out);
+
+    T read(ByteBuffer in);
+
+    SnapshotCodec<Integer> INT = new SnapshotCodec<>() {
+        @Override
+        public int size(Integer value) {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public void write(Integer value, ByteBuffer out) {
+            out.putInt(value);
+        }
+
+        @Override
+        public Integer read(ByteBuffer in) {
+            return in.getInt();
+        }
+    };
+
+    SnapshotCodec<Long> LONG = new SnapshotCodec<>() {
+        @Override
+        public int size(Long value) {
+            return Long.BYTES;
+        }
+
+        @Override
+        public void write(Long value, ByteBuffer out) {
+            out.putLong(value);
+        }
+
+        @Override
+        public Long read(ByteBuffer in) {
+            return in.getLong();
+        }
+    };
+
+    /**
+     * Length-prefixed UTF-8. Encodes straight from the chars, so writing needs
+     * no intermediate byte array; unpaired surrogates become '?' as in
+     * {@link String#getBytes}.
+     */
+    SnapshotCodec<String> STRING = new SnapshotCodec<>() {
+        @Override
+        public int size(String value) {
+            int bytes = 0;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) bytes += 1;
+                else if (c < 0x800) bytes += 2;
+                else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    bytes += 4;
+                    i++;
+                } else if (Character.isSurrogate(c)) bytes += 1;
+                else bytes += 3;
+            }
+            return Integer.BYTES + bytes;
+        }
+
+        @Override
+        public void write(String value, ByteBuffer out) {
+            int lengthAt = out.position();
+            out.putInt(0);
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    out.put((byte) c);
+                } else if (c < 0x800) {
+                    out.put((byte) (0xC0 | c >> 6)).put((byte) (0x80 | c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, value.charAt(++i));
+                    out.put((byte) (0xF0 | cp >> 18)).put((byte) (0x80 | cp >> 12 & 0x3F))
+                            .put((byte) (0x80 | cp >> 6 & 0x3F)).put((byte) (0x80 | cp & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    out.put((byte) '?');
+                } else {
+                    out.put((byte) (0xE0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3F)).put((byte) (0x80 | c & 0x3F));
+                }
+            }
+            out.putInt(lengthAt, out.position() - lengthAt - Integer.BYTES);
+        }
+
+        @Override
+        public String read(ByteBuffer in) {
+            byte[] bytes = new byte[in.getInt()];
+            in.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+}
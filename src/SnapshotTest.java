@@ -0,0 +1,125 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnapshotTest {
+
+    @TempDir
+    Path dir;
+    private Path snapshot;
+    private Path log;
+
+    @BeforeEach
+    public void setUp() {
+        snapshot = dir.resolve("map.snap");
+        log = dir.resolve("map.log");
+    }
+
+    @Test
+    public void testAVLTreeRoundTrip() throws IOException {
+        // Enough entries for several blocks
+        AVLTree<Integer, String> avl = new AVLTree<>();
+        for (int i = 0; i < 200_000; i++) avl.put(i * 3, "value " + i);
+        avl.writeSnapshot(snapshot, SnapshotCodec.INT, SnapshotCodec.STRING);
+        AVLTree<Integer, String> loaded = AVLTree.loadSnapshot(snapshot, SnapshotCodec.INT, SnapshotCodec.STRING);
+        assertEquals(new ArrayList<>(avl.entrySet()), new ArrayList<>(loaded.entrySet()));
+        assertEquals(200_000, loaded.size());
+        assertEquals(100, loaded.rank(300));
+        assertFalse(Files.exists(dir.resolve("map.snap.tmp")));
+    }
+
+    @Test
+    public void testTreapMapRoundTrip() throws IOException {
+        TreapMap<String, Long> treap = new TreapMap<>();
+        for (String s : List.of("alpha", "bêta", "γάμμα", "🌲 tree", "")) treap.put(s, (long) s.length());
+        treap.writeSnapshot(snapshot, SnapshotCodec.STRING, SnapshotCodec.LONG);
+        TreapMap<String, Long> loaded = TreapMap.loadSnapshot(snapshot, SnapshotCodec.STRING, SnapshotCodec.LONG);
+        assertEquals(new ArrayList<>(treap.entrySet()), new ArrayList<>(loaded.entrySet()));
+    }
+
+    @Test
+    public void testEmptyMapRoundTrip() throws IOException {
+        new TreapMap<Integer, Integer>().writeSnapshot(snapshot, SnapshotCodec.INT, SnapshotCodec.INT);
+        assertTrue(AVLTree.loadSnapshot(snapshot, SnapshotCodec.INT, SnapshotCodec.INT).isEmpty());
+    }
+
+    @Test
+    public void testCorruptionIsDetected() throws IOException {
+        AVLTree<Integer, Integer> avl = new AVLTree<>();
+        for (int i = 0; i < 1000; i++) avl.put(i, i);
+        avl.writeSnapshot(snapshot, SnapshotCodec.INT, SnapshotCodec.INT);
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{42}), 100);
+        }
+        assertThrows(IOException.class, () -> AVLTree.loadSnapshot(snapshot, SnapshotCodec.INT, SnapshotCodec.INT));
+    }
+
+    @Test
+    public void testTruncationIsDetected() throws IOException {
+        TreapMap<Integer, Integer> treap = new TreapMap<>();
+        for (int i = 0; i < 1000; i++) treap.put(i, i);
+        treap.writeSnapshot(snapshot, SnapshotCodec.INT, SnapshotCodec.INT);
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 4);
+        }
+        assertThrows(IOException.class, () -> TreapMap.loadSnapshot(snapshot, SnapshotCodec.INT, SnapshotCodec.INT));
+    }
+
+    @Test
+    public void testChangeLogReplay() throws IOException {
+        AVLTree<Integer, String> avl = new AVLTree<>();
+        for (int i = 0; i < 10; i++) avl.put(i, "v" + i);
+        avl.writeSnapshot(snapshot, SnapshotCodec.INT, SnapshotCodec.STRING);
+        try (ChangeLog<Integer, String> changes = new ChangeLog<>(log, SnapshotCodec.INT, SnapshotCodec.STRING)) {
+            changes.put(3, "three");
+            changes.remove(4);
+            changes.put(42, "forty-two");
+        }
+        AVLTree<Integer, String> loaded = AVLTree.loadSnapshot(snapshot, log, SnapshotCodec.INT, SnapshotCodec.STRING);
+        assertEquals("three", loaded.get(3));
+        assertFalse(loaded.containsKey(4));
+        assertEquals("forty-two", loaded.get(42));
+        assertEquals(10, loaded.size());
+    }
+
+    @Test
+    public void testChangeLogDropsTornTail() throws IOException {
+        try (ChangeLog<Integer, Integer> changes = new ChangeLog<>(log, SnapshotCodec.INT, SnapshotCodec.INT)) {
+            changes.put(1, 10);
+            changes.put(2, 20);
+        }
+        long intact = Files.size(log);
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            channel.truncate(intact - 3);
+        }
+        TreapMap<Integer, Integer> map = new TreapMap<>();
+        assertEquals(1, ChangeLog.replay(log, map, SnapshotCodec.INT, SnapshotCodec.INT));
+        assertEquals(Map.of(1, 10), new HashMap<>(map));
+        try (ChangeLog<Integer, Integer> changes = new ChangeLog<>(log, SnapshotCodec.INT, SnapshotCodec.INT)) {
+            changes.put(3, 30);
+        }
+        assertEquals(2, ChangeLog.replay(log, map, SnapshotCodec.INT, SnapshotCodec.INT));
+        assertEquals(Map.of(1, 10, 3, 30), new HashMap<>(map));
+    }
+
+    @Test
+    public void testChangeLogTruncate() throws IOException {
+        try (ChangeLog<Integer, Integer> changes = new ChangeLog<>(log, SnapshotCodec.INT, SnapshotCodec.INT)) {
+            changes.put(1, 10);
+            changes.sync();
+            changes.truncate();
+            changes.put(2, 20);
+        }
+        TreapMap<Integer, Integer> map = new TreapMap<>();
+        assertEquals(1, ChangeLog.replay(log, map, SnapshotCodec.INT, SnapshotCodec.INT));
+        assertEquals(Map.of(2, 20), new HashMap<>(map));
+    }
+}
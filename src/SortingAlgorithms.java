@@ -1,53 +1,1069 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
 public class SortingAlgorithms {
 
 
 
 
+    /**
+     * Natural mergesort of {@code arr[p, r]}. Allocates at most one scratch
+     * buffer, and only if the range is not already sorted; use
+     * {@link #mergeSort(int[], int, int, int[])} to supply a reusable one.
+     */
     public static void mergeSort(int[] arr, int p, int r) {
-        if (p < r) {
-            int q = (p + r) / 2;
-            mergeSort(arr, p, q);
-            mergeSort(arr, q + 1, r);
-            merge(arr, p, q, r);
+        if (p < r) naturalMergeSort(arr, p, r + 1, null, 0);
+    }
+
+    /**
+     * Natural mergesort of {@code arr[p, r]} that allocates nothing, using
+     * {@code buffer[0, r - p + 1)} as scratch.
+     *
+     * <p>Existing ascending runs are kept and strictly descending runs are
+     * reversed in place. Runs shorter than 32 elements are extended with
+     * insertion sort. Merge passes then alternate between the array and the
+     * buffer, so each level moves every element once and nothing is copied
+     * back between levels. Merges skip the prefix and suffix that are already
+     * in place, and switch to galloping (exponential search plus a bulk copy)
+     * when one run keeps winning. Presorted inputs therefore sort in
+     * near-linear time.
+     *
+     * @throws IllegalArgumentException if {@code buffer} is shorter than the range
+     */
+    public static void mergeSort(int[] arr, int p, int r, int[] buffer) {
+        if (p >= r) return;
+        if (buffer.length < r - p + 1) throw new IllegalArgumentException("buffer shorter than range");
+        naturalMergeSort(arr, p, r + 1, buffer, 0);
+    }
+
+    private static final int MIN_GALLOP = 7;
+
+    /**
+     * Sorts {@code arr[lo, hi)} using {@code buf[off, off + hi - lo)} as
+     * scratch; a null {@code buf} is allocated on the first merge.
+     */
+    private static void naturalMergeSort(int[] arr, int lo, int hi, int[] buf, int off) {
+        int n = hi - lo;
+        // Normalize into ascending runs of at least INSERTION_SORT_THRESHOLD
+        for (int start = lo; start < hi; ) {
+            int end = start + 1;
+            if (end < hi && arr[end] < arr[start]) {
+                while (end < hi && arr[end] < arr[end - 1]) end++;
+                reverse(arr, start, end - 1);
+            } else {
+                while (end < hi && arr[end] >= arr[end - 1]) end++;
+            }
+            if (end - start < INSERTION_SORT_THRESHOLD) {
+                end = Math.min(hi, start + INSERTION_SORT_THRESHOLD);
+                insertionSort(arr, start, end - 1);
+            }
+            start = end;
         }
+        if (runEnd(arr, lo, 0, n) == n) return;
+        if (buf == null) buf = new int[n];
+
+        // Merge adjacent runs pairwise, ping-ponging between arr and buf
+        int[] src = arr, dst = buf;
+        int srcBase = lo, dstBase = off;
+        while (true) {
+            int k = 0;
+            int mid = runEnd(src, srcBase, 0, n);
+            if (mid == n) break;
+            while (k < n) {
+                if (mid == n) {
+                    System.arraycopy(src, srcBase + k, dst, dstBase + k, n - k);
+                    break;
+                }
+                int end = runEnd(src, srcBase, mid, n);
+                gallopingMerge(src, srcBase + k, srcBase + mid, srcBase + end, dst, dstBase + k);
+                k = end;
+                if (k < n) mid = runEnd(src, srcBase, k, n);
+            }
+            int[] t = src; src = dst; dst = t;
+            int b = srcBase; srcBase = dstBase; dstBase = b;
+        }
+        if (src != arr) System.arraycopy(src, srcBase, arr, lo, n);
     }
 
-    private static void merge(int[] arr, int p, int q, int r) {
-        int n1 = q - p + 1;
-        int n2 = r - q;
-        int[] L = new int[n1 + 1];
-        int[] R = new int[n2 + 1];
+    /** End (exclusive, relative to {@code base}) of the ascending run starting at {@code from}. */
+    private static int runEnd(int[] a, int base, int from, int n) {
+        int i = from + 1;
+        while (i < n && a[base + i] >= a[base + i - 1]) i++;
+        return i;
+    }
 
-        for (int i = 0; i < n1; i++) L[i] = arr[p + i];
-        for (int j = 0; j < n2; j++) R[j] = arr[q + 1 + j];
-        L[n1] = Integer.MAX_VALUE;
-        R[n2] = Integer.MAX_VALUE;
+    /**
+     * Stable merge of the ascending runs {@code src[lo, mid)} and
+     * {@code src[mid, hi)} into {@code dst} starting at {@code out}.
+     */
+    private static void gallopingMerge(int[] src, int lo, int mid, int hi, int[] dst, int out) {
+        // Elements of the first run not above the second run's head, and of
+        // the second run not below the first run's tail, are already placed
+        int i = gallopUpper(src, lo, mid, src[mid]);
+        System.arraycopy(src, lo, dst, out, i - lo);
+        out += i - lo;
+        int end2 = gallopLower(src, mid, hi, src[mid - 1]);
+        int j = mid;
+        while (i < mid && j < end2) {
+            // Plain branch-light merge in short bursts; a burst taken entirely
+            // from one run means that run is winning, so gallop through it
+            int i0 = i, j0 = j;
+            for (int step = 0; step < MIN_GALLOP && i < mid && j < end2; step++) {
+                dst[out++] = src[j] < src[i] ? src[j++] : src[i++];
+            }
+            if (i < mid && j < end2) {
+                if (i - i0 == MIN_GALLOP) {
+                    int stop = gallopUpper(src, i, mid, src[j]);
+                    System.arraycopy(src, i, dst, out, stop - i);
+                    out += stop - i;
+                    i = stop;
+                } else if (j - j0 == MIN_GALLOP) {
+                    int stop = gallopLower(src, j, end2, src[i]);
+                    System.arraycopy(src, j, dst, out, stop - j);
+                    out += stop - j;
+                    j = stop;
+                }
+            }
+        }
+        System.arraycopy(src, i, dst, out, mid - i);
+        out += mid - i;
+        System.arraycopy(src, j, dst, out, hi - j);
+    }
 
-        int i = 0, j = 0;
-        for (int k = p; k <= r; k++) {
-            if (L[i] <= R[j]) arr[k] = L[i++];
-            else arr[k] = R[j++];
+    /** First index in sorted {@code a[from, to)} holding a value greater than {@code key}, by exponential search. */
+    private static int gallopUpper(int[] a, int from, int to, int key) {
+        int step = 1, lo = from, hi = from;
+        while (hi < to && a[hi] <= key) {
+            lo = hi + 1;
+            hi = from + step;
+            step <<= 1;
+        }
+        hi = Math.min(hi, to);
+        while (lo < hi) {
+            int m = (lo + hi) >>> 1;
+            if (a[m] <= key) lo = m + 1;
+            else hi = m;
         }
+        return lo;
+    }
+
+    /** First index in sorted {@code a[from, to)} holding a value not less than {@code key}, by exponential search. */
+    private static int gallopLower(int[] a, int from, int to, int key) {
+        int step = 1, lo = from, hi = from;
+        while (hi < to && a[hi] < key) {
+            lo = hi + 1;
+            hi = from + step;
+            step <<= 1;
+        }
+        hi = Math.min(hi, to);
+        while (lo < hi) {
+            int m = (lo + hi) >>> 1;
+            if (a[m] < key) lo = m + 1;
+            else hi = m;
+        }
+        return lo;
+    }
+
+    private static void reverse(int[] arr, int i, int j) {
+        while (i < j) swap(arr, i++, j--);
     }
 
+    /**
+     * Introsort: quicksort with a median-of-three (ninther for larger ranges)
+     * pivot and Bentley-McIlroy 3-way partitioning, so runs of equal keys are
+     * set aside in one pass. Ranges below a small cutoff go to insertion sort.
+     * Recursion only goes into the smaller side, and once the depth passes
+     * 2 log n the range is finished with heapsort. That bounds the stack to
+     * O(log n) and the worst case to O(n log n).
+     */
     public static void quickSort(int[] arr, int p, int r) {
-        if (p < r) {
-            int q = partition(arr, p, r);
-            quickSort(arr, p, q - 1);
-            quickSort(arr, q + 1, r);
+        if (p < r) introSort(arr, p, r, 2 * log2(r - p + 1));
+    }
+
+    private static void introSort(int[] arr, int lo, int hi, int depthLimit) {
+        while (hi - lo >= INSERTION_SORT_THRESHOLD) {
+            if (depthLimit-- == 0) {
+                heapSort(arr, lo, hi);
+                return;
+            }
+            long bounds = partition3(arr, lo, hi);
+            int lt = (int) (bounds >> 32), gt = (int) bounds;
+            if (lt - lo < hi - gt) {
+                introSort(arr, lo, lt, depthLimit);
+                lo = gt;
+            } else {
+                introSort(arr, gt, hi, depthLimit);
+                hi = lt;
+            }
+        }
+        insertionSort(arr, lo, hi);
+    }
+
+    /**
+     * Bentley-McIlroy 3-way partition of {@code arr[lo, hi]}. Keys equal to the
+     * pivot are parked at both ends during the scan and swapped into the middle
+     * afterwards. Returns {@code lt} in the high word and {@code gt} in the low
+     * word, where {@code [lo, lt]} holds the smaller keys and {@code [gt, hi]}
+     * the larger ones.
+     */
+    private static long partition3(int[] arr, int lo, int hi) {
+        swap(arr, lo, choosePivot(arr, lo, hi));
+        int v = arr[lo];
+        int i = lo, j = hi + 1;
+        int p = lo, q = hi + 1;
+        while (true) {
+            while (arr[++i] < v) if (i == hi) break;
+            while (v < arr[--j]) if (j == lo) break;
+            if (i == j && arr[i] == v) swap(arr, ++p, i);
+            if (i >= j) break;
+            swap(arr, i, j);
+            if (arr[i] == v) swap(arr, ++p, i);
+            if (arr[j] == v) swap(arr, --q, j);
+        }
+        i = j + 1;
+        for (int k = lo; k <= p; k++) swap(arr, k, j--);
+        for (int k = hi; k >= q; k--) swap(arr, k, i++);
+        return ((long) j << 32) | (i & 0xFFFFFFFFL);
+    }
+
+    /** Median of three for small ranges, Tukey's ninther (median of three medians) for larger ones. */
+    private static int choosePivot(int[] arr, int lo, int hi) {
+        int n = hi - lo + 1;
+        int mid = lo + (n >>> 1);
+        if (n < 40) return median3(arr, lo, mid, hi);
+        int eps = n >>> 3;
+        int a = median3(arr, lo, lo + eps, lo + eps + eps);
+        int b = median3(arr, mid - eps, mid, mid + eps);
+        int c = median3(arr, hi - eps - eps, hi - eps, hi);
+        return median3(arr, a, b, c);
+    }
+
+    private static int median3(int[] arr, int i, int j, int k) {
+        return arr[i] < arr[j]
+                ? (arr[j] < arr[k] ? j : arr[i] < arr[k] ? k : i)
+                : (arr[k] < arr[j] ? j : arr[k] < arr[i] ? k : i);
+    }
+
+    private static void heapSort(int[] arr, int lo, int hi) {
+        int n = hi - lo + 1;
+        for (int i = n / 2 - 1; i >= 0; i--) siftDown(arr, lo, i, n);
+        for (int end = n - 1; end > 0; end--) {
+            swap(arr, lo, lo + end);
+            siftDown(arr, lo, 0, end);
         }
     }
 
-    private static int partition(int[] arr, int p, int r) {
-        int pivot = arr[r];
-        int i = p - 1;
-        for (int j = p; j < r; j++) {
-            if (arr[j] <= pivot) {
-                i++;
-                int temp = arr[i]; arr[i] = arr[j]; arr[j] = temp;
+    private static void siftDown(int[] arr, int base, int i, int n) {
+        int x = arr[base + i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= n) break;
+            if (child + 1 < n && arr[base + child + 1] > arr[base + child]) child++;
+            if (arr[base + child] <= x) break;
+            arr[base + i] = arr[base + child];
+            i = child;
+        }
+        arr[base + i] = x;
+    }
+
+    private static int log2(int n) {
+        return 31 - Integer.numberOfLeadingZeros(n);
+    }
+
+    // Parallel fork/join sorts
+
+    /** Ranges at or below this size are sorted sequentially by the parallel sorts. */
+    public static final int DEFAULT_PARALLEL_CUTOFF = 1 << 13;
+
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
+    public static void parallelMergeSort(int[] arr) {
+        parallelMergeSort(arr, ForkJoinPool.commonPool(), DEFAULT_PARALLEL_CUTOFF);
+    }
+
+    /**
+     * Fork/join mergesort. Both halves are sorted in parallel and then merged
+     * with a parallel merge, so no single step is serial over the whole array.
+     * Sorted runs ping-pong between {@code arr} and one scratch array instead
+     * of being copied back after every merge.
+     *
+     * @param cutoff ranges of at most this many elements are sorted, or
+     *               merged, sequentially
+     */
+    public static void parallelMergeSort(int[] arr, ForkJoinPool pool, int cutoff) {
+        if (cutoff < 1) throw new IllegalArgumentException("cutoff < 1");
+        if (arr.length < 2) return;
+        pool.invoke(new MergeSortTask(arr, new int[arr.length], 0, arr.length, false, cutoff));
+    }
+
+    public static void parallelQuickSort(int[] arr) {
+        parallelQuickSort(arr, ForkJoinPool.commonPool(), DEFAULT_PARALLEL_CUTOFF);
+    }
+
+    /**
+     * Fork/join version of {@link #quickSort}. Each partition step forks both
+     * sides, and ranges at or below the cutoff run the sequential introsort.
+     * The depth limit carries across the forks, so the heapsort fallback
+     * still bounds the worst case.
+     *
+     * @param cutoff ranges of at most this many elements are sorted sequentially
+     */
+    public static void parallelQuickSort(int[] arr, ForkJoinPool pool, int cutoff) {
+        if (cutoff < 1) throw new IllegalArgumentException("cutoff < 1");
+        if (arr.length < 2) return;
+        pool.invoke(new QuickSortTask(arr, 0, arr.length - 1, 2 * log2(arr.length), cutoff));
+    }
+
+    /** Sorts {@code a[lo, hi)}, leaving the result in {@code b} if {@code intoB} and in {@code a} otherwise. */
+    private static final class MergeSortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] a, b;
+        private final int lo, hi;
+        private final boolean intoB;
+        private final int cutoff;
+
+        MergeSortTask(int[] a, int[] b, int lo, int hi, boolean intoB, int cutoff) {
+            this.a = a;
+            this.b = b;
+            this.lo = lo;
+            this.hi = hi;
+            this.intoB = intoB;
+            this.cutoff = cutoff;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= cutoff) {
+                naturalMergeSort(a, lo, hi, b, lo);
+                if (intoB) System.arraycopy(a, lo, b, lo, hi - lo);
+                return;
             }
+            int mid = (lo + hi) >>> 1;
+            // Children leave their halves in the other array, which this level merges from
+            invokeAll(new MergeSortTask(a, b, lo, mid, !intoB, cutoff),
+                    new MergeSortTask(a, b, mid, hi, !intoB, cutoff));
+            int[] src = intoB ? a : b, dst = intoB ? b : a;
+            new MergeTask(src, lo, mid, mid, hi, dst, lo, cutoff).compute();
         }
-        int temp = arr[i + 1]; arr[i + 1] = arr[r]; arr[r] = temp;
-        return i + 1;
+    }
+
+    /**
+     * Merges the sorted runs {@code src[lo1, hi1)} and {@code src[lo2, hi2)} into
+     * {@code dst} starting at {@code out}. Large merges take the median of the
+     * longer run, binary-search its position in the shorter one and merge the
+     * two sides in parallel.
+     */
+    private static final class MergeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] src, dst;
+        private final int lo1, hi1, lo2, hi2, out;
+        private final int cutoff;
+
+        MergeTask(int[] src, int lo1, int hi1, int lo2, int hi2, int[] dst, int out, int cutoff) {
+            this.src = src;
+            this.lo1 = lo1;
+            this.hi1 = hi1;
+            this.lo2 = lo2;
+            this.hi2 = hi2;
+            this.dst = dst;
+            this.out = out;
+            this.cutoff = cutoff;
+        }
+
+        @Override
+        protected void compute() {
+            int n1 = hi1 - lo1, n2 = hi2 - lo2;
+            if (n1 + n2 <= cutoff) {
+                sequentialMerge(src, lo1, hi1, lo2, hi2, dst, out);
+                return;
+            }
+            if (n1 < n2) {
+                new MergeTask(src, lo2, hi2, lo1, hi1, dst, out, cutoff).compute();
+                return;
+            }
+            int mid1 = (lo1 + hi1) >>> 1;
+            int pivot = src[mid1];
+            int mid2 = lowerBound(src, lo2, hi2, pivot);
+            int split = out + (mid1 - lo1) + (mid2 - lo2);
+            dst[split] = pivot;
+            invokeAll(new MergeTask(src, lo1, mid1, lo2, mid2, dst, out, cutoff),
+                    new MergeTask(src, mid1 + 1, hi1, mid2, hi2, dst, split + 1, cutoff));
+        }
+    }
+
+    /** Sorts {@code arr[lo, hi]} (inclusive, like {@link #quickSort}). */
+    private static final class QuickSortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] arr;
+        private final int lo, hi;
+        private final int depthLimit;
+        private final int cutoff;
+
+        QuickSortTask(int[] arr, int lo, int hi, int depthLimit, int cutoff) {
+            this.arr = arr;
+            this.lo = lo;
+            this.hi = hi;
+            this.depthLimit = depthLimit;
+            this.cutoff = cutoff;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo < cutoff || depthLimit == 0) {
+                introSort(arr, lo, hi, depthLimit);
+                return;
+            }
+            long bounds = partition3(arr, lo, hi);
+            int lt = (int) (bounds >> 32), gt = (int) bounds;
+            invokeAll(new QuickSortTask(arr, lo, lt, depthLimit - 1, cutoff),
+                    new QuickSortTask(arr, gt, hi, depthLimit - 1, cutoff));
+        }
+    }
+
+    private static void sequentialMerge(int[] src, int lo1, int hi1, int lo2, int hi2, int[] dst, int out) {
+        while (lo1 < hi1 && lo2 < hi2) dst[out++] = src[lo1] <= src[lo2] ? src[lo1++] : src[lo2++];
+        System.arraycopy(src, lo1, dst, out, hi1 - lo1);
+        System.arraycopy(src, lo2, dst, out + hi1 - lo1, hi2 - lo2);
+    }
+
+    /** Index of the first element in {@code a[lo, hi)} that is not less than {@code key}. */
+    private static int lowerBound(int[] a, int lo, int hi, int key) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // Radix and counting sorts
+
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX = 1 << RADIX_BITS;
+    private static final int RADIX_MASK = RADIX - 1;
+
+    /** Below this many elements a radix sort's histogram setup outweighs the comparisons saved. */
+    private static final int RADIX_THRESHOLD = 256;
+
+    public static void radixSort(int[] arr) {
+        if (arr.length < RADIX_THRESHOLD) {
+            quickSort(arr, 0, arr.length - 1);
+            return;
+        }
+        radixSort(arr, new int[arr.length]);
+    }
+
+    /**
+     * LSD radix sort on 8-bit digits, using {@code buffer[0, arr.length)} as
+     * scratch. A single pass builds the histograms for all four digits. Digits
+     * where every element falls into the same bucket are skipped, so narrow or
+     * clustered keys take fewer than four scatter passes. The top digit is
+     * read with its sign bit flipped, which orders negative keys first.
+     *
+     * @throws IllegalArgumentException if {@code buffer} is shorter than {@code arr}
+     */
+    public static void radixSort(int[] arr, int[] buffer) {
+        if (buffer.length < arr.length) throw new IllegalArgumentException("buffer shorter than array");
+        lsdRadixSort(arr, buffer, 0, arr.length, Integer.BYTES);
+    }
+
+    /**
+     * Radix sorts {@code arr[p, r]}, using the same index range of
+     * {@code buffer} as scratch.
+     *
+     * @throws IllegalArgumentException if {@code buffer} does not reach index {@code r}
+     */
+    public static void radixSort(int[] arr, int p, int r, int[] buffer) {
+        if (buffer.length <= r) throw new IllegalArgumentException("buffer shorter than range");
+        if (p < r) lsdRadixSort(arr, buffer, p, r + 1, Integer.BYTES);
+    }
+
+    public static void radixSort(long[] arr) {
+        radixSort(arr, new long[arr.length]);
+    }
+
+    /** {@code long} version of {@link #radixSort(int[], int[])}, over eight 8-bit digits. */
+    public static void radixSort(long[] arr, long[] buffer) {
+        if (buffer.length < arr.length) throw new IllegalArgumentException("buffer shorter than array");
+        int n = arr.length;
+        if (n < 2) return;
+        int digits = Long.BYTES;
+        int[][] counts = new int[digits][RADIX];
+        for (long x : arr) {
+            for (int d = 0; d < digits; d++) counts[d][longDigit(x, d)]++;
+        }
+        long[] src = arr, dst = buffer;
+        for (int d = 0; d < digits; d++) {
+            int[] count = counts[d];
+            if (count[longDigit(src[0], d)] == n) continue;
+            toOffsets(count);
+            for (int i = 0; i < n; i++) {
+                long x = src[i];
+                dst[count[longDigit(x, d)]++] = x;
+            }
+            long[] t = src; src = dst; dst = t;
+        }
+        if (src != arr) System.arraycopy(src, 0, arr, 0, n);
+    }
+
+    /**
+     * Counting sort: one pass to find the key range, one to count, one to
+     * write the keys back. Linear when the range is small. If the range is
+     * more than a few times larger than the array, it hands off to
+     * {@link #radixSort(int[])} instead of allocating a huge count table.
+     */
+    public static void countingSort(int[] arr) {
+        if (arr.length < 2) return;
+        int min = arr[0], max = arr[0];
+        for (int x : arr) {
+            if (x < min) min = x;
+            else if (x > max) max = x;
+        }
+        long range = (long) max - min + 1;
+        if (range > Math.max(4L * arr.length, RADIX)) {
+            radixSort(arr);
+            return;
+        }
+        int[] count = new int[(int) range];
+        for (int x : arr) count[x - min]++;
+        int k = 0;
+        for (int v = 0; v < count.length; v++) {
+            for (int c = count[v]; c > 0; c--) arr[k++] = min + v;
+        }
+    }
+
+    public static void parallelRadixSort(int[] arr) {
+        parallelRadixSort(arr, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Parallel MSD radix sort. Chunks of the array first find the key range in
+     * parallel, and the 8-bit split digit is taken from the top of that range
+     * rather than from the top byte, so dense or narrow keys still spread over
+     * all 256 buckets. The chunks then build their histograms and scatter in
+     * parallel into disjoint slices of a buffer. Each bucket is an independent
+     * problem: buckets are sorted concurrently with the LSD sort, and a bucket
+     * holding more than its share of the array for one thread gets another
+     * MSD pass on its own range.
+     */
+    public static void parallelRadixSort(int[] arr, ForkJoinPool pool) {
+        if (arr.length < DEFAULT_PARALLEL_CUTOFF) {
+            radixSort(arr);
+            return;
+        }
+        int parallelism = pool.getParallelism();
+        pool.invoke(new MsdRadixTask(arr, new int[arr.length], 0, arr.length, parallelism,
+                Math.max(DEFAULT_PARALLEL_CUTOFF, arr.length / parallelism)));
+    }
+
+    /**
+     * Shift that maps keys whose unsigned offsets from the minimum span
+     * {@code [0, range]} onto 8-bit bucket numbers, using the top digit of the
+     * range.
+     */
+    static int msdShift(long range) {
+        return Math.max(0, Long.SIZE - Long.numberOfLeadingZeros(range) - RADIX_BITS);
+    }
+
+    /** Sorts {@code a[lo, hi)}, using {@code b[lo, hi)} as scratch. */
+    private static final class MsdRadixTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] a, b;
+        private final int lo, hi;
+        private final int parallelism;
+        // Buckets larger than this get another MSD pass instead of the LSD sort
+        private final int splitSize;
+
+        // The pool's parallelism is passed in because getPool() is null when
+        // the submitting thread runs the task itself
+        MsdRadixTask(int[] a, int[] b, int lo, int hi, int parallelism, int splitSize) {
+            this.a = a;
+            this.b = b;
+            this.lo = lo;
+            this.hi = hi;
+            this.parallelism = parallelism;
+            this.splitSize = splitSize;
+        }
+
+        @Override
+        protected void compute() {
+            int n = hi - lo;
+            int chunks = Math.max(1, Math.min(parallelism * 4, n / DEFAULT_PARALLEL_CUTOFF));
+
+            // Per-chunk minimum and maximum, compared as unsigned with the sign bit flipped
+            long[] mins = new long[chunks], maxes = new long[chunks];
+            List<RecursiveAction> tasks = new ArrayList<>();
+            for (int c = 0; c < chunks; c++) {
+                int chunk = c;
+                tasks.add(action(() -> {
+                    long min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+                    for (int i = chunkStart(chunk, chunks), end = chunkStart(chunk + 1, chunks); i < end; i++) {
+                        long u = unsigned(a[i]);
+                        if (u < min) min = u;
+                        if (u > max) max = u;
+                    }
+                    mins[chunk] = min;
+                    maxes[chunk] = max;
+                }));
+            }
+            invokeAll(tasks);
+            long min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+            for (int c = 0; c < chunks; c++) {
+                min = Math.min(min, mins[c]);
+                max = Math.max(max, maxes[c]);
+            }
+            if (min == max) return;
+            long base = min;
+            int shift = msdShift(max - min);
+
+            // Per-chunk histograms of the split digit
+            int[][] counts = new int[chunks][RADIX];
+            tasks.clear();
+            for (int c = 0; c < chunks; c++) {
+                int chunk = c;
+                tasks.add(action(() -> {
+                    int[] count = counts[chunk];
+                    for (int i = chunkStart(chunk, chunks), end = chunkStart(chunk + 1, chunks); i < end; i++) {
+                        count[(int) ((unsigned(a[i]) - base) >>> shift)]++;
+                    }
+                }));
+            }
+            invokeAll(tasks);
+
+            // Bucket-major, chunk-minor offsets so every chunk scatters into its own slots
+            int[] bucketStart = new int[RADIX + 1];
+            int offset = lo;
+            for (int d = 0; d < RADIX; d++) {
+                bucketStart[d] = offset;
+                for (int c = 0; c < chunks; c++) {
+                    int count = counts[c][d];
+                    counts[c][d] = offset;
+                    offset += count;
+                }
+            }
+            bucketStart[RADIX] = hi;
+
+            tasks.clear();
+            for (int c = 0; c < chunks; c++) {
+                int chunk = c;
+                tasks.add(action(() -> {
+                    int[] next = counts[chunk];
+                    for (int i = chunkStart(chunk, chunks), end = chunkStart(chunk + 1, chunks); i < end; i++) {
+                        int x = a[i];
+                        b[next[(int) ((unsigned(x) - base) >>> shift)]++] = x;
+                    }
+                }));
+            }
+            invokeAll(tasks);
+
+            // Buckets are now disjoint ranges of b; sort each and move it back
+            tasks.clear();
+            for (int d = 0; d < RADIX; d++) {
+                int from = bucketStart[d], to = bucketStart[d + 1];
+                if (to == from) continue;
+                boolean split = to - from > splitSize;
+                tasks.add(action(() -> {
+                    // Digits the bucket's keys share are skipped by the LSD sort
+                    if (split) new MsdRadixTask(b, a, from, to, parallelism, splitSize).compute();
+                    else lsdRadixSort(b, a, from, to, Integer.BYTES);
+                    System.arraycopy(b, from, a, from, to - from);
+                }));
+            }
+            invokeAll(tasks);
+        }
+
+        private int chunkStart(int chunk, int chunks) {
+            return lo + (int) ((long) (hi - lo) * chunk / chunks);
+        }
+
+        private static long unsigned(int x) {
+            return (x ^ Integer.MIN_VALUE) & 0xFFFFFFFFL;
+        }
+
+        private static RecursiveAction action(Runnable body) {
+            return new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    body.run();
+                }
+            };
+        }
+    }
+
+    /**
+     * Sorts {@code a[lo, hi)} on its low {@code digits} 8-bit digits, using
+     * {@code buf[lo, hi)} as scratch. The result always ends up back in {@code a}.
+     */
+    private static void lsdRadixSort(int[] a, int[] buf, int lo, int hi, int digits) {
+        int n = hi - lo;
+        if (n < RADIX_THRESHOLD) {
+            // Any skipped high digits are shared, so plain int order matches digit order
+            quickSort(a, lo, hi - 1);
+            return;
+        }
+        int[][] counts = new int[digits][RADIX];
+        for (int i = lo; i < hi; i++) {
+            int x = a[i];
+            for (int d = 0; d < digits; d++) counts[d][intDigit(x, d)]++;
+        }
+        int[] src = a, dst = buf;
+        for (int d = 0; d < digits; d++) {
+            int[] count = counts[d];
+            if (count[intDigit(src[lo], d)] == n) continue;
+            toOffsets(count);
+            for (int i = 0; i < RADIX; i++) count[i] += lo;
+            for (int i = lo; i < hi; i++) {
+                int x = src[i];
+                dst[count[intDigit(x, d)]++] = x;
+            }
+            int[] t = src; src = dst; dst = t;
+        }
+        if (src != a) System.arraycopy(src, lo, a, lo, n);
+    }
+
+    /** Turns bucket counts into starting offsets in place. */
+    private static void toOffsets(int[] count) {
+        int sum = 0;
+        for (int i = 0; i < count.length; i++) {
+            int c = count[i];
+            count[i] = sum;
+            sum += c;
+        }
+    }
+
+    // Digit d of x, with the sign bit flipped on the top digit so negatives sort first
+    private static int intDigit(int x, int d) {
+        int digit = (x >>> (d * RADIX_BITS)) & RADIX_MASK;
+        return d == Integer.BYTES - 1 ? digit ^ 0x80 : digit;
+    }
+
+    private static int longDigit(long x, int d) {
+        int digit = (int) (x >>> (d * RADIX_BITS)) & RADIX_MASK;
+        return d == Long.BYTES - 1 ? digit ^ 0x80 : digit;
+    }
+
+    // SIMD sorts
+
+    /**
+     * Vector kernels, implemented by {@code VectorSortKernels} under
+     * {@code vector/src}. Ranges are half-open, {@code [lo, hi)}.
+     */
+    interface SimdKernels {
+        void quickSort(int[] arr, int lo, int hi);
+
+        void mergeSort(int[] arr, int lo, int hi, int[] buffer);
+    }
+
+    private static final SimdKernels SIMD = loadSimdKernels();
+
+    // The kernels need jdk.incubator.vector at compile and run time, so they
+    // are only looked up by name and the scalar sorts stand in when they are missing
+    private static SimdKernels loadSimdKernels() {
+        try {
+            return (SimdKernels) Class.forName("VectorSortKernels").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /** Whether the vector kernels were found and work on this machine. */
+    public static boolean simdAvailable() {
+        return SIMD != null;
+    }
+
+    /**
+     * Quicksort with a vectorized partition and an in-register sorting
+     * network for ranges of up to 16 elements. Falls back to
+     * {@link #quickSort(int[], int, int)} without the vector kernels.
+     */
+    public static void vectorQuickSort(int[] arr) {
+        if (SIMD == null) quickSort(arr, 0, arr.length - 1);
+        else SIMD.quickSort(arr, 0, arr.length);
+    }
+
+    /**
+     * Bottom-up mergesort that sorts 16-element blocks with a sorting network
+     * and merges with a bitonic merge network. Falls back to
+     * {@link #mergeSort(int[], int, int)} without the vector kernels.
+     */
+    public static void vectorMergeSort(int[] arr) {
+        if (SIMD == null) mergeSort(arr, 0, arr.length - 1);
+        else SIMD.mergeSort(arr, 0, arr.length, new int[arr.length]);
+    }
+
+    // Object sorts
+
+    /**
+     * Stable mergesort with a comparator. Halves that are already in order
+     * are copied instead of merged, so presorted input takes linear time.
+     */
+    public static <T> void mergeSort(T[] arr, Comparator<? super T> c) {
+        if (arr.length < 2) return;
+        mergeSort(arr.clone(), arr, 0, arr.length, c);
+    }
+
+    public static <T> void mergeSort(List<T> list, Comparator<? super T> c) {
+        @SuppressWarnings("unchecked")
+        T[] arr = (T[]) list.toArray();
+        mergeSort(arr, c);
+        writeBack(list, arr);
+    }
+
+    // src and dst hold the same elements in [lo, hi) on entry; sorts them into dst
+    private static <T> void mergeSort(T[] src, T[] dst, int lo, int hi, Comparator<? super T> c) {
+        if (hi - lo < INSERTION_SORT_THRESHOLD) {
+            insertionSort(dst, lo, hi, c);
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        mergeSort(dst, src, lo, mid, c);
+        mergeSort(dst, src, mid, hi, c);
+        if (c.compare(src[mid - 1], src[mid]) <= 0) {
+            System.arraycopy(src, lo, dst, lo, hi - lo);
+            return;
+        }
+        for (int i = lo, j = mid, k = lo; k < hi; k++) {
+            // Ties take from the left half, which keeps the sort stable
+            if (j >= hi || (i < mid && c.compare(src[i], src[j]) <= 0)) dst[k] = src[i++];
+            else dst[k] = src[j++];
+        }
+    }
+
+    /**
+     * Introsort with a comparator: three-way partitioning around a
+     * median-of-three pivot, falling back to heapsort past the depth limit.
+     * Not stable.
+     */
+    public static <T> void quickSort(T[] arr, Comparator<? super T> c) {
+        if (arr.length > 1) introSort(arr, 0, arr.length - 1, 2 * log2(arr.length), c);
+    }
+
+    public static <T> void quickSort(List<T> list, Comparator<? super T> c) {
+        @SuppressWarnings("unchecked")
+        T[] arr = (T[]) list.toArray();
+        quickSort(arr, c);
+        writeBack(list, arr);
+    }
+
+    private static <T> void introSort(T[] arr, int lo, int hi, int depthLimit, Comparator<? super T> c) {
+        while (hi - lo >= INSERTION_SORT_THRESHOLD) {
+            if (depthLimit-- == 0) {
+                heapSort(arr, lo, hi, c);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            T pivot = arr[median3(arr, lo, mid, hi, c)];
+            // Dijkstra's three-way partition: [lo, lt) < pivot, [lt, i) == pivot, (gt, hi] > pivot
+            int lt = lo, gt = hi, i = lo;
+            while (i <= gt) {
+                int cmp = c.compare(arr[i], pivot);
+                if (cmp < 0) swap(arr, lt++, i++);
+                else if (cmp > 0) swap(arr, i, gt--);
+                else i++;
+            }
+            // Recurse into the smaller side to bound the stack depth
+            if (lt - lo < hi - gt) {
+                introSort(arr, lo, lt - 1, depthLimit, c);
+                lo = gt + 1;
+            } else {
+                introSort(arr, gt + 1, hi, depthLimit, c);
+                hi = lt - 1;
+            }
+        }
+        insertionSort(arr, lo, hi + 1, c);
+    }
+
+    private static <T> int median3(T[] arr, int i, int j, int k, Comparator<? super T> c) {
+        return c.compare(arr[i], arr[j]) < 0
+                ? (c.compare(arr[j], arr[k]) < 0 ? j : c.compare(arr[i], arr[k]) < 0 ? k : i)
+                : (c.compare(arr[k], arr[j]) < 0 ? j : c.compare(arr[k], arr[i]) < 0 ? k : i);
+    }
+
+    private static <T> void heapSort(T[] arr, int lo, int hi, Comparator<? super T> c) {
+        int n = hi - lo + 1;
+        for (int i = n / 2 - 1; i >= 0; i--) siftDown(arr, lo, i, n, c);
+        for (int end = n - 1; end > 0; end--) {
+            swap(arr, lo, lo + end);
+            siftDown(arr, lo, 0, end, c);
+        }
+    }
+
+    private static <T> void siftDown(T[] arr, int base, int i, int n, Comparator<? super T> c) {
+        T x = arr[base + i];
+        for (int child = 2 * i + 1; child < n; child = 2 * i + 1) {
+            if (child + 1 < n && c.compare(arr[base + child + 1], arr[base + child]) > 0) child++;
+            if (c.compare(arr[base + child], x) <= 0) break;
+            arr[base + i] = arr[base + child];
+            i = child;
+        }
+        arr[base + i] = x;
+    }
+
+    // Sorting by extracted keys. Each getter runs once per element, the keys
+    // are radix sorted together with their indices, and the objects are moved
+    // into place once at the end, so no comparator is called at all.
+
+    /** Stable sort of {@code arr} by an {@code int} key. */
+    public static <T> void sortByIntKey(T[] arr, ToIntFunction<? super T> key) {
+        long[] keys = new long[arr.length];
+        // Unsigned image of the flipped key: the upper digits are all zero and get skipped
+        for (int i = 0; i < arr.length; i++) keys[i] = (key.applyAsInt(arr[i]) ^ Integer.MIN_VALUE) & 0xFFFFFFFFL;
+        permute(arr, sortPermutation(keys, identity(arr.length)));
+    }
+
+    public static <T> void sortByIntKey(List<T> list, ToIntFunction<? super T> key) {
+        @SuppressWarnings("unchecked")
+        T[] arr = (T[]) list.toArray();
+        sortByIntKey(arr, key);
+        writeBack(list, arr);
+    }
+
+    /** Stable sort of {@code arr} by a {@code long} key. */
+    public static <T> void sortByLongKey(T[] arr, ToLongFunction<? super T> key) {
+        long[] keys = new long[arr.length];
+        for (int i = 0; i < arr.length; i++) keys[i] = key.applyAsLong(arr[i]);
+        permute(arr, sortPermutation(keys, identity(arr.length)));
+    }
+
+    public static <T> void sortByLongKey(List<T> list, ToLongFunction<? super T> key) {
+        @SuppressWarnings("unchecked")
+        T[] arr = (T[]) list.toArray();
+        sortByLongKey(arr, key);
+        writeBack(list, arr);
+    }
+
+    /**
+     * Stable sort by several keys, the first one most significant. The
+     * permutation is sorted by the last key first and then re-sorted, stably,
+     * by each earlier key, so every key is extracted once per element.
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <T> void sortByKeys(T[] arr, ToLongFunction<? super T>... keys) {
+        sortByKeyArray(arr, keys);
+    }
+
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <T> void sortByKeys(List<T> list, ToLongFunction<? super T>... keys) {
+        @SuppressWarnings("unchecked")
+        T[] arr = (T[]) list.toArray();
+        sortByKeyArray(arr, keys);
+        writeBack(list, arr);
+    }
+
+    // Shared by the varargs overloads. It only reads the key array and never
+    // stores into it, which is what makes their @SafeVarargs hold.
+    private static <T> void sortByKeyArray(T[] arr, ToLongFunction<? super T>[] keys) {
+        int[] perm = identity(arr.length);
+        long[] k = new long[arr.length];
+        for (int j = keys.length - 1; j >= 0; j--) {
+            for (int i = 0; i < arr.length; i++) k[i] = keys[j].applyAsLong(arr[perm[i]]);
+            perm = sortPermutation(k, perm);
+        }
+        permute(arr, perm);
+    }
+
+    /**
+     * Stable LSD radix sort of {@code keys} that applies the same moves to
+     * {@code perm}. Both arrays are clobbered; returns the sorted permutation.
+     */
+    private static int[] sortPermutation(long[] keys, int[] perm) {
+        int n = keys.length;
+        if (n < 2) return perm;
+        int[][] counts = new int[Long.BYTES][RADIX];
+        for (long x : keys) {
+            for (int d = 0; d < Long.BYTES; d++) counts[d][longDigit(x, d)]++;
+        }
+        long[] src = keys, dst = new long[n];
+        int[] srcPerm = perm, dstPerm = new int[n];
+        for (int d = 0; d < Long.BYTES; d++) {
+            int[] count = counts[d];
+            if (count[longDigit(src[0], d)] == n) continue;
+            toOffsets(count);
+            for (int i = 0; i < n; i++) {
+                long x = src[i];
+                int slot = count[longDigit(x, d)]++;
+                dst[slot] = x;
+                dstPerm[slot] = srcPerm[i];
+            }
+            long[] t = src; src = dst; dst = t;
+            int[] tp = srcPerm; srcPerm = dstPerm; dstPerm = tp;
+        }
+        return srcPerm;
+    }
+
+    private static int[] identity(int n) {
+        int[] perm = new int[n];
+        for (int i = 0; i < n; i++) perm[i] = i;
+        return perm;
+    }
+
+    /**
+     * Rearranges {@code arr} in place so that {@code arr[i]} becomes the old
+     * {@code arr[perm[i]]}, following each cycle once. Visited entries of
+     * {@code perm} are marked by complementing them.
+     */
+    private static <T> void permute(T[] arr, int[] perm) {
+        for (int start = 0; start < perm.length; start++) {
+            if (perm[start] < 0) continue;
+            T first = arr[start];
+            int i = start;
+            while (perm[i] != start) {
+                int from = perm[i];
+                arr[i] = arr[from];
+                perm[i] = ~from;
+                i = from;
+            }
+            arr[i] = first;
+            perm[i] = ~start;
+        }
+    }
+
+    private static <T> void writeBack(List<T> list, T[] arr) {
+        ListIterator<T> it = list.listIterator();
+        for (T x : arr) {
+            it.next();
+            it.set(x);
+        }
+    }
+
+    private static <T> void insertionSort(T[] arr, int lo, int hi, Comparator<? super T> c) {
+        for (int i = lo + 1; i < hi; i++) {
+            T key = arr[i];
+            int j = i - 1;
+            while (j >= lo && c.compare(arr[j], key) > 0) {
+                arr[j + 1] = arr[j];
+                j--;
+            }
+            arr[j + 1] = key;
+        }
+    }
+
+    private static <T> void swap(T[] arr, int i, int j) {
+        T tmp = arr[i];
+        arr[i] = arr[j];
+        arr[j] = tmp;
+    }
+
+    private static void insertionSort(int[] arr, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++) {
+            int x = arr[i];
+            int j = i - 1;
+            while (j >= lo && arr[j] > x) {
+                arr[j + 1] = arr[j];
+                j--;
+            }
+            arr[j + 1] = x;
+        }
+    }
+
+    private static void swap(int[] arr, int i, int j) {
+        int temp = arr[i]; arr[i] = arr[j]; arr[j] = temp;
     }
 }
\ No newline at end of file
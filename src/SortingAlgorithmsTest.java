@@ -0,0 +1,387 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SortingAlgorithmsTest {
+
+    private static final String[] PATTERNS = {"random", "sorted", "descending", "allEqual", "nearlySorted", "sawtooth"};
+    private static final int[] SIZES = {0, 1, 2, 31, 32, 33, 100, 1000, 10_000};
+
+    /** Builds an input of the given pattern whose values include both int extremes. */
+    private static int[] generate(int n, String pattern, Random rand) {
+        int[] arr = new int[n];
+        switch (pattern) {
+            case "random" -> {
+                for (int i = 0; i < n; i++) arr[i] = rand.nextInt();
+            }
+            case "sorted" -> {
+                for (int i = 0; i < n; i++) arr[i] = i - n / 2;
+            }
+            case "descending" -> {
+                for (int i = 0; i < n; i++) arr[i] = n / 2 - i;
+            }
+            case "allEqual" -> Arrays.fill(arr, Integer.MAX_VALUE);
+            case "nearlySorted" -> {
+                for (int i = 0; i < n; i++) arr[i] = i;
+                for (int i = 0; i < n / 10; i++) {
+                    int a = rand.nextInt(n), b = rand.nextInt(n);
+                    int tmp = arr[a];
+                    arr[a] = arr[b];
+                    arr[b] = tmp;
+                }
+            }
+            case "sawtooth" -> {
+                // Alternating ascending and descending runs of varying length
+                for (int i = 0; i < n; i++) arr[i] = (i / 50) % 2 == 0 ? i % 50 : -(i % 50);
+            }
+            default -> throw new IllegalArgumentException(pattern);
+        }
+        if (n > 2 && !pattern.equals("allEqual")) {
+            arr[rand.nextInt(n)] = Integer.MAX_VALUE;
+            arr[rand.nextInt(n)] = Integer.MIN_VALUE;
+            arr[rand.nextInt(n)] = Integer.MAX_VALUE;
+        }
+        return arr;
+    }
+
+    private static void assertSortsLikeArraysSort(Consumer<int[]> sort) {
+        Random rand = new Random(42);
+        for (String pattern : PATTERNS) {
+            for (int n : SIZES) {
+                int[] arr = generate(n, pattern, rand);
+                int[] expected = arr.clone();
+                Arrays.sort(expected);
+                sort.accept(arr);
+                assertArrayEquals(expected, arr, pattern + " of " + n);
+            }
+        }
+    }
+
+    @Test
+    public void testMergeSortWithExtremeValues() {
+        assertSortsLikeArraysSort(arr -> SortingAlgorithms.mergeSort(arr, 0, arr.length - 1));
+    }
+
+    @Test
+    public void testMergeSortWithCallerBuffer() {
+        // An oversized buffer full of MAX_VALUE must not leak into the result
+        assertSortsLikeArraysSort(arr -> {
+            int[] buffer = new int[arr.length + 7];
+            Arrays.fill(buffer, Integer.MAX_VALUE);
+            SortingAlgorithms.mergeSort(arr, 0, arr.length - 1, buffer);
+        });
+    }
+
+    @Test
+    public void testMergeSortOfSubrange() {
+        int[] arr = {Integer.MAX_VALUE, 5, Integer.MAX_VALUE, Integer.MIN_VALUE, 3, 9, Integer.MIN_VALUE};
+        SortingAlgorithms.mergeSort(arr, 1, 5, new int[5]);
+        assertArrayEquals(new int[]{Integer.MAX_VALUE, Integer.MIN_VALUE, 3, 5, 9, Integer.MAX_VALUE,
+                Integer.MIN_VALUE}, arr);
+    }
+
+    @Test
+    public void testMergeSortRejectsShortBuffer() {
+        int[] arr = {3, 2, 1};
+        assertThrows(IllegalArgumentException.class, () -> SortingAlgorithms.mergeSort(arr, 0, 2, new int[2]));
+    }
+
+    @Test
+    public void testQuickSortWithExtremeValues() {
+        assertSortsLikeArraysSort(arr -> SortingAlgorithms.quickSort(arr, 0, arr.length - 1));
+    }
+
+    @Test
+    public void testParallelMergeSortWithSmallCutoff() {
+        // A cutoff of 16 forces forking and the split merge even on small inputs
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertSortsLikeArraysSort(arr -> SortingAlgorithms.parallelMergeSort(arr, pool, 16));
+            assertSortsLikeArraysSort(arr -> SortingAlgorithms.parallelMergeSort(arr, pool, 1));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testParallelQuickSortWithSmallCutoff() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertSortsLikeArraysSort(arr -> SortingAlgorithms.parallelQuickSort(arr, pool, 16));
+            assertSortsLikeArraysSort(arr -> SortingAlgorithms.parallelQuickSort(arr, pool, 1));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testParallelSortsUseCommonPoolByDefault() {
+        assertSortsLikeArraysSort(SortingAlgorithms::parallelMergeSort);
+        assertSortsLikeArraysSort(SortingAlgorithms::parallelQuickSort);
+    }
+
+    @Test
+    public void testParallelSortsRejectBadCutoff() {
+        int[] arr = {2, 1};
+        assertThrows(IllegalArgumentException.class,
+                () -> SortingAlgorithms.parallelMergeSort(arr, ForkJoinPool.commonPool(), 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> SortingAlgorithms.parallelQuickSort(arr, ForkJoinPool.commonPool(), 0));
+    }
+
+    @Test
+    public void testRadixSortSignedValues() {
+        assertSortsLikeArraysSort(SortingAlgorithms::radixSort);
+        assertSortsLikeArraysSort(arr -> SortingAlgorithms.radixSort(arr, new int[arr.length]));
+        int[] arr = {5, Integer.MIN_VALUE, 9, 1, Integer.MAX_VALUE, 0, 3, -3};
+        SortingAlgorithms.radixSort(arr, 2, 6, new int[7]);
+        assertArrayEquals(new int[]{5, Integer.MIN_VALUE, 0, 1, 3, 9, Integer.MAX_VALUE, -3}, arr);
+    }
+
+    @Test
+    public void testRadixSortLongSignedValues() {
+        Random rand = new Random(3);
+        for (int n : SIZES) {
+            long[] arr = new long[n];
+            for (int i = 0; i < n; i++) arr[i] = rand.nextBoolean() ? rand.nextLong() : rand.nextInt(100) - 50;
+            if (n > 2) {
+                arr[0] = Long.MAX_VALUE;
+                arr[n - 1] = Long.MIN_VALUE;
+            }
+            long[] expected = arr.clone();
+            Arrays.sort(expected);
+            SortingAlgorithms.radixSort(arr);
+            assertArrayEquals(expected, arr, "size " + n);
+        }
+    }
+
+    @Test
+    public void testCountingSortAndRadixFallback() {
+        // Narrow ranges are counted, wide ones hand off to the radix sort
+        Random rand = new Random(5);
+        int[] narrow = new int[5000];
+        for (int i = 0; i < narrow.length; i++) narrow[i] = rand.nextInt(100) - 1_000_000;
+        int[] expected = narrow.clone();
+        Arrays.sort(expected);
+        SortingAlgorithms.countingSort(narrow);
+        assertArrayEquals(expected, narrow);
+        assertSortsLikeArraysSort(SortingAlgorithms::countingSort);
+    }
+
+    @Test
+    public void testParallelRadixSort() {
+        Random rand = new Random(9);
+        int n = 200_000;
+        int[][] inputs = new int[4][n];
+        for (int i = 0; i < n; i++) {
+            // Dense small ids, dense ids plus one huge outlier, signed random, few distinct
+            inputs[0][i] = rand.nextInt(n);
+            inputs[1][i] = i == n / 2 ? Integer.MAX_VALUE : rand.nextInt(n);
+            inputs[2][i] = rand.nextInt();
+            inputs[3][i] = rand.nextInt(3) - 1;
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int[] arr : inputs) {
+                int[] expected = arr.clone();
+                Arrays.sort(expected);
+                SortingAlgorithms.parallelRadixSort(arr, pool);
+                assertArrayEquals(expected, arr);
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertSortsLikeArraysSort(SortingAlgorithms::parallelRadixSort);
+    }
+
+    @Test
+    public void testParallelRadixSplitDigitSpreadsDenseKeys() {
+        // Keys 0..999,999 all share their top byte, but the split digit comes
+        // from the top of their range, so they fill nearly every bucket evenly
+        int n = 1_000_000;
+        int shift = SortingAlgorithms.msdShift(n - 1);
+        int[] buckets = new int[256];
+        for (int i = 0; i < n; i++) buckets[i >>> shift]++;
+        int used = 0, largest = 0;
+        for (int count : buckets) {
+            if (count > 0) used++;
+            largest = Math.max(largest, count);
+        }
+        assertTrue(used > 200, used + " buckets used");
+        assertTrue(largest <= n / 200, "largest bucket " + largest);
+        assertEquals(0, SortingAlgorithms.msdShift(255));
+        assertEquals(24, SortingAlgorithms.msdShift(0xFFFFFFFFL));
+    }
+
+    /** Element with two sort keys and its original position, to check stability. */
+    private record Item(int group, long weight, int position) {
+    }
+
+    private static Item[] items(int n, int groups, Random rand) {
+        Item[] items = new Item[n];
+        for (int i = 0; i < n; i++) {
+            int group = rand.nextInt(groups) - groups / 2;
+            long weight = rand.nextInt(5) - 2L;
+            if (i % 97 == 0) weight = rand.nextBoolean() ? Long.MAX_VALUE : Long.MIN_VALUE;
+            if (i % 89 == 0) group = rand.nextBoolean() ? Integer.MAX_VALUE : Integer.MIN_VALUE;
+            items[i] = new Item(group, weight, i);
+        }
+        return items;
+    }
+
+    @Test
+    public void testComparatorMergeSortIsStable() {
+        Random rand = new Random(11);
+        for (int n : SIZES) {
+            Item[] arr = items(n, 10, rand);
+            Item[] expected = arr.clone();
+            // Arrays.sort on objects is a stable mergesort too
+            Arrays.sort(expected, Comparator.comparingInt(Item::group));
+            SortingAlgorithms.mergeSort(arr, Comparator.comparingInt(Item::group));
+            assertArrayEquals(expected, arr, "size " + n);
+        }
+        List<Item> list = new ArrayList<>(Arrays.asList(items(1000, 10, rand)));
+        List<Item> expected = new ArrayList<>(list);
+        expected.sort(Comparator.comparingLong(Item::weight));
+        SortingAlgorithms.mergeSort(list, Comparator.comparingLong(Item::weight));
+        assertEquals(expected, list);
+    }
+
+    @Test
+    public void testComparatorQuickSort() {
+        Random rand = new Random(13);
+        Comparator<Item> order = Comparator.comparingInt(Item::group).thenComparingInt(Item::position);
+        for (int n : SIZES) {
+            Item[] arr = items(n, 5, rand);
+            Item[] expected = arr.clone();
+            Arrays.sort(expected, order);
+            SortingAlgorithms.quickSort(arr, order);
+            assertArrayEquals(expected, arr, "size " + n);
+        }
+        // Not stable, so only the keys are compared for the list overload
+        List<Integer> list = new LinkedList<>();
+        for (int i = 0; i < 5000; i++) list.add(rand.nextInt(50));
+        List<Integer> expected = new ArrayList<>(list);
+        expected.sort(Comparator.reverseOrder());
+        SortingAlgorithms.quickSort(list, Comparator.reverseOrder());
+        assertEquals(expected, list);
+    }
+
+    @Test
+    public void testSortByIntKeyIsStable() {
+        Random rand = new Random(17);
+        for (int n : SIZES) {
+            Item[] arr = items(n, 8, rand);
+            Item[] expected = arr.clone();
+            Arrays.sort(expected, Comparator.comparingInt(Item::group));
+            SortingAlgorithms.sortByIntKey(arr, Item::group);
+            assertArrayEquals(expected, arr, "size " + n);
+        }
+        List<Item> list = new ArrayList<>(Arrays.asList(items(1000, 8, rand)));
+        List<Item> expected = new ArrayList<>(list);
+        expected.sort(Comparator.comparingInt(Item::group));
+        SortingAlgorithms.sortByIntKey(list, Item::group);
+        assertEquals(expected, list);
+    }
+
+    @Test
+    public void testSortByLongKeyIsStable() {
+        Random rand = new Random(19);
+        for (int n : SIZES) {
+            Item[] arr = items(n, 8, rand);
+            Item[] expected = arr.clone();
+            Arrays.sort(expected, Comparator.comparingLong(Item::weight));
+            SortingAlgorithms.sortByLongKey(arr, Item::weight);
+            assertArrayEquals(expected, arr, "size " + n);
+        }
+        List<Item> list = new LinkedList<>(Arrays.asList(items(1000, 8, rand)));
+        List<Item> expected = new ArrayList<>(list);
+        expected.sort(Comparator.comparingLong(Item::weight));
+        SortingAlgorithms.sortByLongKey(list, Item::weight);
+        assertEquals(expected, list);
+    }
+
+    @Test
+    public void testSortByKeysMatchesThenComparing() {
+        Random rand = new Random(23);
+        Comparator<Item> order = Comparator.comparingInt(Item::group).thenComparingLong(Item::weight);
+        for (int n : SIZES) {
+            Item[] arr = items(n, 6, rand);
+            Item[] expected = arr.clone();
+            // Ties on both keys keep their input order
+            Arrays.sort(expected, order);
+            SortingAlgorithms.sortByKeys(arr, Item::group, Item::weight);
+            assertArrayEquals(expected, arr, "size " + n);
+        }
+        List<Item> list = new ArrayList<>(Arrays.asList(items(2000, 6, rand)));
+        List<Item> expected = new ArrayList<>(list);
+        expected.sort(Comparator.comparingLong(Item::weight).thenComparing(order));
+        SortingAlgorithms.sortByKeys(list, Item::weight, Item::group, Item::weight);
+        assertEquals(expected, list);
+    }
+
+    @Test
+    public void testSortByKeysWithNoKeysKeepsOrder() {
+        Item[] arr = items(100, 4, new Random(29));
+        Item[] expected = arr.clone();
+        SortingAlgorithms.sortByKeys(arr);
+        assertArrayEquals(expected, arr);
+    }
+
+    // The vector kernels only load when run with --add-modules jdk.incubator.vector
+    // and vector/src on the class path; otherwise these exercise the scalar fallback.
+
+    private static void assertVectorSortsLikeArraysSort(int[] arr, String label) {
+        int[] expected = arr.clone();
+        Arrays.sort(expected);
+        int[] quick = arr.clone();
+        SortingAlgorithms.vectorQuickSort(quick);
+        assertArrayEquals(expected, quick, "vectorQuickSort, " + label);
+        int[] merge = arr.clone();
+        SortingAlgorithms.vectorMergeSort(merge);
+        assertArrayEquals(expected, merge, "vectorMergeSort, " + label);
+    }
+
+    @Test
+    public void testVectorSortsAroundVectorWidths() {
+        // Sizes on both sides of one, two and three 8-lane vectors, where the
+        // sorting network pads and the partition handles partial tails
+        Random rand = new Random(31);
+        for (int n = 0; n <= 40; n++) {
+            for (int round = 0; round < 20; round++) {
+                int[] arr = new int[n];
+                int bound = round % 2 == 0 ? 4 : Integer.MAX_VALUE;
+                for (int i = 0; i < n; i++) arr[i] = rand.nextInt(bound) - bound / 2;
+                assertVectorSortsLikeArraysSort(arr, "random of " + n);
+                for (int i = 0; i < n; i++) if (rand.nextBoolean()) arr[i] = Integer.MAX_VALUE;
+                assertVectorSortsLikeArraysSort(arr, "MAX_VALUE-heavy of " + n);
+                for (int i = 0; i < n; i++) if (rand.nextInt(4) == 0) arr[i] = Integer.MIN_VALUE;
+                assertVectorSortsLikeArraysSort(arr, "both extremes of " + n);
+            }
+        }
+    }
+
+    @Test
+    public void testVectorSortsMaxValueHeavy() {
+        Random rand = new Random(37);
+        for (int n : new int[]{100, 1000, 10_000, 100_000}) {
+            int[] arr = new int[n];
+            Arrays.fill(arr, Integer.MAX_VALUE);
+            assertVectorSortsLikeArraysSort(arr, "all MAX_VALUE of " + n);
+            for (int i = 0; i < n; i += 3) arr[i] = rand.nextInt();
+            assertVectorSortsLikeArraysSort(arr, "two thirds MAX_VALUE of " + n);
+            for (int i = 0; i < n; i++) arr[i] = rand.nextBoolean() ? Integer.MAX_VALUE : Integer.MIN_VALUE;
+            assertVectorSortsLikeArraysSort(arr, "only extremes of " + n);
+        }
+    }
+
+    @Test
+    public void testVectorSortsPatterns() {
+        assertSortsLikeArraysSort(SortingAlgorithms::vectorQuickSort);
+        assertSortsLikeArraysSort(SortingAlgorithms::vectorMergeSort);
+    }
+}
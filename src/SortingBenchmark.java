@@ -16,10 +16,64 @@ public class SortingBenchmark {
                 benchmark("TimSort", base.clone(), SortingBenchmark::timSort);
                 benchmark("QuickSort", base.clone(), SortingBenchmark::quickSort);
                 benchmark("MergeSort", base.clone(), SortingBenchmark::mergeSort);
+                benchmark("ParallelMergeSort", base.clone(), SortingAlgorithms::parallelMergeSort);
+                benchmark("ParallelQuickSort", base.clone(), SortingAlgorithms::parallelQuickSort);
+                benchmark("RadixSort", base.clone(), SortingAlgorithms::radixSort);
+                benchmark("CountingSort", base.clone(), SortingAlgorithms::countingSort);
+                benchmark("ParallelRadixSort", base.clone(), SortingAlgorithms::parallelRadixSort);
+                benchmark("ParallelSort", base.clone(), Arrays::parallelSort);
 
                 System.out.println("-------------------------------------------------");
             }
         }
+
+        // Large random inputs for the vector kernels; 10^8 needs about 1.5 GB of heap
+        System.out.printf("SIMD kernels: %s%n", SortingAlgorithms.simdAvailable()
+                ? "loaded" : "not available (run with --add-modules jdk.incubator.vector and vector/src compiled)");
+        for (int size : new int[]{1_000_000, 10_000_000, 100_000_000}) {
+            int[] base = generateData(size, "random");
+            System.out.printf("--- Size: %d | Pattern: random ---%n", size);
+            benchmark("TimSort", base.clone(), SortingBenchmark::timSort);
+            benchmark("QuickSort", base.clone(), SortingBenchmark::quickSort);
+            benchmark("VectorQuickSort", base.clone(), SortingAlgorithms::vectorQuickSort);
+            benchmark("MergeSort", base.clone(), SortingBenchmark::mergeSort);
+            benchmark("VectorMergeSort", base.clone(), SortingAlgorithms::vectorMergeSort);
+            System.out.println("-------------------------------------------------");
+        }
+
+        for (int size : new int[]{100_000, 1_000_000}) {
+            Order[] base = generateOrders(size);
+            System.out.printf("--- Size: %d | Records (by customer, then amount) ---%n", size);
+            Comparator<Order> byCustomer = Comparator.comparingInt(Order::customer);
+            Comparator<Order> byCustomerAmount = byCustomer.thenComparingLong(Order::amount);
+            benchmarkRecords("Arrays.sort(Comparator)", base, arr -> Arrays.sort(arr, byCustomerAmount));
+            benchmarkRecords("MergeSort(Comparator)", base, arr -> SortingAlgorithms.mergeSort(arr, byCustomerAmount));
+            benchmarkRecords("QuickSort(Comparator)", base, arr -> SortingAlgorithms.quickSort(arr, byCustomerAmount));
+            benchmarkRecords("SortByKeys", base, arr -> SortingAlgorithms.sortByKeys(arr, Order::customer, Order::amount));
+            benchmarkRecords("SortByIntKey (customer only)", base, arr -> SortingAlgorithms.sortByIntKey(arr, Order::customer));
+            System.out.println("-------------------------------------------------");
+        }
+    }
+
+    record Order(int customer, long amount) {}
+
+    interface RecordSorter {
+        void sort(Order[] arr);
+    }
+
+    static void benchmarkRecords(String name, Order[] base, RecordSorter sorter) {
+        Order[] arr = base.clone();
+        long start = System.nanoTime();
+        sorter.sort(arr);
+        long duration = System.nanoTime() - start;
+        System.out.printf("%s: %.2f ms%n", name, duration / 1e6);
+    }
+
+    static Order[] generateOrders(int size) {
+        Random rand = new Random();
+        Order[] orders = new Order[size];
+        for (int i = 0; i < size; i++) orders[i] = new Order(rand.nextInt(size / 10), rand.nextInt(1_000_000));
+        return orders;
     }
 
     interface Sorter {
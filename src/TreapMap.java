@@ -1,28 +1,105 @@
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 public class TreapMap<K extends Comparable<K>, V> implements Map<K, V> {
 
-    private static class TreapNode<K, V> {
+    private static class TreapNode<K, V> implements Entry<K, V> {
         final K key;
         V value;
-        final int priority;
+        // Only raised after insert, by access-adaptive lookups
+        int priority;
+        int size;
         TreapNode<K, V> left, right;
 
         TreapNode(K key, V value, int priority) {
             this.key = key;
             this.value = value;
             this.priority = priority;
+            this.size = 1;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            V old = this.value;
+            this.value = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry<?, ?> e)) return false;
+            return Objects.equals(key, e.getKey()) && Objects.equals(value, e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(value);
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
         }
     }
 
     private TreapNode<K, V> root;
     private int size;
+    private int modCount;
     private final Random rand = new Random();
 
+    // Access-adaptive mode: successful lookups redraw the node's priority and
+    // keep the larger one. A cheap xorshift stands in for rand on this hot path.
+    private final boolean accessAdaptive;
+    private long accessSeed = rand.nextLong() | 1;
+
+    // Scratch stack of ancestors for the iterative update paths, reused across
+    // calls and grown on demand since treap depth is only bounded in expectation.
+    private TreapNode<K, V>[] path = nodeArray(32);
+
+    private Set<K> keySet;
+    private Collection<V> values;
+    private Set<Entry<K, V>> entrySet;
+
+    public TreapMap() {
+        this(false);
+    }
+
+    /**
+     * Creates an empty map. If {@code accessAdaptive} is true, every successful
+     * lookup draws a fresh random priority for the node found and keeps it if
+     * it beats the current one, rotating the node up to restore heap order. A
+     * key's priority is then the maximum of about as many draws as it has had
+     * accesses, so a key with access frequency f sits at expected depth
+     * O(log(1/f)) (Aragon and Seidel's weighted treap). Rotations get rarer the
+     * more a key is read: the k-th access raises the priority with probability
+     * 1/(k+1).
+     *
+     * <p>As with an access-ordered {@link LinkedHashMap}, a lookup that rotates
+     * is a structural modification, so {@code get} or {@code containsKey} while
+     * iterating may make the iterator throw
+     * {@link ConcurrentModificationException}.
+     */
+    public TreapMap(boolean accessAdaptive) {
+        this.accessAdaptive = accessAdaptive;
+    }
+
     @Override
     public V put(K key, V value) {
         int priority = rand.nextInt();
-        root = insert(root, key, value, priority);
+        insert(key, value, priority);
         return value;
     }
 
@@ -33,7 +110,7 @@ public class TreapMap<K extends Comparable<K>, V> implements Map<K, V> {
     }
 
     private V get(K key) {
-        TreapNode<K, V> node = find(root, key);
+        TreapNode<K, V> node = accessAdaptive ? findAndBoost(key) : find(root, key);
         return node == null ? null : node.value;
     }
 
@@ -42,9 +119,8 @@ public class TreapMap<K extends Comparable<K>, V> implements Map<K, V> {
         if (!(key instanceof Comparable)) return null;
         @SuppressWarnings("unchecked")
         K castKey = (K) key;
-        TreapNode<K, V>[] result = new TreapNode[1];
-        root = delete(root, castKey, result);
-        return result[0] == null ? null : result[0].value;
+        TreapNode<K, V> node = delete(castKey);
+        return node == null ? null : node.value;
     }
 
     @Override
@@ -63,60 +139,84 @@ public class TreapMap<K extends Comparable<K>, V> implements Map<K, V> {
 
     @Override
     public void putAll(Map<? extends K, ? extends V> m) {
+        if (root == null && m instanceof SortedMap<?, ?> sorted && sorted.comparator() == null) {
+            buildFromSorted(m.entrySet().iterator());
+            return;
+        }
         for (Entry<? extends K, ? extends V> entry : m.entrySet()) {
             put(entry.getKey(), entry.getValue());
         }
     }
 
+    /**
+     * Builds a map from entries in strictly ascending key order in O(n), using
+     * the stack-based Cartesian tree construction over fresh random priorities.
+     *
+     * @throws IllegalArgumentException if the keys are not strictly ascending
+     */
+    public static <K extends Comparable<K>, V> TreapMap<K, V> fromSorted(
+            Iterator<? extends Entry<? extends K, ? extends V>> entries) {
+        TreapMap<K, V> treap = new TreapMap<>();
+        treap.buildFromSorted(entries);
+        return treap;
+    }
+
+    /**
+     * Writes the entries in key order to {@code file} in the binary format of
+     * {@link Snapshot}, replacing it atomically where the file system allows.
+     */
+    public void writeSnapshot(Path file, SnapshotCodec<K> keyCodec, SnapshotCodec<V> valueCodec) throws IOException {
+        Snapshot.write(file, entrySet().iterator(), size, keyCodec, valueCodec);
+    }
+
+    /**
+     * Loads a map written by {@link #writeSnapshot}. The file is memory-mapped
+     * and decoded straight into the linear-time build of {@link #fromSorted},
+     * with no intermediate entry objects.
+     *
+     * @throws IOException if the file cannot be read, is truncated or fails its checksums
+     */
+    public static <K extends Comparable<K>, V> TreapMap<K, V> loadSnapshot(
+            Path file, SnapshotCodec<K> keyCodec, SnapshotCodec<V> valueCodec) throws IOException {
+        TreapMap<K, V> tree = new TreapMap<>();
+        Snapshot.read(file, keyCodec, valueCodec, (entries, count) -> tree.buildFromSorted(entries));
+        return tree;
+    }
+
+    /**
+     * Loads the snapshot in {@code file}, then replays {@code changeLog} on
+     * top of it; see {@link ChangeLog#replay}.
+     */
+    public static <K extends Comparable<K>, V> TreapMap<K, V> loadSnapshot(
+            Path file, Path changeLog, SnapshotCodec<K> keyCodec, SnapshotCodec<V> valueCodec) throws IOException {
+        TreapMap<K, V> tree = loadSnapshot(file, keyCodec, valueCodec);
+        ChangeLog.replay(changeLog, tree, keyCodec, valueCodec);
+        return tree;
+    }
+
     @Override
     public void clear() {
         root = null;
         size = 0;
+        modCount++;
     }
 
     @Override
     public Set<K> keySet() {
-        Set<K> keys = new LinkedHashSet<>();
-        inorderKeys(root, keys);
-        return keys;
-    }
-
-    private void inorderKeys(TreapNode<K, V> node, Set<K> keys) {
-        if (node != null) {
-            inorderKeys(node.left, keys);
-            keys.add(node.key);
-            inorderKeys(node.right, keys);
-        }
+        if (keySet == null) keySet = new KeySet();
+        return keySet;
     }
 
     @Override
     public Collection<V> values() {
-        List<V> vals = new ArrayList<>();
-        inorderValues(root, vals);
-        return vals;
-    }
-
-    private void inorderValues(TreapNode<K, V> node, List<V> vals) {
-        if (node != null) {
-            inorderValues(node.left, vals);
-            vals.add(node.value);
-            inorderValues(node.right, vals);
-        }
+        if (values == null) values = new Values();
+        return values;
     }
 
     @Override
     public Set<Entry<K, V>> entrySet() {
-        Set<Entry<K, V>> entries = new LinkedHashSet<>();
-        inorderEntries(root, entries);
-        return entries;
-    }
-
-    private void inorderEntries(TreapNode<K, V> node, Set<Entry<K, V>> entries) {
-        if (node != null) {
-            inorderEntries(node.left, entries);
-            entries.add(new AbstractMap.SimpleEntry<>(node.key, node.value));
-            inorderEntries(node.right, entries);
-        }
+        if (entrySet == null) entrySet = new EntrySet();
+        return entrySet;
     }
 
     @Override
@@ -132,64 +232,180 @@ public class TreapMap<K extends Comparable<K>, V> implements Map<K, V> {
     // Treap core methods
 
     private TreapNode<K, V> find(TreapNode<K, V> node, K key) {
-        if (node == null) return null;
-        int cmp = key.compareTo(node.key);
-        if (cmp < 0) return find(node.left, key);
-        if (cmp > 0) return find(node.right, key);
-        return node;
+        while (node != null) {
+            int cmp = key.compareTo(node.key);
+            if (cmp < 0) node = node.left;
+            else if (cmp > 0) node = node.right;
+            else return node;
+        }
+        return null;
     }
 
-    private TreapNode<K, V> insert(TreapNode<K, V> node, K key, V value, int priority) {
-        if (node == null) {
-            size++;
-            return new TreapNode<>(key, value, priority);
-        }
-        int cmp = key.compareTo(node.key);
-        if (cmp < 0) {
-            node.left = insert(node.left, key, value, priority);
-            if (node.left.priority > node.priority)
-                node = rotateRight(node);
-        } else if (cmp > 0) {
-            node.right = insert(node.right, key, value, priority);
-            if (node.right.priority > node.priority)
-                node = rotateLeft(node);
-        } else {
-            node.value = value;
+    private void insert(K key, V value, int priority) {
+        TreapNode<K, V> node = root;
+        int depth = 0;
+        while (node != null) {
+            int cmp = key.compareTo(node.key);
+            if (cmp == 0) {
+                node.value = value;
+                clearPath(depth);
+                return;
+            }
+            push(depth++, node);
+            node = cmp < 0 ? node.left : node.right;
+        }
+        TreapNode<K, V> child = new TreapNode<>(key, value, priority);
+        size++;
+        modCount++;
+        // Attach as a leaf, then rotate up while the heap order is violated.
+        // Rotations fix the sizes of the two nodes involved; ancestors above
+        // the final position simply gain one.
+        int i = depth - 1;
+        if (i < 0) {
+            root = child;
+            return;
+        }
+        if (key.compareTo(path[i].key) < 0) path[i].left = child;
+        else path[i].right = child;
+        for (; i >= 0; i--) {
+            TreapNode<K, V> parent = path[i];
+            path[i] = null;
+            if (child.priority <= parent.priority) {
+                parent.size++;
+                break;
+            }
+            child = parent.left == child ? rotateRight(parent) : rotateLeft(parent);
+            replaceChild(i == 0 ? null : path[i - 1], parent, child);
+        }
+        for (i--; i >= 0; i--) {
+            path[i].size++;
+            path[i] = null;
+        }
+    }
+
+    /**
+     * Lookup for access-adaptive mode: records the search path, then gives the
+     * node found a new random priority if that is higher and rotates it up
+     * past any ancestors it now outranks. Sizes along the path do not change.
+     */
+    private TreapNode<K, V> findAndBoost(K key) {
+        TreapNode<K, V> node = root;
+        int depth = 0;
+        while (node != null) {
+            int cmp = key.compareTo(node.key);
+            if (cmp == 0) break;
+            push(depth++, node);
+            node = cmp < 0 ? node.left : node.right;
+        }
+        if (node == null || depth == 0) {
+            clearPath(depth);
+            return node;
         }
+        long x = accessSeed;
+        x ^= x << 13;
+        x ^= x >>> 7;
+        x ^= x << 17;
+        accessSeed = x;
+        int priority = (int) (x >>> 32);
+        if (priority <= node.priority) {
+            clearPath(depth);
+            return node;
+        }
+        node.priority = priority;
+        int i = depth - 1;
+        if (path[i].priority < priority) modCount++;
+        for (; i >= 0; i--) {
+            TreapNode<K, V> parent = path[i];
+            if (parent.priority >= priority) break;
+            path[i] = null;
+            TreapNode<K, V> rotated = parent.left == node ? rotateRight(parent) : rotateLeft(parent);
+            replaceChild(i == 0 ? null : path[i - 1], parent, rotated);
+        }
+        clearPath(i + 1);
         return node;
     }
 
-    private TreapNode<K, V> delete(TreapNode<K, V> node, K key, TreapNode<K, V>[] result) {
-        if (node == null) return null;
-        int cmp = key.compareTo(node.key);
-        if (cmp < 0) {
-            node.left = delete(node.left, key, result);
-        } else if (cmp > 0) {
-            node.right = delete(node.right, key, result);
-        } else {
-            result[0] = node;
-            size--;
-            return merge(node.left, node.right);
+    /** Unlinks the node holding {@code key} and returns it, or null if absent. */
+    private TreapNode<K, V> delete(K key) {
+        TreapNode<K, V> node = root;
+        int depth = 0;
+        while (node != null) {
+            int cmp = key.compareTo(node.key);
+            if (cmp == 0) break;
+            push(depth++, node);
+            node = cmp < 0 ? node.left : node.right;
         }
+        if (node == null) {
+            clearPath(depth);
+            return null;
+        }
+        replaceChild(depth == 0 ? null : path[depth - 1], node, merge(node.left, node.right));
+        node.left = node.right = null;
+        for (int i = depth - 1; i >= 0; i--) {
+            path[i].size--;
+            path[i] = null;
+        }
+        size--;
+        modCount++;
         return node;
     }
 
+    /**
+     * Joins two treaps whose keys are ordered left before right. Works top-down,
+     * hooking each chosen root onto the open side of the previous one; a chosen
+     * root ends up holding everything still left in both pieces, so its size is
+     * known before descending.
+     */
     private TreapNode<K, V> merge(TreapNode<K, V> left, TreapNode<K, V> right) {
         if (left == null) return right;
         if (right == null) return left;
-        if (left.priority > right.priority) {
-            left.right = merge(left.right, right);
-            return left;
-        } else {
-            right.left = merge(left, right.left);
-            return right;
+        TreapNode<K, V> result = null, hook = null;
+        boolean hookRight = false;
+        while (left != null && right != null) {
+            TreapNode<K, V> chosen;
+            int total = left.size + right.size;
+            boolean fromLeft = left.priority > right.priority;
+            if (fromLeft) {
+                chosen = left;
+                left = left.right;
+            } else {
+                chosen = right;
+                right = right.left;
+            }
+            chosen.size = total;
+            if (hook == null) result = chosen;
+            else if (hookRight) hook.right = chosen;
+            else hook.left = chosen;
+            hook = chosen;
+            hookRight = fromLeft;
         }
+        TreapNode<K, V> rest = left != null ? left : right;
+        if (hookRight) hook.right = rest;
+        else hook.left = rest;
+        return result;
+    }
+
+    private void push(int depth, TreapNode<K, V> node) {
+        if (depth == path.length) path = Arrays.copyOf(path, depth * 2);
+        path[depth] = node;
+    }
+
+    private void clearPath(int depth) {
+        for (int i = 0; i < depth; i++) path[i] = null;
+    }
+
+    private void replaceChild(TreapNode<K, V> parent, TreapNode<K, V> child, TreapNode<K, V> replacement) {
+        if (parent == null) root = replacement;
+        else if (parent.left == child) parent.left = replacement;
+        else parent.right = replacement;
     }
 
     private TreapNode<K, V> rotateLeft(TreapNode<K, V> node) {
         TreapNode<K, V> r = node.right;
         node.right = r.left;
         r.left = node;
+        update(node);
+        update(r);
         return r;
     }
 
@@ -197,9 +413,237 @@ public class TreapMap<K extends Comparable<K>, V> implements Map<K, V> {
         TreapNode<K, V> l = node.left;
         node.left = l.right;
         l.right = node;
+        update(node);
+        update(l);
         return l;
     }
 
+    // Generic arrays can't be created directly; every node array starts here
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <K, V> TreapNode<K, V>[] nodeArray(int length) {
+        return new TreapNode[length];
+    }
+
+    private int size(TreapNode<K, V> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private void update(TreapNode<K, V> node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    // Output slots for split and the set operations built on it
+    private static <K, V> TreapNode<K, V>[] triple() {
+        return nodeArray(3);
+    }
+
+    /**
+     * Three-way split of {@code node} around {@code key}: {@code out[0]} receives
+     * the keys below it, {@code out[1]} the node holding it (detached) if any,
+     * and {@code out[2]} the keys above it.
+     */
+    private void split(TreapNode<K, V> node, K key, TreapNode<K, V>[] out) {
+        TreapNode<K, V> lower = null, upper = null, same = null;
+        TreapNode<K, V> lowerHook = null, upperHook = null;
+        int depth = 0;
+        // Walk the search path, peeling nodes off onto the right spine of the
+        // lower part or the left spine of the upper part as we go.
+        while (node != null) {
+            int cmp = key.compareTo(node.key);
+            TreapNode<K, V> next;
+            if (cmp == 0) {
+                same = node;
+                if (lowerHook == null) lower = node.left;
+                else lowerHook.right = node.left;
+                if (upperHook == null) upper = node.right;
+                else upperHook.left = node.right;
+                node.left = node.right = null;
+                node.size = 1;
+                break;
+            }
+            push(depth++, node);
+            if (cmp > 0) {
+                if (lowerHook == null) lower = node;
+                else lowerHook.right = node;
+                lowerHook = node;
+                next = node.right;
+            } else {
+                if (upperHook == null) upper = node;
+                else upperHook.left = node;
+                upperHook = node;
+                next = node.left;
+            }
+            node = next;
+        }
+        if (same == null) {
+            if (lowerHook != null) lowerHook.right = null;
+            if (upperHook != null) upperHook.left = null;
+        }
+        // Children of path nodes are either untouched subtrees or deeper path
+        // nodes, so fixing sizes bottom-up along the path is enough.
+        for (int i = depth - 1; i >= 0; i--) {
+            update(path[i]);
+            path[i] = null;
+        }
+        out[0] = lower;
+        out[1] = same;
+        out[2] = upper;
+    }
+
+    private TreapNode<K, V> union(TreapNode<K, V> a, TreapNode<K, V> b, TreapNode<K, V>[] out) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.priority > b.priority) {
+            split(b, a.key, out);
+            TreapNode<K, V> lower = out[0], same = out[1], upper = out[2];
+            if (same != null) a.value = same.value;
+            a.left = union(a.left, lower, out);
+            a.right = union(a.right, upper, out);
+            update(a);
+            return a;
+        } else {
+            split(a, b.key, out);
+            TreapNode<K, V> lower = out[0], upper = out[2];
+            b.left = union(lower, b.left, out);
+            b.right = union(upper, b.right, out);
+            update(b);
+            return b;
+        }
+    }
+
+    private TreapNode<K, V> intersect(TreapNode<K, V> a, TreapNode<K, V> b, TreapNode<K, V>[] out) {
+        if (a == null || b == null) return null;
+        split(a, b.key, out);
+        TreapNode<K, V> lower = out[0], same = out[1], upper = out[2];
+        TreapNode<K, V> left = intersect(lower, b.left, out);
+        TreapNode<K, V> right = intersect(upper, b.right, out);
+        return same == null ? merge(left, right) : merge(merge(left, same), right);
+    }
+
+    private TreapNode<K, V> difference(TreapNode<K, V> a, TreapNode<K, V> b, TreapNode<K, V>[] out) {
+        if (a == null || b == null) return a;
+        split(a, b.key, out);
+        TreapNode<K, V> lower = out[0], upper = out[2];
+        return merge(difference(lower, b.left, out), difference(upper, b.right, out));
+    }
+
+    /**
+     * Cartesian tree build. The stack holds the right spine of the treap built
+     * so far; each new node pops the spine nodes of lower priority, adopts them
+     * as its left subtree and becomes the right child of what remains. A node's
+     * subtree is final once it is popped, which is when its size is set.
+     */
+    private void buildFromSorted(Iterator<? extends Entry<? extends K, ? extends V>> entries) {
+        ArrayDeque<TreapNode<K, V>> spine = new ArrayDeque<>();
+        K lastKey = null;
+        int count = 0;
+        while (entries.hasNext()) {
+            Entry<? extends K, ? extends V> entry = entries.next();
+            K key = entry.getKey();
+            if (lastKey != null && lastKey.compareTo(key) >= 0)
+                throw new IllegalArgumentException("keys are not in ascending order");
+            lastKey = key;
+            TreapNode<K, V> node = new TreapNode<>(key, entry.getValue(), rand.nextInt());
+            TreapNode<K, V> popped = null;
+            while (!spine.isEmpty() && spine.peek().priority < node.priority) {
+                popped = spine.pop();
+                update(popped);
+            }
+            node.left = popped;
+            if (!spine.isEmpty()) spine.peek().right = node;
+            spine.push(node);
+            count++;
+        }
+        TreapNode<K, V> top = null;
+        while (!spine.isEmpty()) {
+            top = spine.pop();
+            update(top);
+        }
+        root = top;
+        size = count;
+        modCount++;
+    }
+
+    // Bulk split/join operations
+
+    /**
+     * Moves every entry with a key greater than or equal to {@code key} into a
+     * new map and returns it; this map keeps the smaller keys. Runs in expected
+     * O(log n) since only the nodes along one search path are relinked.
+     */
+    public TreapMap<K, V> split(K key) {
+        TreapNode<K, V>[] out = triple();
+        split(root, key, out);
+        TreapMap<K, V> upper = new TreapMap<>(accessAdaptive);
+        upper.root = merge(out[1], out[2]);
+        upper.size = size(upper.root);
+        root = out[0];
+        size = size(root);
+        modCount++;
+        return upper;
+    }
+
+    /**
+     * Appends every entry of {@code other}, whose keys must all be greater than
+     * the keys in this map, in expected O(log n). {@code other} is left empty.
+     *
+     * @throws IllegalArgumentException if the key ranges overlap
+     */
+    public void join(TreapMap<K, V> other) {
+        if (other == this || other.root == null) return;
+        if (root != null && lastEntry().getKey().compareTo(other.firstEntry().getKey()) >= 0)
+            throw new IllegalArgumentException("keys of other map must be greater than keys of this map");
+        root = merge(root, other.root);
+        size += other.size;
+        modCount++;
+        other.clear();
+    }
+
+    /** Removes every entry with a key in {@code [fromKey, toKey)} in expected O(log n). */
+    public void removeRange(K fromKey, K toKey) {
+        if (fromKey.compareTo(toKey) > 0) throw new IllegalArgumentException("fromKey > toKey");
+        TreapNode<K, V>[] out = triple();
+        split(root, fromKey, out);
+        TreapNode<K, V> lower = out[0];
+        split(merge(out[1], out[2]), toKey, out);
+        root = merge(lower, merge(out[1], out[2]));
+        size = size(root);
+        modCount++;
+    }
+
+    /**
+     * Adds every entry of {@code other} to this map, with values from
+     * {@code other} winning on shared keys. The nodes of {@code other} are moved
+     * rather than copied, so it is left empty. Runs in expected
+     * O(m log(n/m + 1)) for maps of sizes m &lt;= n.
+     */
+    public void union(TreapMap<K, V> other) {
+        if (other == this) return;
+        root = union(root, other.root, triple());
+        size = size(root);
+        modCount++;
+        other.clear();
+    }
+
+    /** Retains only the keys that are also present in {@code other}, which is not modified. */
+    public void intersect(TreapMap<K, V> other) {
+        if (other == this) return;
+        root = intersect(root, other.root, triple());
+        size = size(root);
+        modCount++;
+    }
+
+    /** Removes every key that is present in {@code other}, which is not modified. */
+    public void difference(TreapMap<K, V> other) {
+        if (other == this) {
+            clear();
+            return;
+        }
+        root = difference(root, other.root, triple());
+        size = size(root);
+        modCount++;
+    }
+
     // Extra methods for SortedMap functionality
 
     public Entry<K, V> firstEntry() {
@@ -237,52 +681,536 @@ public class TreapMap<K extends Comparable<K>, V> implements Map<K, V> {
     }
 
     private TreapNode<K, V> ceiling(TreapNode<K, V> node, K key) {
-        if (node == null) return null;
-        int cmp = key.compareTo(node.key);
-        if (cmp == 0) return node;
-        if (cmp > 0) return ceiling(node.right, key);
-        TreapNode<K, V> left = ceiling(node.left, key);
-        return (left != null) ? left : node;
+        TreapNode<K, V> best = null;
+        while (node != null) {
+            int cmp = key.compareTo(node.key);
+            if (cmp == 0) return node;
+            if (cmp > 0) {
+                node = node.right;
+            } else {
+                best = node;
+                node = node.left;
+            }
+        }
+        return best;
     }
 
     private TreapNode<K, V> floor(TreapNode<K, V> node, K key) {
-        if (node == null) return null;
-        int cmp = key.compareTo(node.key);
-        if (cmp == 0) return node;
-        if (cmp < 0) return floor(node.left, key);
-        TreapNode<K, V> right = floor(node.right, key);
-        return (right != null) ? right : node;
+        TreapNode<K, V> best = null;
+        while (node != null) {
+            int cmp = key.compareTo(node.key);
+            if (cmp == 0) return node;
+            if (cmp < 0) {
+                node = node.left;
+            } else {
+                best = node;
+                node = node.right;
+            }
+        }
+        return best;
     }
 
     private TreapNode<K, V> lower(TreapNode<K, V> node, K key) {
-        if (node == null) return null;
-        int cmp = key.compareTo(node.key);
-        if (cmp <= 0) return lower(node.left, key);
-        TreapNode<K, V> right = lower(node.right, key);
-        return (right != null) ? right : node;
+        TreapNode<K, V> best = null;
+        while (node != null) {
+            if (key.compareTo(node.key) <= 0) {
+                node = node.left;
+            } else {
+                best = node;
+                node = node.right;
+            }
+        }
+        return best;
     }
 
     private TreapNode<K, V> higher(TreapNode<K, V> node, K key) {
-        if (node == null) return null;
-        int cmp = key.compareTo(node.key);
-        if (cmp >= 0) return higher(node.right, key);
-        TreapNode<K, V> left = higher(node.left, key);
-        return (left != null) ? left : node;
+        TreapNode<K, V> best = null;
+        while (node != null) {
+            if (key.compareTo(node.key) >= 0) {
+                node = node.right;
+            } else {
+                best = node;
+                node = node.left;
+            }
+        }
+        return best;
+    }
+
+    // Order statistics
+
+    /**
+     * Returns the key with the given zero-based rank in ascending order.
+     *
+     * @throws IndexOutOfBoundsException if {@code index} is not in {@code [0, size())}
+     */
+    public K select(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        TreapNode<K, V> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node.key;
+            }
+        }
+    }
+
+    /** Returns the number of keys strictly less than {@code key}. */
+    public int rank(K key) {
+        TreapNode<K, V> node = root;
+        int count = 0;
+        while (node != null) {
+            if (key.compareTo(node.key) <= 0) {
+                node = node.left;
+            } else {
+                count += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return count;
+    }
+
+    /** Returns the number of keys in {@code [fromKey, toKey)}. */
+    public int countRange(K fromKey, K toKey) {
+        if (fromKey.compareTo(toKey) > 0) throw new IllegalArgumentException("fromKey > toKey");
+        return rank(toKey) - rank(fromKey);
     }
 
     public List<Entry<K, V>> subMap(K fromKey, K toKey) {
         List<Entry<K, V>> entries = new ArrayList<>();
-        subMap(root, fromKey, toKey, entries);
+        ArrayDeque<TreapNode<K, V>> stack = new ArrayDeque<>();
+        TreapNode<K, V> node = root;
+        while (node != null) {
+            if (fromKey.compareTo(node.key) <= 0) {
+                stack.push(node);
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        while (!stack.isEmpty()) {
+            node = stack.pop();
+            if (toKey.compareTo(node.key) <= 0) break;
+            entries.add(new AbstractMap.SimpleEntry<>(node.key, node.value));
+            for (TreapNode<K, V> n = node.right; n != null; n = n.left) stack.push(n);
+        }
         return entries;
     }
 
-    private void subMap(TreapNode<K, V> node, K fromKey, K toKey, List<Entry<K, V>> entries) {
-        if (node == null) return;
-        int cmpLow = fromKey.compareTo(node.key);
-        int cmpHigh = toKey.compareTo(node.key);
-        if (cmpLow < 0) subMap(node.left, fromKey, toKey, entries);
-        if (cmpLow <= 0 && cmpHigh > 0)
-            entries.add(new AbstractMap.SimpleEntry<>(node.key, node.value));
-        if (cmpHigh > 0) subMap(node.right, fromKey, toKey, entries);
+    // Sorted batches
+
+    /**
+     * Looks up every key in {@code sortedKeys} and stores its value, or null,
+     * at the same index of {@code out}. The path to the previous key is kept
+     * as a finger: each search climbs only until the subtree under the finger
+     * can hold the next key, then descends from there. For k ascending keys
+     * that is expected O(k log(n/k)) comparisons instead of O(k log n), and
+     * nearly sorted batches keep most of the gain. Keys in any order give
+     * correct results, just without the savings. In access-adaptive mode
+     * every lookup may rotate, so the keys are looked up one by one.
+     *
+     * @throws IllegalArgumentException if {@code out} is shorter than {@code sortedKeys}
+     */
+    public void getAll(K[] sortedKeys, V[] out) {
+        if (out.length < sortedKeys.length) throw new IllegalArgumentException("out is shorter than keys");
+        if (accessAdaptive) {
+            for (int i = 0; i < sortedKeys.length; i++) out[i] = get(sortedKeys[i]);
+            return;
+        }
+        Finger finger = new Finger();
+        for (int i = 0; i < sortedKeys.length; i++) {
+            TreapNode<K, V> node = finger.seek(sortedKeys[i]);
+            out[i] = node == null ? null : node.value;
+        }
+    }
+
+    /**
+     * Puts {@code sortedKeys[i]} to {@code values[i]} for every i, searching
+     * from a finger as {@link #getAll} does. A new key is attached below the
+     * finger and rotated up it while its priority beats its parent's. The
+     * finger then ends at the new node if it rotated up, otherwise at its
+     * parent. Every ancestor up to the root still has its size bumped, so k
+     * new keys cost O(k log n) node updates; only the comparisons drop to
+     * O(k log(n/k)).
+     *
+     * @throws IllegalArgumentException if {@code values} is shorter than {@code sortedKeys}
+     */
+    public void putAllSortedBatch(K[] sortedKeys, V[] values) {
+        if (values.length < sortedKeys.length) throw new IllegalArgumentException("values is shorter than keys");
+        Finger finger = new Finger();
+        for (int i = 0; i < sortedKeys.length; i++) {
+            TreapNode<K, V> node = finger.seek(sortedKeys[i]);
+            if (node != null) node.value = values[i];
+            else finger.insert(sortedKeys[i], values[i], rand.nextInt());
+        }
+    }
+
+    /**
+     * A root-to-node path with the open key interval that each node's subtree
+     * covers. {@code seek} leaves it ending at the node found, or at the
+     * parent a missing key would hang from.
+     */
+    private final class Finger {
+        private TreapNode<K, V>[] nodes = nodeArray(32);
+        // Exclusive bounds of each subtree; null means unbounded
+        private TreapNode<K, V>[] low = nodeArray(32);
+        private TreapNode<K, V>[] high = nodeArray(32);
+        private int depth;
+        // Comparison of the key with the last node on the path
+        private int cmp;
+
+        TreapNode<K, V> seek(K key) {
+            if (depth > 0) depth = coveringLevel(key) + 1;
+            TreapNode<K, V> node = depth == 0 ? root : nodes[--depth];
+            while (node != null) {
+                if (depth + 1 == nodes.length) grow();
+                nodes[depth] = node;
+                cmp = key.compareTo(node.key);
+                if (cmp == 0) {
+                    depth++;
+                    return node;
+                }
+                low[depth + 1] = cmp < 0 ? low[depth] : node;
+                high[depth + 1] = cmp < 0 ? node : high[depth];
+                depth++;
+                node = cmp < 0 ? node.left : node.right;
+            }
+            return null;
+        }
+
+        /**
+         * Returns the deepest level whose subtree can hold key. Bounds narrow
+         * with depth, so this gallops up from the bottom and then binary
+         * searches, costing O(log d) comparisons to climb d levels.
+         */
+        private int coveringLevel(K key) {
+            int notCovering = depth, level = depth - 1;
+            for (int step = 1; level > 0 && !covers(level, key); step <<= 1) {
+                notCovering = level;
+                level = Math.max(0, level - step);
+            }
+            while (notCovering - level > 1) {
+                int mid = (level + notCovering) >>> 1;
+                if (covers(mid, key)) level = mid;
+                else notCovering = mid;
+            }
+            return level;
+        }
+
+        private boolean covers(int level, K key) {
+            return (low[level] == null || key.compareTo(low[level].key) > 0)
+                    && (high[level] == null || key.compareTo(high[level].key) < 0);
+        }
+
+        private void grow() {
+            nodes = Arrays.copyOf(nodes, nodes.length * 2);
+            low = Arrays.copyOf(low, nodes.length);
+            high = Arrays.copyOf(high, nodes.length);
+        }
+
+        // Attaches key below the node seek() stopped at and rotates it up
+        void insert(K key, V value, int priority) {
+            TreapNode<K, V> child = new TreapNode<>(key, value, priority);
+            size++;
+            modCount++;
+            if (depth == 0) {
+                root = nodes[0] = child;
+                depth = 1;
+                return;
+            }
+            TreapNode<K, V> parent = nodes[depth - 1];
+            if (cmp < 0) parent.left = child;
+            else parent.right = child;
+            int i = depth - 1;
+            for (; i >= 0; i--) {
+                parent = nodes[i];
+                if (child.priority <= parent.priority) break;
+                child = parent.left == child ? rotateRight(parent) : rotateLeft(parent);
+                replaceChild(i == 0 ? null : nodes[i - 1], parent, child);
+                // The child now covers the key range parent's position did
+                nodes[i] = child;
+            }
+            for (int j = i; j >= 0; j--) nodes[j].size++;
+            // Rotated up to level i + 1, or left as a leaf off the path
+            if (i < depth - 1) depth = i + 2;
+        }
+    }
+
+    // Live views
+
+    /**
+     * In-order iterator over the treap, driven by an explicit stack of the
+     * ancestors still to be visited. Nodes are returned as-is, so walking the
+     * treap allocates nothing per element and never recurses.
+     */
+    private abstract class TreapIterator<T> implements Iterator<T> {
+        private final ArrayDeque<TreapNode<K, V>> stack = new ArrayDeque<>();
+        private TreapNode<K, V> lastReturned;
+        private int expectedModCount = modCount;
+
+        TreapIterator() {
+            pushLeft(root);
+        }
+
+        private void pushLeft(TreapNode<K, V> node) {
+            while (node != null) {
+                stack.push(node);
+                node = node.left;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        TreapNode<K, V> nextNode() {
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            if (stack.isEmpty()) throw new NoSuchElementException();
+            TreapNode<K, V> node = stack.pop();
+            pushLeft(node.right);
+            lastReturned = node;
+            return node;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) throw new IllegalStateException();
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            // removal merges subtrees around the stacked ancestors, so rebuild
+            // the stack from the root down to the next key
+            K key = lastReturned.key;
+            TreapMap.this.remove(key);
+            lastReturned = null;
+            expectedModCount = modCount;
+            stack.clear();
+            TreapNode<K, V> node = root;
+            while (node != null) {
+                if (key.compareTo(node.key) < 0) {
+                    stack.push(node);
+                    node = node.left;
+                } else {
+                    node = node.right;
+                }
+            }
+        }
+    }
+
+    /**
+     * Spliterator over the whole treap. It covers an optional single node
+     * followed by one subtree, and splits by handing off the subtree root's
+     * left child; random priorities keep the halves near even in expectation.
+     * Subtree sizes make every piece's size exact. Splitting stops once
+     * traversal has begun.
+     */
+    private final class TreapSpliterator<T> implements Spliterator<T> {
+        private final Function<? super TreapNode<K, V>, ? extends T> element;
+        private final int characteristics;
+        private final Comparator<? super T> comparator;
+        private final int expectedModCount;
+        // Visited before the subtree
+        private TreapNode<K, V> first;
+        private TreapNode<K, V> subtree;
+        private int remaining;
+        // Ancestors still to be visited, once traversal has begun
+        private ArrayDeque<TreapNode<K, V>> stack;
+
+        TreapSpliterator(Function<? super TreapNode<K, V>, ? extends T> element, int characteristics,
+                         Comparator<? super T> comparator) {
+            this(element, characteristics | ORDERED | SIZED | SUBSIZED, comparator, modCount, null, root);
+        }
+
+        private TreapSpliterator(Function<? super TreapNode<K, V>, ? extends T> element, int characteristics,
+                                 Comparator<? super T> comparator, int expectedModCount,
+                                 TreapNode<K, V> first, TreapNode<K, V> subtree) {
+            this.element = element;
+            this.characteristics = characteristics;
+            this.comparator = comparator;
+            this.expectedModCount = expectedModCount;
+            this.first = first;
+            this.subtree = subtree;
+            this.remaining = (first == null ? 0 : 1) + size(subtree);
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            if (stack != null) return null;
+            while (subtree != null) {
+                TreapNode<K, V> pivot = subtree;
+                TreapSpliterator<T> prefix = null;
+                if (first != null || pivot.left != null) {
+                    prefix = new TreapSpliterator<>(element, characteristics, comparator, expectedModCount,
+                            first, pivot.left);
+                }
+                first = pivot;
+                subtree = pivot.right;
+                remaining = 1 + size(subtree);
+                if (prefix != null) return prefix;
+            }
+            return null;
+        }
+
+        private TreapNode<K, V> nextNode() {
+            if (first != null) {
+                TreapNode<K, V> node = first;
+                first = null;
+                remaining--;
+                return node;
+            }
+            if (stack == null) {
+                stack = new ArrayDeque<>();
+                for (TreapNode<K, V> node = subtree; node != null; node = node.left) stack.push(node);
+            }
+            TreapNode<K, V> node = stack.poll();
+            if (node == null) return null;
+            for (TreapNode<K, V> next = node.right; next != null; next = next.left) stack.push(next);
+            remaining--;
+            return node;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            Objects.requireNonNull(action);
+            TreapNode<K, V> node = nextNode();
+            if (node == null) return false;
+            action.accept(element.apply(node));
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            Objects.requireNonNull(action);
+            for (TreapNode<K, V> node; (node = nextNode()) != null; ) action.accept(element.apply(node));
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+        }
+
+        @Override
+        public long estimateSize() {
+            return remaining;
+        }
+
+        @Override
+        public int characteristics() {
+            return characteristics;
+        }
+
+        @Override
+        public Comparator<? super T> getComparator() {
+            if ((characteristics & SORTED) == 0) throw new IllegalStateException();
+            return comparator;
+        }
+    }
+
+    private final class KeySet extends AbstractSet<K> {
+        @Override
+        public Iterator<K> iterator() {
+            return new TreapIterator<>() {
+                @Override
+                public K next() {
+                    return nextNode().key;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Spliterator<K> spliterator() {
+            return new TreapSpliterator<K>(node -> node.key, Spliterator.DISTINCT | Spliterator.SORTED, null);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof Comparable && find(root, (K) o) != null;
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!contains(o)) return false;
+            TreapMap.this.remove(o);
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            TreapMap.this.clear();
+        }
+    }
+
+    private final class Values extends AbstractCollection<V> {
+        @Override
+        public Iterator<V> iterator() {
+            return new TreapIterator<>() {
+                @Override
+                public V next() {
+                    return nextNode().value;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Spliterator<V> spliterator() {
+            return new TreapSpliterator<V>(node -> node.value, 0, null);
+        }
+
+        @Override
+        public void clear() {
+            TreapMap.this.clear();
+        }
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<K, V>> {
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            return new TreapIterator<>() {
+                @Override
+                public Entry<K, V> next() {
+                    return nextNode();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Spliterator<Entry<K, V>> spliterator() {
+            return new TreapSpliterator<Entry<K, V>>(node -> node, Spliterator.DISTINCT | Spliterator.SORTED,
+                    Entry.comparingByKey());
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Entry<?, ?> e) || !(e.getKey() instanceof Comparable)) return false;
+            TreapNode<K, V> node = find(root, (K) e.getKey());
+            return node != null && Objects.equals(node.value, e.getValue());
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!contains(o)) return false;
+            TreapMap.this.remove(((Entry<?, ?>) o).getKey());
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            TreapMap.this.clear();
+        }
     }
 }
\ No newline at end of file
@@ -110,4 +110,217 @@ public class TreapMapTest {
         List<Integer> keys = sub.stream().map(Map.Entry::getKey).toList();
         assertEquals(List.of(10, 20, 25), keys);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testKeySetIsLiveView() {
+        Set<Integer> keys = treap.keySet();
+        treap.put(15, "Fifteen");
+        assertEquals(6, keys.size());
+        assertTrue(keys.contains(15));
+        keys.remove(20);
+        assertFalse(treap.containsKey(20));
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        Iterator<Map.Entry<Integer, String>> it = treap.entrySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().getKey() % 10 == 0) it.remove();
+        }
+        assertEquals(List.of(5, 25), new ArrayList<>(treap.keySet()));
+        assertEquals(2, treap.size());
+    }
+
+    @Test
+    public void testIteratorFailsFast() {
+        Iterator<Integer> it = treap.keySet().iterator();
+        it.next();
+        treap.put(99, "Ninety Nine");
+        assertThrows(ConcurrentModificationException.class, it::next);
+    }
+
+    @Test
+    public void testEntrySetValueWritesThrough() {
+        for (Map.Entry<Integer, String> e : treap.entrySet()) e.setValue(e.getValue().toUpperCase());
+        assertEquals("TEN", treap.get(10));
+        assertEquals(List.of("FIVE", "TEN", "TWENTY", "TWENTY FIVE", "THIRTY"), new ArrayList<>(treap.values()));
+    }
+
+    @Test
+    public void testSelectAndRank() {
+        assertEquals(5, treap.select(0));
+        assertEquals(20, treap.select(2));
+        assertEquals(30, treap.select(4));
+        assertThrows(IndexOutOfBoundsException.class, () -> treap.select(5));
+        assertEquals(0, treap.rank(5));
+        assertEquals(2, treap.rank(20));
+        assertEquals(3, treap.rank(21));
+        assertEquals(5, treap.rank(100));
+    }
+
+    @Test
+    public void testCountRange() {
+        assertEquals(3, treap.countRange(10, 26));
+        assertEquals(2, treap.countRange(10, 25));
+        assertEquals(0, treap.countRange(11, 19));
+        treap.remove(20);
+        assertEquals(2, treap.countRange(10, 26));
+    }
+
+    @Test
+    public void testSplitAndJoin() {
+        TreapMap<Integer, String> upper = treap.split(20);
+        assertEquals(List.of(5, 10), new ArrayList<>(treap.keySet()));
+        assertEquals(List.of(20, 25, 30), new ArrayList<>(upper.keySet()));
+        assertEquals(3, upper.size());
+
+        treap.join(upper);
+        assertEquals(List.of(5, 10, 20, 25, 30), new ArrayList<>(treap.keySet()));
+        assertTrue(upper.isEmpty());
+
+        TreapMap<Integer, String> overlapping = new TreapMap<>();
+        overlapping.put(7, "Seven");
+        assertThrows(IllegalArgumentException.class, () -> treap.join(overlapping));
+    }
+
+    @Test
+    public void testRemoveRange() {
+        treap.removeRange(10, 26);
+        assertEquals(List.of(5, 30), new ArrayList<>(treap.keySet()));
+        assertEquals(2, treap.size());
+    }
+
+    @Test
+    public void testUnion() {
+        TreapMap<Integer, String> other = new TreapMap<>();
+        other.put(10, "TEN");
+        other.put(15, "Fifteen");
+        treap.union(other);
+        assertEquals(List.of(5, 10, 15, 20, 25, 30), new ArrayList<>(treap.keySet()));
+        assertEquals("TEN", treap.get(10));
+        assertTrue(other.isEmpty());
+    }
+
+    @Test
+    public void testIntersectAndDifference() {
+        TreapMap<Integer, String> other = new TreapMap<>();
+        other.put(10, "TEN");
+        other.put(25, "TWENTY FIVE");
+        other.put(40, "Forty");
+
+        TreapMap<Integer, String> copy = new TreapMap<>();
+        copy.putAll(treap);
+
+        treap.intersect(other);
+        assertEquals(List.of(10, 25), new ArrayList<>(treap.keySet()));
+        assertEquals("Ten", treap.get(10));
+
+        copy.difference(other);
+        assertEquals(List.of(5, 20, 30), new ArrayList<>(copy.keySet()));
+        assertEquals(3, other.size());
+    }
+
+    @Test
+    public void testFromSorted() {
+        TreeMap<Integer, String> source = new TreeMap<>();
+        for (int i = 0; i < 100; i++) source.put(i, "v" + i);
+        TreapMap<Integer, String> built = TreapMap.fromSorted(source.entrySet().iterator());
+        assertEquals(100, built.size());
+        assertEquals(new ArrayList<>(source.keySet()), new ArrayList<>(built.keySet()));
+        assertEquals(42, built.select(42));
+        built.put(100, "v100");
+        built.remove(0);
+        assertEquals(1, built.firstEntry().getKey());
+    }
+
+    @Test
+    public void testFromSortedRejectsUnorderedInput() {
+        List<Map.Entry<Integer, String>> entries = List.of(Map.entry(2, "Two"), Map.entry(1, "One"));
+        assertThrows(IllegalArgumentException.class, () -> TreapMap.fromSorted(entries.iterator()));
+    }
+
+    @Test
+    public void testPutAllFromSortedMap() {
+        TreeMap<Integer, String> source = new TreeMap<>(Map.of(1, "One", 2, "Two", 3, "Three"));
+        TreapMap<Integer, String> empty = new TreapMap<>();
+        empty.putAll(source);
+        assertEquals(List.of(1, 2, 3), new ArrayList<>(empty.keySet()));
+        treap.putAll(source);
+        assertEquals(8, treap.size());
+    }
+
+    @Test
+    public void testAccessAdaptiveLookups() {
+        TreapMap<Integer, String> adaptive = new TreapMap<>(true);
+        for (int i = 0; i < 200; i++) adaptive.put(i, "v" + i);
+        for (int round = 0; round < 1000; round++) {
+            assertEquals("v7", adaptive.get(7));
+            assertEquals("v" + (round % 200), adaptive.get(round % 200));
+        }
+        assertNull(adaptive.get(500));
+        assertTrue(adaptive.containsKey(199));
+        assertEquals(200, adaptive.size());
+        assertEquals(7, adaptive.select(7));
+        assertEquals(150, adaptive.rank(150));
+        int expected = 0;
+        for (int key : adaptive.keySet()) assertEquals(expected++, key);
+        TreapMap<Integer, String> upper = adaptive.split(100);
+        assertEquals("v150", upper.get(150));
+        assertEquals(100, upper.size());
+    }
+
+    @Test
+    public void testPutAllSortedBatchMatchesTreeMap() {
+        TreapMap<Integer, Integer> map = new TreapMap<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random rand = new Random(7);
+        for (int round = 0; round < 20; round++) {
+            Integer[] keys = new Integer[500];
+            for (int i = 0; i < keys.length; i++) keys[i] = rand.nextInt(5000);
+            // Sorted, nearly sorted and random batches
+            if (round % 3 != 2) Arrays.sort(keys);
+            if (round % 3 == 1) {
+                List<Integer> view = Arrays.asList(keys);
+                for (int i = 0; i < 25; i++) Collections.swap(view, rand.nextInt(500), rand.nextInt(500));
+            }
+            Integer[] values = new Integer[keys.length];
+            for (int i = 0; i < keys.length; i++) values[i] = rand.nextInt();
+            map.putAllSortedBatch(keys, values);
+            for (int i = 0; i < keys.length; i++) expected.put(keys[i], values[i]);
+            assertEquals(new ArrayList<>(expected.entrySet()), new ArrayList<>(map.entrySet()));
+        }
+        assertEquals(expected.size(), map.size());
+        int key = expected.ceilingKey(2500);
+        assertEquals(expected.headMap(key).size(), map.rank(key));
+    }
+
+    @Test
+    public void testGetAll() {
+        TreapMap<Integer, String> map = new TreapMap<>();
+        for (int i = 0; i < 100; i += 2) map.put(i, "v" + i);
+        Integer[] keys = {-1, 0, 1, 2, 50, 51, 98, 99, 4};
+        String[] out = new String[keys.length];
+        map.getAll(keys, out);
+        assertArrayEquals(new String[]{null, "v0", null, "v2", "v50", null, "v98", null, "v4"}, out);
+        assertThrows(IllegalArgumentException.class, () -> map.getAll(keys, new String[1]));
+    }
+
+    @Test
+    public void testSpliteratorSplitsAtRoot() {
+        TreapMap<Integer, Integer> map = new TreapMap<>();
+        for (int i = 0; i < 10_000; i++) map.put(i, i);
+        Spliterator<Map.Entry<Integer, Integer>> rest = map.entrySet().spliterator();
+        assertTrue(rest.hasCharacteristics(Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.SIZED));
+        assertEquals(10_000, rest.getExactSizeIfKnown());
+        Spliterator<Map.Entry<Integer, Integer>> prefix = rest.trySplit();
+        assertEquals(10_000, prefix.getExactSizeIfKnown() + rest.getExactSizeIfKnown());
+        // The split point is the root, whose rank is random, but both sides are never empty
+        assertTrue(prefix.estimateSize() > 0 && rest.estimateSize() > 0);
+        List<Integer> keys = new ArrayList<>();
+        prefix.forEachRemaining(e -> keys.add(e.getKey()));
+        rest.forEachRemaining(e -> keys.add(e.getKey()));
+        assertEquals(new ArrayList<>(map.keySet()), keys);
+        assertEquals(49_995_000L, map.values().parallelStream().mapToLong(Integer::longValue).sum());
+        assertEquals(new ArrayList<>(map.keySet()), map.keySet().parallelStream().toList());
+    }
+}
@@ -0,0 +1,100 @@
+import java.util.*;
+
+/**
+ * Operation mix for {@link WorkloadBenchmark}: the share of each operation type
+ * and the distribution used to pick the keys they touch. The presets mirror the
+ * YCSB core workloads A-F.
+ */
+public class Workload {
+
+    public enum Op {
+        READ, UPDATE, INSERT, SCAN, READ_MODIFY_WRITE, DELETE
+    }
+
+    private final String name;
+    private final String distribution;
+    private final double[] cumulative = new double[Op.values().length];
+    private final int maxScanLength;
+
+    /**
+     * Proportions are relative weights and need not sum to one.
+     *
+     * @param distribution a {@link KeyDistribution#named} distribution name
+     */
+    public Workload(String name, String distribution, double read, double update, double insert,
+                    double scan, double readModifyWrite, double delete, int maxScanLength) {
+        double[] weights = {read, update, insert, scan, readModifyWrite, delete};
+        double total = 0;
+        for (double w : weights) {
+            if (w < 0) throw new IllegalArgumentException("negative proportion");
+            total += w;
+        }
+        if (total == 0) throw new IllegalArgumentException("no operations");
+        double running = 0;
+        int last = 0;
+        for (int i = 0; i < weights.length; i++) {
+            running += weights[i] / total;
+            cumulative[i] = running;
+            if (weights[i] > 0) last = i;
+        }
+        // Close the range exactly so rounding can never select a zero-weight op
+        cumulative[last] = 1.0;
+        this.name = name;
+        this.distribution = distribution;
+        this.maxScanLength = maxScanLength;
+    }
+
+    /** Update heavy: 50% reads, 50% updates. */
+    public static Workload a(String distribution) {
+        return new Workload("A", distribution, 0.5, 0.5, 0, 0, 0, 0, 0);
+    }
+
+    /** Read mostly: 95% reads, 5% updates. */
+    public static Workload b(String distribution) {
+        return new Workload("B", distribution, 0.95, 0.05, 0, 0, 0, 0, 0);
+    }
+
+    /** Read only. */
+    public static Workload c(String distribution) {
+        return new Workload("C", distribution, 1, 0, 0, 0, 0, 0, 0);
+    }
+
+    /** Read latest: 95% reads, 5% inserts, with reads favouring recent keys. */
+    public static Workload d() {
+        return new Workload("D", "latest", 0.95, 0, 0.05, 0, 0, 0, 0);
+    }
+
+    /** Short ranges: 95% scans of up to 100 keys, 5% inserts. */
+    public static Workload e(String distribution) {
+        return new Workload("E", distribution, 0, 0, 0.05, 0.95, 0, 0, 100);
+    }
+
+    /** Read-modify-write: 50% reads, 50% read-then-update of the same key. */
+    public static Workload f(String distribution) {
+        return new Workload("F", distribution, 0.5, 0, 0, 0, 0.5, 0, 0);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public String distribution() {
+        return distribution;
+    }
+
+    public int maxScanLength() {
+        return maxScanLength;
+    }
+
+    public Op nextOp(Random rand) {
+        double u = rand.nextDouble();
+        int i = 0;
+        while (u >= cumulative[i]) i++;
+        return Op.values()[i];
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + distribution + ")";
+    }
+}
@@ -0,0 +1,109 @@
+import java.util.*;
+
+/**
+ * Mixed-traffic benchmark in the style of YCSB. Each map is loaded with
+ * {@code RECORDS} keys, warmed up, then driven with the interleaved operation
+ * mix of a {@link Workload}, timing every operation into a per-type
+ * {@link LatencyHistogram}.
+ */
+public class WorkloadBenchmark {
+
+    private static final int RECORDS = 100_000;
+    private static final int OPERATIONS = 1_000_000;
+    private static final long SEED = 42;
+
+    /** Visits up to {@code length} consecutive keys starting at {@code from}. */
+    interface Scanner {
+        long scan(int from, int length);
+    }
+
+    public static void main(String[] args) {
+        List<Workload> workloads = new ArrayList<>();
+        for (String distribution : new String[]{"zipfian", "hotspot"}) {
+            workloads.add(Workload.a(distribution));
+            workloads.add(Workload.b(distribution));
+            workloads.add(Workload.c(distribution));
+            workloads.add(Workload.e(distribution));
+            workloads.add(Workload.f(distribution));
+        }
+        workloads.add(Workload.d());
+        // 80/20 skewed traffic with everything interleaved, including deletes
+        workloads.add(new Workload("Mixed", "hotspot", 0.70, 0.15, 0.05, 0.05, 0, 0.05, 100));
+
+        for (Workload workload : workloads) {
+            System.out.printf("--- Workload: %s | Records: %d | Operations: %d ---%n", workload, RECORDS, OPERATIONS);
+            TreapMap<Integer, Integer> treap = new TreapMap<>();
+            run("Treap", treap, workload, (from, length) -> {
+                long sum = 0;
+                for (Map.Entry<Integer, Integer> entry : treap.subMap(from, from + length)) sum += entry.getValue();
+                return sum;
+            });
+            AVLTree<Integer, Integer> avl = new AVLTree<>();
+            run("AVLTree", avl, workload, navigableScanner(avl));
+            TreeMap<Integer, Integer> treeMap = new TreeMap<>();
+            run("TreeMap", treeMap, workload, navigableScanner(treeMap));
+            System.out.println("-------------------------------------------------");
+        }
+    }
+
+    static Scanner navigableScanner(NavigableMap<Integer, Integer> map) {
+        return (from, length) -> {
+            long sum = 0;
+            for (Integer value : map.subMap(from, true, from + length, false).values()) sum += value;
+            return sum;
+        };
+    }
+
+    static void run(String label, Map<Integer, Integer> map, Workload workload, Scanner scanner) {
+        for (int i = 0; i < RECORDS; i++) map.put(i, i);
+
+        EnumMap<Workload.Op, LatencyHistogram> histograms = new EnumMap<>(Workload.Op.class);
+        for (Workload.Op op : Workload.Op.values()) histograms.put(op, new LatencyHistogram());
+
+        Random rand = new Random(SEED);
+        KeyDistribution keys = KeyDistribution.named(workload.distribution());
+        long[] itemCount = {RECORDS};
+        long sink = execute(map, workload, scanner, keys, rand, itemCount, OPERATIONS / 2, null);
+
+        long start = System.nanoTime();
+        sink += execute(map, workload, scanner, keys, rand, itemCount, OPERATIONS, histograms);
+        long duration = System.nanoTime() - start;
+
+        System.out.printf("%s: %.2f Kops/s (checksum %d)%n", label, OPERATIONS / (duration / 1e6), sink);
+        for (Map.Entry<Workload.Op, LatencyHistogram> entry : histograms.entrySet()) {
+            LatencyHistogram h = entry.getValue();
+            if (h.count() == 0) continue;
+            System.out.printf("  %-17s n=%-8d mean=%7.2f us | p50=%7.2f us | p99=%7.2f us | p99.9=%8.2f us | max=%9.2f us%n",
+                    entry.getKey(), h.count(), h.mean() / 1e3,
+                    h.percentile(50) / 1e3, h.percentile(99) / 1e3, h.percentile(99.9) / 1e3, h.max() / 1e3);
+        }
+    }
+
+    /** Runs {@code operations} operations, recording latencies unless {@code histograms} is null. */
+    private static long execute(Map<Integer, Integer> map, Workload workload, Scanner scanner, KeyDistribution keys,
+                                Random rand, long[] itemCount, int operations,
+                                EnumMap<Workload.Op, LatencyHistogram> histograms) {
+        long sink = 0;
+        for (int i = 0; i < operations; i++) {
+            Workload.Op op = workload.nextOp(rand);
+            int key = op == Workload.Op.INSERT ? (int) itemCount[0]++ : (int) keys.next(rand, itemCount[0]);
+            long begin = System.nanoTime();
+            switch (op) {
+                case READ -> {
+                    Integer value = map.get(key);
+                    if (value != null) sink += value;
+                }
+                case UPDATE, INSERT -> map.put(key, i);
+                case SCAN -> sink += scanner.scan(key, 1 + rand.nextInt(workload.maxScanLength()));
+                case READ_MODIFY_WRITE -> {
+                    Integer value = map.get(key);
+                    map.put(key, value == null ? 0 : value + 1);
+                }
+                case DELETE -> map.remove(key);
+            }
+            long elapsed = System.nanoTime() - begin;
+            if (histograms != null) histograms.get(op).record(elapsed);
+        }
+        return sink;
+    }
+}
@@ -0,0 +1,262 @@
+import jdk.incubator.vector.*;
+
+/**
+ * SIMD sorting kernels on the incubator Vector API, loaded reflectively by
+ * {@link SortingAlgorithms} so that the rest of the tree compiles and runs
+ * without {@code jdk.incubator.vector}. Build and run with
+ * {@code --add-modules jdk.incubator.vector} and this directory on the source
+ * path to enable them.
+ *
+ * <p>All kernels work on 8-lane (256-bit) vectors: wide enough to pay off,
+ * and small enough that the permutation table used for partitioning has only
+ * 256 entries. Construction fails on hardware without 256-bit vectors, in
+ * which case the scalar sorts are used instead.
+ */
+final class VectorSortKernels implements SortingAlgorithms.SimdKernels {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_256;
+    private static final int LANES = 8;
+
+    /** Ranges up to two vectors are sorted entirely in registers. */
+    private static final int NETWORK_SIZE = 2 * LANES;
+
+    // For each lane mask, the lane order that moves the selected lanes to the
+    // front (in order) and the rest behind them. Emulates AVX-512 compress,
+    // which the Vector API in JDK 17 does not have.
+    private static final int[] COMPRESS = new int[(1 << LANES) * LANES];
+
+    static {
+        for (int mask = 0; mask < 1 << LANES; mask++) {
+            int k = mask * LANES;
+            for (int i = 0; i < LANES; i++) if ((mask & (1 << i)) != 0) COMPRESS[k++] = i;
+            for (int i = 0; i < LANES; i++) if ((mask & (1 << i)) == 0) COMPRESS[k++] = i;
+        }
+    }
+
+    // Partner lanes for the compare-exchange stages: lane i pairs with i ^ d
+    private static final VectorShuffle<Integer> XOR1 = VectorShuffle.fromOp(SPECIES, i -> i ^ 1);
+    private static final VectorShuffle<Integer> XOR2 = VectorShuffle.fromOp(SPECIES, i -> i ^ 2);
+    private static final VectorShuffle<Integer> XOR4 = VectorShuffle.fromOp(SPECIES, i -> i ^ 4);
+    private static final VectorShuffle<Integer> REVERSE = VectorShuffle.fromOp(SPECIES, i -> LANES - 1 - i);
+
+    // Lanes that keep the larger value at bitonic stage (k, j): the upper
+    // lane of each pair, flipped in blocks that sort descending
+    private static final VectorMask<Integer> MAX_2_1 = takeMax(2, 1);
+    private static final VectorMask<Integer> MAX_4_2 = takeMax(4, 2);
+    private static final VectorMask<Integer> MAX_4_1 = takeMax(4, 1);
+    private static final VectorMask<Integer> MAX_8_4 = takeMax(8, 4);
+    private static final VectorMask<Integer> MAX_8_2 = takeMax(8, 2);
+    private static final VectorMask<Integer> MAX_8_1 = takeMax(8, 1);
+
+    private static VectorMask<Integer> takeMax(int k, int j) {
+        boolean[] bits = new boolean[LANES];
+        for (int i = 0; i < LANES; i++) bits[i] = ((i & j) != 0) == ((i & k) == 0);
+        return VectorMask.fromArray(SPECIES, bits, 0);
+    }
+
+    VectorSortKernels() {
+        if (IntVector.SPECIES_PREFERRED.vectorBitSize() < SPECIES.vectorBitSize()) {
+            throw new UnsupportedOperationException("no 256-bit vector support");
+        }
+    }
+
+    // Quicksort
+
+    @Override
+    public void quickSort(int[] arr, int lo, int hi) {
+        int[] tmp = new int[2 * LANES];
+        quickSort(arr, lo, hi, 2 * (31 - Integer.numberOfLeadingZeros(Math.max(hi - lo, 1))), tmp);
+    }
+
+    private static void quickSort(int[] a, int lo, int hi, int depthLimit, int[] tmp) {
+        while (hi - lo > NETWORK_SIZE) {
+            if (depthLimit-- == 0) {
+                SortingAlgorithms.quickSort(a, lo, hi - 1);
+                return;
+            }
+            int pivot = medianOf3(a[lo], a[(lo + hi) >>> 1], a[hi - 1]);
+            int split = partition(a, lo, hi, pivot, false, tmp);
+            if (split == lo) {
+                // Nothing below the pivot, so it is the minimum: peel off every
+                // copy of it instead, which also terminates on all-equal input
+                split = partition(a, lo, hi, pivot, true, tmp);
+                if (split == hi) return;
+                lo = split;
+                continue;
+            }
+            if (split - lo < hi - split) {
+                quickSort(a, lo, split, depthLimit, tmp);
+                lo = split;
+            } else {
+                quickSort(a, split, hi, depthLimit, tmp);
+                hi = split;
+            }
+        }
+        networkSort(a, lo, hi);
+    }
+
+    private static int medianOf3(int x, int y, int z) {
+        return Math.max(Math.min(x, y), Math.min(Math.max(x, y), z));
+    }
+
+    /**
+     * In-place vector partition of {@code a[lo, hi)}, which must hold more
+     * than two vectors. Elements below the pivot go left, as do those equal
+     * to it if {@code lessOrEqual} is set. Returns the index of the first
+     * element that went right.
+     *
+     * <p>The first and last vectors are held in registers, which leaves one
+     * vector of free space at each end. Every step reads a vector from the
+     * end with less free space, permutes its left-going lanes to the front,
+     * and stores it whole at both write cursors. Each cursor then advances by
+     * the number of lanes that belong on its side, and the surplus lanes are
+     * overwritten later.
+     */
+    private static int partition(int[] a, int lo, int hi, int pivot, boolean lessOrEqual, int[] tmp) {
+        IntVector first = IntVector.fromArray(SPECIES, a, lo);
+        IntVector last = IntVector.fromArray(SPECIES, a, hi - LANES);
+        int readLeft = lo + LANES, readRight = hi - LANES;
+        int writeLeft = lo, writeRight = hi;
+        while (readRight - readLeft >= LANES) {
+            IntVector v;
+            if (readLeft - writeLeft <= writeRight - readRight) {
+                v = IntVector.fromArray(SPECIES, a, readLeft);
+                readLeft += LANES;
+            } else {
+                readRight -= LANES;
+                v = IntVector.fromArray(SPECIES, a, readRight);
+            }
+            int left = store(a, v, pivot, lessOrEqual, writeLeft, writeRight);
+            writeLeft += left;
+            writeRight -= LANES - left;
+        }
+        // Fewer than a vector's worth left unread. Set it and the last vector
+        // aside, after which [writeLeft, writeRight) is one free gap of at
+        // least two vectors, so the first vector can still be stored whole.
+        int rest = readRight - readLeft;
+        System.arraycopy(a, readLeft, tmp, 0, rest);
+        last.intoArray(tmp, rest);
+        int left = store(a, first, pivot, lessOrEqual, writeLeft, writeRight);
+        writeLeft += left;
+        writeRight -= LANES - left;
+        for (int i = 0; i < rest + LANES; i++) {
+            int x = tmp[i];
+            if (x < pivot || (lessOrEqual && x == pivot)) a[writeLeft++] = x;
+            else a[--writeRight] = x;
+        }
+        return writeLeft;
+    }
+
+    // Stores the partitioned vector at both cursors and returns how many lanes go left
+    private static int store(int[] a, IntVector v, int pivot, boolean lessOrEqual, int writeLeft, int writeRight) {
+        // The operator must be a constant at each call site for compare() to compile to one instruction
+        VectorMask<Integer> m = lessOrEqual ? v.compare(VectorOperators.LE, pivot) : v.compare(VectorOperators.LT, pivot);
+        int mask = (int) m.toLong();
+        IntVector packed = v.rearrange(IntVector.fromArray(SPECIES, COMPRESS, mask * LANES).toShuffle());
+        packed.intoArray(a, writeLeft);
+        packed.intoArray(a, writeRight - LANES);
+        return Integer.bitCount(mask);
+    }
+
+    // Mergesort
+
+    @Override
+    public void mergeSort(int[] arr, int lo, int hi, int[] buffer) {
+        for (int i = lo; i < hi; i += NETWORK_SIZE) networkSort(arr, i, Math.min(i + NETWORK_SIZE, hi));
+        int[] src = arr, dst = buffer;
+        for (int width = NETWORK_SIZE; width < hi - lo; width *= 2) {
+            for (int i = lo; i < hi; i += 2 * width) {
+                int mid = Math.min(i + width, hi), end = Math.min(i + 2 * width, hi);
+                merge(src, i, mid, end, dst, i);
+            }
+            int[] t = src; src = dst; dst = t;
+        }
+        if (src != arr) System.arraycopy(src, lo, arr, lo, hi - lo);
+    }
+
+    /**
+     * Merges sorted {@code src[lo, mid)} and {@code src[mid, hi)} into
+     * {@code dst} at {@code out}. A bitonic network merges two vectors at a
+     * time. Its lower half is final, and its upper half is merged with the
+     * next vector from whichever run has the smaller head. A scalar loop
+     * finishes once either run has less than a vector left.
+     */
+    private static void merge(int[] src, int lo, int mid, int hi, int[] dst, int out) {
+        int i = lo, j = mid;
+        if (mid - lo >= LANES && hi - mid >= LANES) {
+            IntVector carry = IntVector.fromArray(SPECIES, src, i);
+            i += LANES;
+            IntVector next = IntVector.fromArray(SPECIES, src, j);
+            j += LANES;
+            while (true) {
+                IntVector reversed = next.rearrange(REVERSE);
+                bitonicClean(carry.min(reversed)).intoArray(dst, out);
+                out += LANES;
+                carry = bitonicClean(carry.max(reversed));
+                boolean takeLeft = i < mid && (j >= hi || src[i] <= src[j]);
+                if (takeLeft ? mid - i < LANES : hi - j < LANES) break;
+                if (takeLeft) {
+                    next = IntVector.fromArray(SPECIES, src, i);
+                    i += LANES;
+                } else {
+                    next = IntVector.fromArray(SPECIES, src, j);
+                    j += LANES;
+                }
+            }
+            // Everything written so far is no larger than the carried vector
+            // or either run's remainder; merge those three with scalar code
+            int[] carried = new int[LANES];
+            carry.intoArray(carried, 0);
+            int c = 0;
+            while (c < LANES) {
+                if (i < mid && src[i] < carried[c] && (j >= hi || src[i] <= src[j])) dst[out++] = src[i++];
+                else if (j < hi && src[j] < carried[c]) dst[out++] = src[j++];
+                else dst[out++] = carried[c++];
+            }
+        }
+        while (i < mid && j < hi) dst[out++] = src[i] <= src[j] ? src[i++] : src[j++];
+        while (i < mid) dst[out++] = src[i++];
+        while (j < hi) dst[out++] = src[j++];
+    }
+
+    // Sorting networks
+
+    /** Sorts up to two vectors' worth of {@code a[lo, hi)} in registers. */
+    private static void networkSort(int[] a, int lo, int hi) {
+        int n = hi - lo;
+        if (n < 2) return;
+        IntVector pad = IntVector.broadcast(SPECIES, Integer.MAX_VALUE);
+        VectorMask<Integer> firstMask = SPECIES.indexInRange(0, n);
+        VectorMask<Integer> secondMask = SPECIES.indexInRange(LANES, n);
+        // Padding lanes hold MAX_VALUE, so they sort to the end and are never stored
+        IntVector x = sortVector(pad.blend(IntVector.fromArray(SPECIES, a, lo, firstMask), firstMask));
+        if (n <= LANES) {
+            x.intoArray(a, lo, firstMask);
+            return;
+        }
+        IntVector y = sortVector(pad.blend(IntVector.fromArray(SPECIES, a, lo + LANES, secondMask), secondMask));
+        IntVector reversed = y.rearrange(REVERSE);
+        bitonicClean(x.min(reversed)).intoArray(a, lo);
+        bitonicClean(x.max(reversed)).intoArray(a, lo + LANES, secondMask);
+    }
+
+    // Full bitonic sort of one vector
+    private static IntVector sortVector(IntVector v) {
+        v = exchange(v, XOR1, MAX_2_1);
+        v = exchange(v, XOR2, MAX_4_2);
+        v = exchange(v, XOR1, MAX_4_1);
+        return bitonicClean(v);
+    }
+
+    // Sorts a bitonic vector ascending
+    private static IntVector bitonicClean(IntVector v) {
+        v = exchange(v, XOR4, MAX_8_4);
+        v = exchange(v, XOR2, MAX_8_2);
+        return exchange(v, XOR1, MAX_8_1);
+    }
+
+    private static IntVector exchange(IntVector v, VectorShuffle<Integer> partner, VectorMask<Integer> takeMax) {
+        IntVector p = v.rearrange(partner);
+        return v.min(p).blend(v.max(p), takeMax);
+    }
+}